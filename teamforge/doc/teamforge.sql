@@ -24,6 +24,10 @@ create table user
     tags         varchar(1024)                      null comment '标签 json 列表'
 ) comment '用户';
 
+-- 按修改时间增量同步内存中的用户标签索引
+create index idx_updateTime
+    on user (updateTime);
+
 -- 队伍表
 create table team
 (
@@ -31,6 +35,7 @@ create table team
     name        varchar(256)                       not null comment '队伍名称',
     description varchar(1024)                      null comment '描述',
     maxNum      int      default 1                 not null comment '最大人数',
+    memberCount int      default 0                 not null comment '已加入人数，与 user_team 冗余，由加入、退出、解散时的条件更新维护',
     expireTime  datetime                           null comment '过期时间',
     userId      bigint comment '用户id（队长 id）',
     status      int      default 0                 not null comment '0 - 公开，1 - 私有，2 - 加密',
@@ -40,6 +45,19 @@ create table team
     isDelete    tinyint  default 0                 not null comment '是否删除'
 ) comment '队伍';
 
+create index idx_expireTime
+    on team (expireTime);
+
+create index idx_createTime
+    on team (createTime);
+
+create index idx_userId
+    on team (userId);
+
+-- 按修改时间增量同步内存中的队伍搜索索引
+create index idx_updateTime
+    on team (updateTime);
+
 -- 用户队伍关系
 create table user_team
 (
@@ -52,6 +70,9 @@ create table user_team
     isDelete   tinyint  default 0                 not null comment '是否删除'
 ) comment '用户队伍关系';
 
+create index idx_teamId_userId
+    on user_team (teamId, userId);
+
 
 -- 标签表（可以不创建，因为标签字段已经放到了用户表中）
 create table tag
@@ -72,3 +93,15 @@ create table tag
 
 create index idx_userId
     on tag (userId);
+
+-- 用户标签关系（由 user.tags 冗余拆分而来，用于按标签检索用户）
+create table user_tag
+(
+    userId     bigint                             not null comment '用户 id',
+    tagId      bigint                             not null comment '标签 id',
+    createTime datetime default CURRENT_TIMESTAMP null comment '创建时间',
+    primary key (userId, tagId)
+) comment '用户标签关系';
+
+create index idx_tagId_userId
+    on user_tag (tagId, userId);
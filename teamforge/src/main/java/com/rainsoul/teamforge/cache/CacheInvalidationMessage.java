@@ -0,0 +1,11 @@
+package com.rainsoul.teamforge.cache;
+
+/**
+ * 一级缓存失效通知
+ *
+ * @param nodeId    发出通知的节点id，节点收到自己的通知时忽略
+ * @param cacheName 缓存名称
+ * @param key       失效的 key，为null时清空整个缓存
+ */
+public record CacheInvalidationMessage(String nodeId, String cacheName, String key) {
+}
@@ -0,0 +1,49 @@
+package com.rainsoul.teamforge.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存的命中统计，使用 LongAdder 避免高并发下计数成为瓶颈
+ */
+public class CacheStats {
+
+    private final LongAdder l1Hits = new LongAdder();
+
+    private final LongAdder l2Hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    void recordL1Hit() {
+        l1Hits.increment();
+    }
+
+    void recordL2Hit() {
+        l2Hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+}
@@ -0,0 +1,160 @@
+package com.rainsoul.teamforge.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 热点数据的本地缓存，提供请求合并、概率提前刷新（XFetch）和过期后返回旧值（stale-while-revalidate）
+ * <p>
+ * 每个条目有两个时间点：
+ * <ul>
+ *     <li>新鲜期结束（freshTtl）：之后的读取直接返回旧值，同时在后台刷新；</li>
+ *     <li>彻底过期（freshTtl + staleTtl）：条目被删除，读取需要同步加载。</li>
+ * </ul>
+ * 新鲜期内按 XFetch 算法以一定概率提前在后台刷新：当 now - delta * beta * ln(random) >= 新鲜期结束时间 时刷新，
+ * delta 为上次加载耗时。越接近过期、加载越慢，提前刷新的概率越大，各节点的刷新时间被随机打散，不会同时访问数据库。
+ * 同步加载和后台刷新都经过 {@link SingleFlight}，同一个 key 同一时刻只有一个加载。
+ * </p>
+ *
+ * @param <K> key 类型
+ * @param <V> 值类型
+ */
+@Slf4j
+public class RefreshAheadCache<K, V> {
+
+    private final Cache<K, Entry<V>> store;
+
+    private final SingleFlight<K, V> singleFlight = new SingleFlight<>();
+
+    /**
+     * 正在后台刷新的 key，避免重复提交刷新任务
+     */
+    private final Set<K> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+    private final long freshTtlMillis;
+
+    private final double beta;
+
+    private final Executor refreshExecutor;
+
+    private final LongSupplier clock;
+
+    private final DoubleSupplier random;
+
+    /**
+     * @param maxSize         最大条数。
+     * @param freshTtl        新鲜期。
+     * @param staleTtl        新鲜期结束后仍可返回旧值的时长。
+     * @param beta            XFetch 提前刷新系数，越大越早刷新，1 为推荐值，0 关闭提前刷新。
+     * @param refreshExecutor 后台刷新使用的线程池。
+     */
+    public RefreshAheadCache(long maxSize, Duration freshTtl, Duration staleTtl, double beta, Executor refreshExecutor) {
+        this(maxSize, freshTtl, staleTtl, beta, refreshExecutor, System::currentTimeMillis,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RefreshAheadCache(long maxSize, Duration freshTtl, Duration staleTtl, double beta, Executor refreshExecutor,
+                      LongSupplier clock, DoubleSupplier random) {
+        this.store = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(freshTtl.plus(staleTtl))
+                .build();
+        this.freshTtlMillis = freshTtl.toMillis();
+        this.beta = beta;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * 获取缓存值，不存在时同步加载，过期或即将过期时返回当前值并在后台刷新。
+     *
+     * @param key    key。
+     * @param loader 加载函数。
+     * @return 缓存值。
+     */
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = store.getIfPresent(key);
+        if (entry == null) {
+            return singleFlight.execute(key, () -> load(key, loader));
+        }
+        if (shouldRefresh(entry)) {
+            refreshAsync(key, loader);
+        }
+        return entry.value();
+    }
+
+    /**
+     * 删除缓存，下次读取时同步加载。
+     *
+     * @param key key。
+     */
+    public void invalidate(K key) {
+        store.invalidate(key);
+    }
+
+    /**
+     * 已过新鲜期，或按 XFetch 概率决定提前刷新。
+     */
+    private boolean shouldRefresh(Entry<V> entry) {
+        long now = clock.getAsLong();
+        if (now >= entry.freshUntil()) {
+            return true;
+        }
+        if (beta <= 0) {
+            return false;
+        }
+        // -ln(random) 服从指数分布，大多数时候很小，偶尔很大
+        double earlyMillis = -entry.loadMillis() * beta * Math.log(random.getAsDouble());
+        return now + earlyMillis >= entry.freshUntil();
+    }
+
+    private void refreshAsync(K key, Supplier<V> loader) {
+        if (!refreshingKeys.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    singleFlight.execute(key, () -> load(key, loader));
+                } catch (RuntimeException e) {
+                    // 刷新失败时继续返回旧值，直到彻底过期
+                    log.error("refresh cache error, key: {}", key, e);
+                } finally {
+                    refreshingKeys.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshingKeys.remove(key);
+            log.error("submit cache refresh error, key: {}", key, e);
+        }
+    }
+
+    private V load(K key, Supplier<V> loader) {
+        long start = clock.getAsLong();
+        V value = loader.get();
+        long end = clock.getAsLong();
+        store.put(key, new Entry<>(value, Math.max(1, end - start), end + freshTtlMillis));
+        return value;
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param value      缓存值
+     * @param loadMillis 加载耗时（毫秒），即 XFetch 中的 delta
+     * @param freshUntil 新鲜期结束时间
+     */
+    private record Entry<V>(V value, long loadMillis, long freshUntil) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.rainsoul.teamforge.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并：同一个 key 同一时刻只有一个加载在执行，其他并发调用等待同一个结果
+ * <p>
+ * 缓存失效的瞬间大量请求同时未命中时，只有第一个请求访问数据库，其余请求共享它的结果，
+ * 避免缓存击穿。加载完成后立即移除，之后的调用重新加载，本身不缓存结果。
+ * </p>
+ *
+ * @param <K> key 类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightMap = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载，已有相同 key 的加载在执行时等待其结果。
+     *
+     * @param key    key。
+     * @param loader 加载函数，在第一个调用方的线程中执行。
+     * @return 加载结果。
+     * @throws RuntimeException 加载函数抛出的异常会传给所有等待的调用方。
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = inFlightMap.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 判断 key 是否有加载正在执行。
+     *
+     * @param key key。
+     * @return 正在加载返回true。
+     */
+    public boolean isInFlight(K key) {
+        return inFlightMap.containsKey(key);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.rainsoul.teamforge.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.rainsoul.teamforge.constant.CacheConstant.CACHE_KEY_PREFIX;
+
+/**
+ * 二级缓存：一级为进程内 Caffeine，二级为 Redis（可关闭）
+ * <p>
+ * 读取顺序为 一级 -> 二级 -> 数据库，二级命中时回填一级。
+ * 写入和失效时先更新 Redis，再通过 pub/sub 通知所有节点删除各自的一级缓存，事务中的失效在提交后执行，
+ * 一级缓存同时设置了较短的过期时间，通知丢失时也只会短暂读到旧数据。
+ * Redis 出错时只记录日志，按未命中处理，不影响业务。
+ * </p>
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final Cache<String, Object> l1Cache;
+
+    /**
+     * 为null时不使用二级缓存
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Duration l2Ttl;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final CacheStats stats = new CacheStats();
+
+    TwoLevelCache(String name, Cache<String, Object> l1Cache, RedisTemplate<String, Object> redisTemplate,
+                  Duration l2Ttl, TwoLevelCacheManager cacheManager) {
+        // 不缓存null，调用方通过 unless = "#result == null" 跳过
+        super(false);
+        this.name = name;
+        this.l1Cache = l1Cache;
+        this.redisTemplate = redisTemplate;
+        this.l2Ttl = l2Ttl;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1Cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = toCacheKey(key);
+        Object value = l1Cache.getIfPresent(cacheKey);
+        if (value != null) {
+            stats.recordL1Hit();
+            return value;
+        }
+        value = getFromL2(cacheKey);
+        if (value != null) {
+            stats.recordL2Hit();
+            l1Cache.put(cacheKey, value);
+            return value;
+        }
+        stats.recordMiss();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = toCacheKey(key);
+        Object value = l1Cache.getIfPresent(cacheKey);
+        if (value != null) {
+            stats.recordL1Hit();
+            return (T) fromStoreValue(value);
+        }
+        // 同一节点上同一个 key 只有一个线程加载
+        value = l1Cache.get(cacheKey, k -> {
+            Object l2Value = getFromL2(k);
+            if (l2Value != null) {
+                stats.recordL2Hit();
+                return l2Value;
+            }
+            stats.recordMiss();
+            try {
+                Object loaded = toStoreValue(valueLoader.call());
+                putToL2(k, loaded);
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String cacheKey = toCacheKey(key);
+        Object storeValue = toStoreValue(value);
+        putToL2(cacheKey, storeValue);
+        l1Cache.put(cacheKey, storeValue);
+        cacheManager.publishInvalidation(name, cacheKey);
+    }
+
+    /**
+     * 在事务中调用时推迟到事务提交后删除，避免其他请求在提交前把旧数据重新加载进缓存；回滚时不删除。
+     */
+    @Override
+    public void evict(Object key) {
+        afterCommit(() -> doEvict(toCacheKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(this::doClear);
+    }
+
+    private void doEvict(String cacheKey) {
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.delete(toRedisKey(cacheKey));
+            } catch (Exception e) {
+                log.error("evict l2 cache error, cache: {}, key: {}", name, cacheKey, e);
+            }
+        }
+        l1Cache.invalidate(cacheKey);
+        cacheManager.publishInvalidation(name, cacheKey);
+    }
+
+    private void doClear() {
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.delete(scanRedisKeys());
+            } catch (Exception e) {
+                log.error("clear l2 cache error, cache: {}", name, e);
+            }
+        }
+        l1Cache.invalidateAll();
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    /**
+     * 收到其他节点的失效通知时删除一级缓存。
+     *
+     * @param cacheKey 失效的 key，为null时清空。
+     */
+    void invalidateLocal(String cacheKey) {
+        if (cacheKey == null) {
+            l1Cache.invalidateAll();
+        } else {
+            l1Cache.invalidate(cacheKey);
+        }
+        stats.recordInvalidation();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public long getL1Size() {
+        return l1Cache.estimatedSize();
+    }
+
+    private Object getFromL2(String cacheKey) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(toRedisKey(cacheKey));
+        } catch (Exception e) {
+            log.error("read l2 cache error, cache: {}, key: {}", name, cacheKey, e);
+            return null;
+        }
+    }
+
+    private void putToL2(String cacheKey, Object storeValue) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(toRedisKey(cacheKey), storeValue, l2Ttl);
+        } catch (Exception e) {
+            log.error("write l2 cache error, cache: {}, key: {}", name, cacheKey, e);
+        }
+    }
+
+    /**
+     * 使用 SCAN 而不是 KEYS 查找本缓存的所有 key，避免阻塞 Redis。
+     */
+    private List<String> scanRedisKeys() {
+        ScanOptions scanOptions = ScanOptions.scanOptions().match(toRedisKey("*")).count(1000).build();
+        return redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> redisKeyList = new ArrayList<>();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(scanOptions)) {
+                cursor.forEachRemaining(redisKey -> redisKeyList.add(new String(redisKey, StandardCharsets.UTF_8)));
+            }
+            return redisKeyList;
+        });
+    }
+
+    /**
+     * 有事务时在提交后执行，回滚时不执行；没有事务时立即执行。
+     */
+    private static void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
+    /**
+     * 一级和二级缓存统一使用字符串 key，Long 和 Integer 类型的同一个id不会被当成两个 key。
+     */
+    private static String toCacheKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private String toRedisKey(String cacheKey) {
+        return CACHE_KEY_PREFIX + name + ":" + cacheKey;
+    }
+}
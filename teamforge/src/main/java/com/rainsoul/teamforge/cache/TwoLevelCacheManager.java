@@ -0,0 +1,113 @@
+package com.rainsoul.teamforge.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.rainsoul.teamforge.constant.CacheConstant.CACHE_INVALIDATION_CHANNEL;
+
+/**
+ * 二级缓存管理器，按缓存名称懒创建 {@link TwoLevelCache}，
+ * 同时作为失效通知的监听器，收到其他节点的通知后删除本地一级缓存。
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    /**
+     * 当前节点id，用于忽略自己发出的通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoLevelCache> cacheMap = new ConcurrentHashMap<>();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final boolean l2Enabled;
+
+    private final long l1MaxSize;
+
+    private final Duration l1Ttl;
+
+    private final Duration l2Ttl;
+
+    /**
+     * @param redisTemplate Redis 客户端，用于二级缓存和失效通知。
+     * @param l2Enabled     是否启用 Redis 二级缓存；关闭时仍通过 Redis 发送失效通知。
+     * @param l1MaxSize     每个缓存一级缓存的最大条数。
+     * @param l1Ttl         一级缓存写入后的过期时间。
+     * @param l2Ttl         二级缓存的过期时间。
+     */
+    public TwoLevelCacheManager(RedisTemplate<String, Object> redisTemplate, boolean l2Enabled,
+                                long l1MaxSize, Duration l1Ttl, Duration l2Ttl) {
+        this.redisTemplate = redisTemplate;
+        this.l2Enabled = l2Enabled;
+        this.l1MaxSize = l1MaxSize;
+        this.l1Ttl = l1Ttl;
+        this.l2Ttl = l2Ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return cacheMap.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(cacheMap.keySet());
+    }
+
+    /**
+     * 获取所有缓存的命中统计。
+     *
+     * @return 缓存名称 -> 缓存。
+     */
+    public Map<String, TwoLevelCache> getCaches() {
+        return Collections.unmodifiableMap(cacheMap);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof CacheInvalidationMessage invalidationMessage)
+                || nodeId.equals(invalidationMessage.nodeId())) {
+            return;
+        }
+        TwoLevelCache cache = cacheMap.get(invalidationMessage.cacheName());
+        if (cache != null) {
+            cache.invalidateLocal(invalidationMessage.key());
+        }
+    }
+
+    /**
+     * 通知其他节点删除一级缓存。
+     *
+     * @param cacheName 缓存名称。
+     * @param cacheKey  失效的 key，为null时清空整个缓存。
+     */
+    void publishInvalidation(String cacheName, String cacheKey) {
+        try {
+            redisTemplate.convertAndSend(CACHE_INVALIDATION_CHANNEL,
+                    new CacheInvalidationMessage(nodeId, cacheName, cacheKey));
+        } catch (Exception e) {
+            // 通知失败时其他节点依靠一级缓存过期时间兜底
+            log.error("publish cache invalidation error, cache: {}, key: {}", cacheName, cacheKey, e);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> l1Cache = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1Ttl)
+                .build();
+        return new TwoLevelCache(name, l1Cache, l2Enabled ? redisTemplate : null, l2Ttl, this);
+    }
+}
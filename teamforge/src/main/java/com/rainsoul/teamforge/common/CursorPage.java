@@ -0,0 +1,40 @@
+package com.rainsoul.teamforge.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通用游标分页结果
+ * <p>
+ * 与 PageRequest 的页码分页不同，游标分页以上一页最后一条记录为起点向后查找，
+ * 翻页深度不影响查询开销。
+ * </p>
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 6512307418963728145L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records = new ArrayList<>();
+
+    /**
+     * 下一页游标，没有下一页时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 总数，可能是缓存的近似值，不统计时为空
+     */
+    private Long total;
+}
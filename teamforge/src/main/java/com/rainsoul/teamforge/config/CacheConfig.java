@@ -0,0 +1,63 @@
+package com.rainsoul.teamforge.config;
+
+import com.rainsoul.teamforge.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rainsoul.teamforge.constant.CacheConstant.CACHE_INVALIDATION_CHANNEL;
+
+/**
+ * 缓存配置类，启用声明式缓存（@Cacheable / @CacheEvict），使用 Caffeine + Redis 二级缓存。
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisTemplate<String, Object> redisTemplate,
+                                             @Value("${teamforge.cache.l2-enabled:true}") boolean l2Enabled,
+                                             @Value("${teamforge.cache.l1-max-size:10000}") long l1MaxSize,
+                                             @Value("${teamforge.cache.l1-expire-seconds:60}") long l1ExpireSeconds,
+                                             @Value("${teamforge.cache.l2-expire-seconds:600}") long l2ExpireSeconds) {
+        return new TwoLevelCacheManager(redisTemplate, l2Enabled, l1MaxSize,
+                Duration.ofSeconds(l1ExpireSeconds), Duration.ofSeconds(l2ExpireSeconds));
+    }
+
+    /**
+     * 订阅一级缓存失效通知
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CACHE_INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * 热点缓存后台刷新使用的线程池，队列满时拒绝刷新任务，调用方继续读旧值
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor cacheRefreshExecutor(@Value("${teamforge.cache.refresh-threads:2}") int refreshThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.rainsoul.teamforge.config;
+
+import lombok.Data;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Redisson 配置类，复用 spring.data.redis 的连接配置，用于分布式锁。
+ */
+@Configuration
+@ConfigurationProperties(prefix = "spring.data.redis")
+@Data
+public class RedissonConfig {
+
+    private String host = "localhost";
+
+    private int port = 6379;
+
+    private String password;
+
+    private int database = 0;
+
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient() {
+        Config config = new Config();
+        String redisAddress = String.format("redis://%s:%s", host, port);
+        config.useSingleServer()
+                .setAddress(redisAddress)
+                .setPassword(password)
+                .setDatabase(database);
+        return Redisson.create(config);
+    }
+}
@@ -0,0 +1,27 @@
+package com.rainsoul.teamforge.constant;
+
+/**
+ * 缓存常量接口，定义了缓存名称和缓存使用的 Redis key。
+ */
+public interface CacheConstant {
+
+    /**
+     * 脱敏用户缓存，key 为用户id
+     */
+    String USER_CACHE = "user";
+
+    /**
+     * 队伍缓存，key 为队伍id
+     */
+    String TEAM_CACHE = "team";
+
+    /**
+     * 二级缓存 key 前缀，完整 key 为 前缀 + 缓存名称 + ":" + key
+     */
+    String CACHE_KEY_PREFIX = "teamforge:cache:";
+
+    /**
+     * 一级缓存失效通知频道
+     */
+    String CACHE_INVALIDATION_CHANNEL = "teamforge:cache:invalidation";
+}
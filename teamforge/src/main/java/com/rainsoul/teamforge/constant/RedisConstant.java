@@ -0,0 +1,33 @@
+package com.rainsoul.teamforge.constant;
+
+/**
+ * Redis 常量接口，定义了缓存和分布式锁使用的 key。
+ */
+public interface RedisConstant {
+
+    /**
+     * 推荐用户分页缓存 key，参数依次为用户id、每页数量、页码。
+     * 未登录用户的用户id为 0。
+     */
+    String USER_RECOMMEND_KEY = "teamforge:user:recommend:%s:%s:%s";
+
+    /**
+     * 推荐用户预热任务的分布式锁 key
+     */
+    String PRECACHE_JOB_LOCK_KEY = "teamforge:precachejob:docache:lock";
+
+    /**
+     * 队伍人数修正任务的分布式锁 key
+     */
+    String TEAM_MEMBER_COUNT_RECONCILE_LOCK_KEY = "teamforge:team:membercount:reconcile:lock";
+
+    /**
+     * 队伍操作的用户分布式锁 key，参数为用户id
+     */
+    String USER_TEAM_LOCK_KEY = "teamforge:team:lock:user:%s";
+
+    /**
+     * 队伍操作的队伍分布式锁 key，参数为队伍id
+     */
+    String TEAM_LOCK_KEY = "teamforge:team:lock:team:%s";
+}
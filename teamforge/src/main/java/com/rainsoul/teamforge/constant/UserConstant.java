@@ -25,4 +25,21 @@ public interface UserConstant {
      */
     int ADMIN_ROLE = 1;
 
+    //  ------- 队伍 --------
+
+    /**
+     * 用户最多加入的队伍数（包括自己创建的队伍）。
+     */
+    int MAX_JOIN_TEAM_NUM = 5;
+
+    /**
+     * 普通用户最多创建的队伍数（作为队长的未删除队伍）。
+     */
+    int DEFAULT_MAX_CREATE_TEAM_NUM = 5;
+
+    /**
+     * 管理员最多创建的队伍数（作为队长的未删除队伍）。
+     */
+    int ADMIN_MAX_CREATE_TEAM_NUM = 20;
+
 }
@@ -0,0 +1,60 @@
+package com.rainsoul.teamforge.controller;
+
+import com.rainsoul.teamforge.cache.CacheStats;
+import com.rainsoul.teamforge.cache.TwoLevelCacheManager;
+import com.rainsoul.teamforge.common.BaseResponse;
+import com.rainsoul.teamforge.common.ErrorCode;
+import com.rainsoul.teamforge.common.ResultUtils;
+import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.model.vo.CacheStatsVO;
+import com.rainsoul.teamforge.service.UserService;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存接口
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Resource
+    private TwoLevelCacheManager cacheManager;
+
+    @Resource
+    private UserService userService;
+
+    /**
+     * 获取本节点各缓存的命中统计，仅管理员可用。
+     *
+     * @param request HttpServletRequest对象，用于判断请求用户是否为管理员。
+     * @return 各缓存的命中统计。
+     */
+    @GetMapping("/stats")
+    public BaseResponse<List<CacheStatsVO>> getCacheStats(HttpServletRequest request) {
+        if (!userService.isAdmin(request)) {
+            throw new BusinessException(ErrorCode.NO_AUTH);
+        }
+        List<CacheStatsVO> statsList = new ArrayList<>();
+        cacheManager.getCaches().forEach((cacheName, cache) -> {
+            CacheStats stats = cache.getStats();
+            CacheStatsVO statsVO = new CacheStatsVO();
+            statsVO.setCacheName(cacheName);
+            statsVO.setL1Hits(stats.getL1Hits());
+            statsVO.setL2Hits(stats.getL2Hits());
+            statsVO.setMisses(stats.getMisses());
+            long total = stats.getL1Hits() + stats.getL2Hits() + stats.getMisses();
+            statsVO.setHitRate(total == 0 ? 0 : (double) (stats.getL1Hits() + stats.getL2Hits()) / total);
+            statsVO.setInvalidations(stats.getInvalidations());
+            statsVO.setL1Size(cache.getL1Size());
+            statsList.add(statsVO);
+        });
+        return ResultUtils.success(statsList);
+    }
+}
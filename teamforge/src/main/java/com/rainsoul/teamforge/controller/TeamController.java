@@ -3,13 +3,13 @@ package com.rainsoul.teamforge.controller;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.rainsoul.teamforge.common.BaseResponse;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.common.DeleteRequest;
 import com.rainsoul.teamforge.common.ErrorCode;
 import com.rainsoul.teamforge.common.ResultUtils;
 import com.rainsoul.teamforge.exception.BusinessException;
 import com.rainsoul.teamforge.model.domain.Team;
 import com.rainsoul.teamforge.model.domain.User;
-import com.rainsoul.teamforge.model.domain.UserTeam;
 import com.rainsoul.teamforge.model.dto.TeamQuery;
 import com.rainsoul.teamforge.model.request.TeamAddRequest;
 import com.rainsoul.teamforge.model.request.TeamJoinRequest;
@@ -24,10 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -109,11 +106,11 @@ public class TeamController {
     }
 
     /**
-     * 获取队伍列表 todo 待完善
+     * 获取队伍列表
      *
      * @param teamQuery 查询条件，包含分页、排序等信息
-     * @param request   用户的请求，用于获取登录用户信息和判断是否为管理员
-     * @return 返回队伍列表的响应信息，包含队伍列表和是否已加入队伍的标志
+     * @param request   用户的请求，用于获取登录用户信息和判断是否为管理员，未登录也可以访问
+     * @return 返回队伍列表的响应信息，包含队伍列表、已加入人数和是否已加入队伍的标志
      */
     @GetMapping("/list")
     public BaseResponse<List<TeamUserVO>> listTeams(TeamQuery teamQuery, HttpServletRequest request) {
@@ -123,48 +120,42 @@ public class TeamController {
         }
         // 判断当前用户是否为管理员
         boolean isAdmin = userService.isAdmin(request);
-        // 根据查询条件和是否为管理员，获取队伍列表
-        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, isAdmin);
-        // 提取队伍ID列表，用于后续查询用户加入的队伍
-        List<Long> teamIdList = teamList.stream().map(TeamUserVO::getId).collect(Collectors.toList());
-        // 查询登录用户已加入的队伍
-        QueryWrapper<UserTeam> wrapper = new QueryWrapper<>();
-        try {
-            User loginUser = userService.getLoginUser(request);
-            wrapper.eq("userId", loginUser.getId());
-            wrapper.in("teamId", teamIdList);
-            List<UserTeam> userTeamList = userTeamService.list(wrapper);
-            // 提取已加入的队伍ID集合
-            Set<Long> hasJoinTeamIdSet = userTeamList.stream().map(UserTeam::getTeamId)
-                    .collect(Collectors.toSet());
-            // 标记每支队伍是否已加入
-            teamList.forEach(team -> {
-                boolean hasJoin = hasJoinTeamIdSet.contains(team.getId());
-                team.setHasJoin(hasJoin);
-            });
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        // 查询已加入每个队伍的用户数量
-        QueryWrapper<UserTeam> userTeamJoinQueryWrapper = new QueryWrapper<>();
-        userTeamJoinQueryWrapper.in("teamId", teamIdList);
-        List<UserTeam> userTeamList = userTeamService.list(userTeamJoinQueryWrapper);
-        // 组合队伍ID和加入该队伍的用户列表
-        Map<Long, List<UserTeam>> teamIdUserTeamList = userTeamList.stream().collect(Collectors.groupingBy(UserTeam::getTeamId));
-        // 设置每支队伍已加入人数
-        teamList.forEach(team -> team.setHasJoinNum(teamIdUserTeamList.getOrDefault(team.getId(), new ArrayList<>()).size()));
-        // 返回成功响应，包含标记了是否已加入以及已加入人数的队伍列表
+        User loginUser = userService.getLoginUser(request);
+        // 已加入人数和是否已加入在同一条查询中得到
+        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, isAdmin, loginUser);
         return ResultUtils.success(teamList);
     }
 
     /**
-     * 查询团队列表，支持分页查询。
+     * 游标分页查询团队列表，翻页时传入上一页返回的 nextCursor。
+     * 不执行 count 查询，深翻页不变慢；总数只在第一页返回，是定期刷新的近似值。
+     *
+     * @param teamQuery 查询条件，cursor 为游标，pageSize 为每页数量（1 ~ 100）
+     * @param request   用户的请求，用于获取登录用户信息和判断是否为管理员，未登录也可以访问
+     * @return 一页队伍、下一页游标和近似总数，不包含队伍密码
+     */
+    @GetMapping("/list/cursor")
+    public BaseResponse<CursorPage<TeamUserVO>> listTeamsByCursor(TeamQuery teamQuery, HttpServletRequest request) {
+        if (teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        boolean isAdmin = userService.isAdmin(request);
+        User loginUser = userService.getLoginUser(request);
+        CursorPage<TeamUserVO> teamPage = teamService.listTeamsByCursor(teamQuery, isAdmin, loginUser);
+        return ResultUtils.success(teamPage);
+    }
+
+    /**
+     * 查询团队列表，支持分页查询，每次都会执行 count 查询，供需要精确总数和跳页的管理工具使用，
+     * 普通列表翻页使用 /list/cursor。
+     * 已加入人数直接读取队伍的冗余计数，是否已加入按本页的队伍id批量查询，传输的数据量只和本页队伍数有关。
      *
      * @param teamQuery 包含查询条件和分页信息的对象。不可为null，否则会抛出参数错误异常。
-     * @return 返回一个包含查询结果的分页对象BaseResponse<Page < Team>>，其中Page<Team>是团队的分页结果。
+     * @param request   用户的请求，用于获取登录用户信息，未登录也可以访问
+     * @return 返回一个包含查询结果的分页对象BaseResponse<Page < TeamUserVO>>，不包含队伍密码。
      */
     @GetMapping("/list/page")
-    public BaseResponse<Page<Team>> listTeamsByPage(TeamQuery teamQuery) {
+    public BaseResponse<Page<TeamUserVO>> listTeamsByPage(TeamQuery teamQuery, HttpServletRequest request) {
         // 校验查询参数是否为null
         if (teamQuery == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
@@ -178,8 +169,22 @@ public class TeamController {
         QueryWrapper<Team> queryWrapper = new QueryWrapper<>(team);
         // 执行分页查询
         Page<Team> resultPage = teamService.page(page, queryWrapper);
+        List<Long> teamIdList = resultPage.getRecords().stream().map(Team::getId).collect(Collectors.toList());
+        // 查询登录用户加入了本页的哪些队伍
+        User loginUser = userService.getLoginUser(request);
+        Set<Long> hasJoinTeamIdSet = loginUser == null ? Collections.emptySet()
+                : userTeamService.listJoinedTeamIds(loginUser.getId(), teamIdList);
+        List<TeamUserVO> teamUserVOList = resultPage.getRecords().stream().map(resultTeam -> {
+            TeamUserVO teamUserVO = new TeamUserVO();
+            BeanUtils.copyProperties(resultTeam, teamUserVO);
+            teamUserVO.setHasJoinNum(resultTeam.getMemberCount());
+            teamUserVO.setHasJoin(hasJoinTeamIdSet.contains(resultTeam.getId()));
+            return teamUserVO;
+        }).collect(Collectors.toList());
+        Page<TeamUserVO> teamUserVOPage = new Page<>(resultPage.getCurrent(), resultPage.getSize(), resultPage.getTotal());
+        teamUserVOPage.setRecords(teamUserVOList);
         // 将查询结果包装成成功响应返回
-        return ResultUtils.success(resultPage);
+        return ResultUtils.success(teamUserVOPage);
     }
 
     /**
@@ -243,7 +248,7 @@ public class TeamController {
         // 设置查询条件中的用户ID，用于查询该用户创建的团队
         teamQuery.setUserId(loginUser.getId());
         // 查询团队列表，true表示只查询用户创建的团队
-        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true);
+        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true, loginUser);
         // 返回查询结果的成功响应
         return ResultUtils.success(teamList);
     }
@@ -262,17 +267,12 @@ public class TeamController {
         }
         // 获取登录用户信息
         User loginUser = userService.getLoginUser(request);
-        // 查询条件：用户加入的团队
-        QueryWrapper<UserTeam> wrapper = new QueryWrapper<>();
-        wrapper.eq("userId", loginUser.getId());
-        List<UserTeam> userTeamList = userTeamService.list(wrapper);
-        // 按团队ID分组，以便后续处理
-        Map<Long, List<UserTeam>> listMap = userTeamList.stream().collect(Collectors.groupingBy(UserTeam::getTeamId));
-        List<Long> idList = new ArrayList<>(listMap.keySet());
+        // 只查询用户加入的团队id，不加载关系表的整行数据
+        List<Long> idList = new ArrayList<>(userTeamService.listJoinedTeamIds(loginUser.getId(), null));
         // 更新查询条件，加入的团队ID列表
         teamQuery.setIdList(idList);
         // 查询并返回团队列表
-        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true);
+        List<TeamUserVO> teamList = teamService.listTeams(teamQuery, true, loginUser);
         return ResultUtils.success(teamList);
     }
 
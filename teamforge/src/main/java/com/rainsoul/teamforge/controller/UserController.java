@@ -1,11 +1,14 @@
 package com.rainsoul.teamforge.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.rainsoul.teamforge.common.BaseResponse;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.common.ErrorCode;
 import com.rainsoul.teamforge.common.ResultUtils;
 import com.rainsoul.teamforge.exception.BusinessException;
 import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.model.dto.UserTagQuery;
 import com.rainsoul.teamforge.model.request.UserRegisterRequest;
 import com.rainsoul.teamforge.service.UserService;
 import jakarta.annotation.Resource;
@@ -123,10 +126,8 @@ public class UserController {
         }
         // 获取当前用户的ID
         long userId = currentUser.getId();
-        // 通过用户ID从数据库获取用户信息
-        User user = userService.getById(userId);
-        // 对用户信息进行安全处理后返回
-        User safetyUser = userService.getSafetyUser(user);
+        // 通过用户ID获取脱敏后的用户信息，优先读缓存
+        User safetyUser = userService.getSafetyUserById(userId);
         return ResultUtils.success(safetyUser);
     }
 
@@ -174,6 +175,38 @@ public class UserController {
         return ResultUtils.success(userList);
     }
 
+    /**
+     * 根据标签名列表搜索用户（游标分页）。
+     *
+     * @param userTagQuery 查询条件，包含标签名列表、上一页返回的游标 lastId 和每页数量 pageSize。
+     * @return 返回一页用户及下一页游标，下一页请求时将 nextCursor 作为 lastId 传入。
+     */
+    @GetMapping("/search/tags/page")
+    public BaseResponse<CursorPage<User>> searchUsersByTagsByPage(UserTagQuery userTagQuery) {
+        if (userTagQuery == null || CollectionUtils.isEmpty(userTagQuery.getTagNameList())) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        long lastId = userTagQuery.getLastId() == null ? 0 : userTagQuery.getLastId();
+        CursorPage<User> userPage = userService.searchUsersByTags(userTagQuery.getTagNameList(), lastId,
+                userTagQuery.getPageSize());
+        return ResultUtils.success(userPage);
+    }
+
+    /**
+     * 分页获取推荐用户。
+     *
+     * @param pageSize 每页数量。
+     * @param pageNum  页码，从 1 开始。
+     * @param request  HttpServletRequest对象，用于获取当前登录用户信息，未登录也可以访问。
+     * @return 一页推荐用户，优先从预热的缓存中读取。
+     */
+    @GetMapping("/recommend")
+    public BaseResponse<Page<User>> recommendUsers(long pageSize, long pageNum, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        Page<User> userPage = userService.recommendUsers(pageNum, pageSize, loginUser);
+        return ResultUtils.success(userPage);
+    }
+
     /**
      * 更新用户信息。
      *
@@ -198,6 +231,23 @@ public class UserController {
         return ResultUtils.success(result);
     }
 
+    /**
+     * 获取与当前登录用户标签最相似的用户。
+     *
+     * @param num     匹配的用户数量。
+     * @param request HttpServletRequest对象，用于获取当前登录用户信息。
+     * @return 按相似度从高到低排序的用户列表。
+     */
+    @GetMapping("/match")
+    public BaseResponse<List<User>> matchUsers(long num, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        List<User> userList = userService.matchUsers(num, loginUser);
+        return ResultUtils.success(userList);
+    }
+
     /**
      * 删除用户接口
      *
@@ -0,0 +1,173 @@
+package com.rainsoul.teamforge.expire;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 第 0 层每格 tickMillis，共 wheelSize 格；第 i 层每格是第 i-1 层一整圈的时长。
+ * 到期时间落在哪一层由距离当前时间的远近决定，越远的放在越高层，格子越粗。
+ * 时间推进到高层某一格的起点时，把这一格的元素重新放入低层，最终在第 0 层对应的格子走完时到期。
+ * 添加和到期都是 O(1)，不需要像优先队列一样维护整体顺序，适合大量到期时间各不相同的元素。
+ * </p>
+ * <p>
+ * 到期时间已过的元素在下次推进时立即到期；超过最高层范围的元素不会被添加，由调用方稍后再添加。
+ * 非线程安全，由调用方加锁。
+ * </p>
+ *
+ * @param <T> 元素类型
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    /**
+     * 每层一格的时长
+     */
+    private final long[] levelTickMillis;
+
+    /**
+     * 每层的格子，buckets[level][slot]
+     */
+    private final List<Entry<T>>[][] buckets;
+
+    /**
+     * 已到期、等待下次推进时返回的元素
+     */
+    private List<T> dueList = new ArrayList<>();
+
+    /**
+     * 当前时间，按 tickMillis 对齐
+     */
+    private long currentTime;
+
+    private int size;
+
+    /**
+     * @param tickMillis 第 0 层每格的时长（毫秒），即到期的精度
+     * @param wheelSize  每层的格数
+     * @param levels     层数，可覆盖的时长为 tickMillis * wheelSize ^ levels
+     * @param startTime  起始时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startTime) {
+        if (tickMillis <= 0 || wheelSize <= 1 || levels <= 0) {
+            throw new IllegalArgumentException("invalid timing wheel size");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTickMillis = new long[levels];
+        long levelTick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTickMillis[level] = levelTick;
+            levelTick = Math.multiplyExact(levelTick, wheelSize);
+        }
+        this.buckets = new List[levels][wheelSize];
+        this.currentTime = startTime - Math.floorMod(startTime, tickMillis);
+    }
+
+    /**
+     * 添加元素。
+     *
+     * @param deadline 到期时间（毫秒）
+     * @param item     元素
+     * @return 超过时间轮范围时返回false，元素未被添加
+     */
+    public boolean add(long deadline, T item) {
+        if (!place(new Entry<>(deadline, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的元素。
+     *
+     * @param now 当前时间（毫秒），小于上次推进的时间时不推进
+     * @return 到期的元素，按到期的先后（同一格内不保证顺序）
+     */
+    public List<T> advance(long now) {
+        while (currentTime + tickMillis <= now) {
+            currentTime += tickMillis;
+            // 第 0 层刚走完的一格到期，这一格清空后才能接收下一圈的元素
+            List<Entry<T>> dueBucket = takeBucket(0, slot(currentTime - tickMillis, tickMillis));
+            if (dueBucket != null) {
+                dueBucket.forEach(entry -> dueList.add(entry.item()));
+            }
+            // 从高层到低层，把从现在开始的这一格放回低层
+            for (int level = levelTickMillis.length - 1; level > 0; level--) {
+                long levelTick = levelTickMillis[level];
+                if (Math.floorMod(currentTime, levelTick) == 0) {
+                    List<Entry<T>> bucket = takeBucket(level, slot(currentTime, levelTick));
+                    if (bucket != null) {
+                        bucket.forEach(this::place);
+                    }
+                }
+            }
+        }
+        List<T> expiredList = dueList;
+        dueList = new ArrayList<>();
+        size -= expiredList.size();
+        return expiredList;
+    }
+
+    /**
+     * 时间轮可以容纳的最晚到期时间（不含）。
+     *
+     * @return 毫秒时间戳
+     */
+    public long horizon() {
+        int top = levelTickMillis.length - 1;
+        long topTick = levelTickMillis[top];
+        return currentTime - Math.floorMod(currentTime, topTick) + topTick * wheelSize;
+    }
+
+    /**
+     * 未到期的元素数。
+     *
+     * @return 元素数
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean place(Entry<T> entry) {
+        long deadline = entry.deadline();
+        if (deadline < currentTime) {
+            dueList.add(entry.item());
+            return true;
+        }
+        for (int level = 0; level < levelTickMillis.length; level++) {
+            long levelTick = levelTickMillis[level];
+            long levelStart = currentTime - Math.floorMod(currentTime, levelTick);
+            if (deadline < levelStart + levelTick * wheelSize) {
+                int slot = slot(deadline, levelTick);
+                List<Entry<T>> bucket = buckets[level][slot];
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets[level][slot] = bucket;
+                }
+                bucket.add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Entry<T>> takeBucket(int level, int slot) {
+        List<Entry<T>> bucket = buckets[level][slot];
+        buckets[level][slot] = null;
+        return bucket;
+    }
+
+    private int slot(long time, long levelTick) {
+        return (int) Math.floorMod(Math.floorDiv(time, levelTick), (long) wheelSize);
+    }
+
+    private record Entry<T>(long deadline, T item) {
+    }
+}
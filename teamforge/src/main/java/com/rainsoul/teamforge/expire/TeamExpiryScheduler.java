@@ -0,0 +1,266 @@
+package com.rainsoul.teamforge.expire;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.mapper.UserTeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.service.TeamListIndexService;
+import com.rainsoul.teamforge.service.TeamQuotaService;
+import com.rainsoul.teamforge.service.TeamSearchIndexService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.rainsoul.teamforge.constant.CacheConstant.TEAM_CACHE;
+
+/**
+ * 队伍过期调度器
+ * <p>
+ * 把即将到期的队伍放入分层时间轮，到期时解散队伍：移除成员关系、人数清零并逻辑删除，
+ * 与队长解散队伍的效果相同。过期队伍不再留在队伍表中，列表查询不需要按过期时间过滤。
+ * </p>
+ * <p>
+ * 启动时从数据库加载时间轮范围内（默认约 60 小时）到期的队伍，已过期但未删除的队伍立即解散；
+ * 之后定期加载新进入范围的队伍，创建队伍和修改过期时间时直接登记。
+ * 到期时按数据库中的过期时间再判断一次，过期时间被延后的队伍不会被误删，
+ * 重复登记和多实例同时执行也只会解散一次。解散失败的队伍稍后重试。
+ * </p>
+ */
+@Component
+@Slf4j
+public class TeamExpiryScheduler {
+
+    /**
+     * 解散失败后的重试间隔（毫秒）
+     */
+    private static final long RETRY_DELAY_MILLIS = 60_000;
+
+    private final TeamMapper teamMapper;
+
+    private final UserTeamMapper userTeamMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final TeamSearchIndexService teamSearchIndexService;
+
+    private final TeamListIndexService teamListIndexService;
+
+    private final TeamQuotaService teamQuotaService;
+
+    private final int batchSize;
+
+    private final long tickMillis;
+
+    private final long loadIntervalMillis;
+
+    private final HierarchicalTimingWheel<Long> timingWheel;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 到期时间早于该时间的队伍都已从数据库加载，只由加载线程访问
+     */
+    private Date loadedUntil;
+
+    /**
+     * @param tickMillis          时间轮每格的时长（毫秒），即到期的精度
+     * @param wheelSize           时间轮每层的格数
+     * @param levels              时间轮层数
+     * @param loadIntervalMinutes 从数据库加载新进入范围的队伍的间隔（分钟）
+     * @param batchSize           每次加载和解散的队伍数
+     */
+    public TeamExpiryScheduler(TeamMapper teamMapper, UserTeamMapper userTeamMapper,
+                               TransactionTemplate transactionTemplate, CacheManager cacheManager,
+                               TeamSearchIndexService teamSearchIndexService,
+                               TeamListIndexService teamListIndexService,
+                               TeamQuotaService teamQuotaService,
+                               @Value("${teamforge.team.expiry.tick-millis:1000}") long tickMillis,
+                               @Value("${teamforge.team.expiry.wheel-size:60}") int wheelSize,
+                               @Value("${teamforge.team.expiry.levels:3}") int levels,
+                               @Value("${teamforge.team.expiry.load-interval-minutes:10}") long loadIntervalMinutes,
+                               @Value("${teamforge.team.expiry.batch-size:500}") int batchSize) {
+        this.teamMapper = teamMapper;
+        this.userTeamMapper = userTeamMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.teamSearchIndexService = teamSearchIndexService;
+        this.teamListIndexService = teamListIndexService;
+        this.teamQuotaService = teamQuotaService;
+        this.batchSize = batchSize;
+        this.tickMillis = tickMillis;
+        this.loadIntervalMillis = TimeUnit.MINUTES.toMillis(loadIntervalMinutes);
+        // 启动前登记的队伍也能放入时间轮，加载完成后统一推进
+        this.timingWheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, levels, System.currentTimeMillis());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "team-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 应用启动完成后加载到期队伍并开始推进时间轮。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::loadUpcoming, 0, loadIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 登记队伍的过期时间，超出时间轮范围时忽略，进入范围后由定期加载登记。
+     *
+     * @param teamId     队伍id
+     * @param expireTime 过期时间，为null时不过期
+     */
+    public void register(long teamId, Date expireTime) {
+        if (expireTime == null) {
+            return;
+        }
+        synchronized (timingWheel) {
+            timingWheel.add(expireTime.getTime(), teamId);
+        }
+    }
+
+    /**
+     * 时间轮中等待到期的队伍数。
+     *
+     * @return 队伍数
+     */
+    public int getPendingCount() {
+        synchronized (timingWheel) {
+            return timingWheel.size();
+        }
+    }
+
+    /**
+     * 加载到期时间在 [loadedUntil, 时间轮范围) 内的队伍，首次加载包括所有已过期的队伍。
+     */
+    private void loadUpcoming() {
+        try {
+            Date until;
+            synchronized (timingWheel) {
+                until = new Date(timingWheel.horizon());
+            }
+            long afterId = 0;
+            int loadedNum = 0;
+            while (true) {
+                QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "expireTime")
+                        .ge(loadedUntil != null, "expireTime", loadedUntil)
+                        .lt("expireTime", until)
+                        .gt("id", afterId)
+                        .orderByAsc("id")
+                        .last("limit " + batchSize);
+                List<Team> teamList = teamMapper.selectList(queryWrapper);
+                if (teamList.isEmpty()) {
+                    break;
+                }
+                for (Team team : teamList) {
+                    register(team.getId(), team.getExpireTime());
+                }
+                loadedNum += teamList.size();
+                afterId = teamList.get(teamList.size() - 1).getId();
+            }
+            loadedUntil = until;
+            log.info("team expiry loaded, teams: {}, until: {}", loadedNum, until);
+        } catch (RuntimeException e) {
+            // 下次加载时重试同一范围
+            log.error("load team expiry error", e);
+        }
+    }
+
+    /**
+     * 推进时间轮，解散到期的队伍。
+     */
+    private void tick() {
+        List<Long> dueIdList;
+        synchronized (timingWheel) {
+            dueIdList = timingWheel.advance(System.currentTimeMillis());
+        }
+        for (int i = 0; i < dueIdList.size(); i += batchSize) {
+            List<Long> teamIdList = dueIdList.subList(i, Math.min(i + batchSize, dueIdList.size()));
+            try {
+                expireTeams(teamIdList);
+            } catch (RuntimeException e) {
+                log.error("expire teams error, teams: {}", teamIdList.size(), e);
+                long retryTime = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                synchronized (timingWheel) {
+                    teamIdList.forEach(teamId -> timingWheel.add(retryTime, teamId));
+                }
+            }
+        }
+    }
+
+    /**
+     * 解散一批到期的队伍，过期时间已被延后或已删除的队伍跳过。
+     *
+     * @param teamIdList 队伍id
+     */
+    void expireTeams(List<Long> teamIdList) {
+        List<Team> expiredTeamList = transactionTemplate.execute(status -> {
+            Date now = new Date();
+            // 锁定队伍行，和加入、修改队伍互斥
+            QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "userId")
+                    .in("id", teamIdList)
+                    .le("expireTime", now)
+                    .last("for update");
+            List<Team> teamList = teamMapper.selectList(queryWrapper);
+            if (teamList.isEmpty()) {
+                return teamList;
+            }
+            List<Long> idList = new ArrayList<>();
+            for (Team team : teamList) {
+                idList.add(team.getId());
+            }
+            QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+            userTeamQueryWrapper.in("teamId", idList);
+            userTeamMapper.delete(userTeamQueryWrapper);
+            UpdateWrapper<Team> teamUpdateWrapper = new UpdateWrapper<>();
+            teamUpdateWrapper.in("id", idList);
+            teamUpdateWrapper.set("memberCount", 0);
+            teamMapper.update(null, teamUpdateWrapper);
+            teamMapper.deleteBatchIds(idList);
+            return teamList;
+        });
+        if (expiredTeamList == null || expiredTeamList.isEmpty()) {
+            return;
+        }
+        Cache teamCache = cacheManager.getCache(TEAM_CACHE);
+        for (Team team : expiredTeamList) {
+            long teamId = team.getId();
+            if (teamCache != null) {
+                teamCache.evict(teamId);
+            }
+            teamSearchIndexService.removeTeam(teamId);
+            teamListIndexService.refresh(teamId);
+            if (team.getUserId() != null) {
+                teamQuotaService.invalidate(team.getUserId());
+            }
+        }
+        log.info("teams expired, count: {}", expiredTeamList.size());
+    }
+}
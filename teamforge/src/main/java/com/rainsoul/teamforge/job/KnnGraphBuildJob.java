@@ -0,0 +1,90 @@
+package com.rainsoul.teamforge.job;
+
+import com.rainsoul.teamforge.match.*;
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * k 近邻图生成任务
+ * <p>
+ * 每天凌晨为所有有标签的用户计算最相似的 k 个用户，写成图文件后原子替换旧图并重新映射，
+ * 白天的匹配请求只需一次内存映射查找。
+ * 每个用户只在 LSH 召回的候选中计算，整体复杂度与用户数近似线性；
+ * 候选不足 k 个的用户邻居也不足，匹配时会退回实时计算。
+ * </p>
+ * <p>
+ * 图文件写在本机路径上并由本实例映射，每个实例各自生成自己的图，不加分布式锁：
+ * 只由一个实例生成时其他实例读不到图文件。多实例部署时可通过 teamforge.match.knn-cron 错开各实例的执行时间。
+ * </p>
+ */
+@Component
+@Slf4j
+public class KnnGraphBuildJob {
+
+    @Resource
+    private UserTagIndexService userTagIndexService;
+
+    @Resource
+    private MatchEngine matchEngine;
+
+    @Resource
+    private MatchScorerSelector matchScorerSelector;
+
+    @Resource
+    private KnnGraphStore knnGraphStore;
+
+    @Value("${teamforge.match.knn-enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每个用户保存的邻居数
+     */
+    @Value("${teamforge.match.knn-k:20}")
+    private int k;
+
+    @Scheduled(cron = "${teamforge.match.knn-cron:0 0 3 * * *}")
+    public void doBuild() {
+        if (!enabled) {
+            return;
+        }
+        if (!userTagIndexService.isReady()) {
+            log.warn("user tag index not ready, skip building knn graph");
+            return;
+        }
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        MatchScorer matchScorer = matchScorerSelector.getScorer();
+        // 图文件要求用户id升序
+        long[] userIds = userTagIndexService.snapshot().userIds().clone();
+        Arrays.sort(userIds);
+        try (KnnGraph.Writer writer = new KnnGraph.Writer(knnGraphStore.getGraphPath(), k)) {
+            for (long userId : userIds) {
+                int[] tagIds = userTagIndexService.getUserTagIds(userId);
+                if (tagIds.length == 0) {
+                    continue;
+                }
+                RoaringBitmap candidateIds = userTagIndexService.searchSimilarUserIds(tagIds);
+                UserTagSnapshot snapshot = userTagIndexService.snapshot(candidateIds);
+                List<MatchResult> neighborList = matchEngine.match(snapshot, userId, matchScorer.prepare(tagIds), k);
+                writer.add(userId, neighborList);
+            }
+            writer.commit();
+            knnGraphStore.reload();
+        } catch (IOException e) {
+            log.error("build knn graph failed", e);
+            return;
+        }
+        stopWatch.stop();
+        log.info("knn graph built, users: {}, k: {}, cost: {} ms", userIds.length, k, stopWatch.getTotalTimeMillis());
+    }
+}
@@ -1,21 +1,124 @@
 package com.rainsoul.teamforge.job;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.model.domain.User;
 import com.rainsoul.teamforge.service.UserService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import static com.rainsoul.teamforge.constant.RedisConstant.PRECACHE_JOB_LOCK_KEY;
+
+/**
+ * 推荐用户缓存预热任务
+ * <p>
+ * 每天为配置的重点用户和最近活跃的用户计算推荐用户的前几页并写入 Redis。
+ * 多个实例同时部署时通过 Redisson 分布式锁保证只有一个实例执行；
+ * 锁设置租期，持有锁的实例宕机后锁会自动释放，不会影响第二天的任务。
+ * </p>
+ */
 @Component
 @Slf4j
 public class PreCacheJob {
+
     @Resource
     private UserService userService;
 
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 重点用户，总是预热
+     */
+    @Value("${teamforge.precache.user-ids:}")
+    private List<Long> recommendUserList = new ArrayList<>();
+
+    /**
+     * 额外预热的最近活跃用户数，用户表没有登录记录，以最近更新资料的用户作为活跃用户
+     */
+    @Value("${teamforge.precache.active-user-num:100}")
+    private int activeUserNum;
+
+    /**
+     * 每个用户预热的页数
+     */
+    @Value("${teamforge.precache.page-num:3}")
+    private int pageNum;
+
+    /**
+     * 每页数量，与前端首页请求的数量一致才能命中
+     */
+    @Value("${teamforge.precache.page-size:8}")
+    private int pageSize;
+
+    /**
+     * 分布式锁租期（秒），需大于任务的执行时间
+     */
+    @Value("${teamforge.precache.lock-lease-seconds:600}")
+    private long lockLeaseSeconds;
 
-    //推荐用户
-    private List<Long> recommendUserList = Arrays.asList(1L);
+    /**
+     * 每天凌晨预热推荐用户
+     */
+    @Scheduled(cron = "${teamforge.precache.cron:0 30 0 * * *}")
+    public void doCacheRecommendUser() {
+        RLock lock = redissonClient.getLock(PRECACHE_JOB_LOCK_KEY);
+        try {
+            // 不等待，抢不到说明其他实例正在执行
+            if (!lock.tryLock(0, lockLeaseSeconds, TimeUnit.SECONDS)) {
+                return;
+            }
+            try {
+                StopWatch stopWatch = new StopWatch();
+                stopWatch.start();
+                Set<Long> userIdSet = listPreCacheUserIds();
+                for (Long userId : userIdSet) {
+                    for (int i = 1; i <= pageNum; i++) {
+                        userService.cacheRecommendUsers(userId, i, pageSize);
+                    }
+                }
+                stopWatch.stop();
+                log.info("recommend cache warmed, users: {}, pages: {}, cost: {} ms",
+                        userIdSet.size(), pageNum, stopWatch.getTotalTimeMillis());
+            } finally {
+                // 租期到期后锁可能已被自动释放，只释放自己持有的锁
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("doCacheRecommendUser interrupted", e);
+        }
+    }
 
+    /**
+     * 需要预热的用户：未登录用户（id 为 0）、配置的重点用户和最近活跃的用户。
+     *
+     * @return 去重后的用户id集合。
+     */
+    private Set<Long> listPreCacheUserIds() {
+        Set<Long> userIdSet = new LinkedHashSet<>();
+        userIdSet.add(0L);
+        userIdSet.addAll(recommendUserList);
+        if (activeUserNum > 0) {
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id")
+                    .orderByDesc("updateTime")
+                    .last("limit " + activeUserNum);
+            userService.list(queryWrapper).forEach(user -> userIdSet.add(user.getId()));
+        }
+        return userIdSet;
+    }
 }
@@ -0,0 +1,49 @@
+package com.rainsoul.teamforge.job;
+
+import com.rainsoul.teamforge.service.TeamListIndexService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 开放队伍列表索引校验任务
+ * <p>
+ * 定时比对内存索引和队伍表的队伍数与校验和，发现偏差时重建索引。
+ * 比对期间有队伍被修改时两边可能短暂不一致，连续两次不一致才重建。
+ * 每个实例的索引各自独立，不需要分布式锁。
+ * </p>
+ */
+@Component
+@Slf4j
+public class TeamListIndexCheckJob {
+
+    @Resource
+    private TeamListIndexService teamListIndexService;
+
+    /**
+     * 连续不一致的次数，只由调度线程访问
+     */
+    private int mismatchCount = 0;
+
+    @Scheduled(fixedDelayString = "${teamforge.team.list-index.check-interval-millis:60000}")
+    public void doCheck() {
+        if (!teamListIndexService.isReady()) {
+            return;
+        }
+        try {
+            if (teamListIndexService.checkConsistency()) {
+                mismatchCount = 0;
+                return;
+            }
+            if (++mismatchCount < 2) {
+                return;
+            }
+            log.warn("team list index drifted, rebuilding");
+            teamListIndexService.rebuild();
+            mismatchCount = 0;
+        } catch (RuntimeException e) {
+            log.error("check team list index error", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.rainsoul.teamforge.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.service.TeamService;
+import com.rainsoul.teamforge.service.UserTeamService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.rainsoul.teamforge.constant.RedisConstant.TEAM_MEMBER_COUNT_RECONCILE_LOCK_KEY;
+
+/**
+ * 队伍已加入人数修正任务
+ * <p>
+ * team.memberCount 是 user_team 的冗余计数，正常情况下由加入、退出、解散时的条件更新维护。
+ * 直接修改数据库、历史数据（新增该列前的队伍）等情况会导致计数偏差，
+ * 该任务按id分批比较计数和 user_team 中的实际人数，不一致时修正。
+ * 修正使用比较并更新，读取后有人加入或退出时放弃本次修正，不会覆盖正常的计数更新。
+ * </p>
+ */
+@Component
+@Slf4j
+public class TeamMemberCountReconcileJob {
+
+    @Resource
+    private TeamService teamService;
+
+    @Resource
+    private UserTeamService userTeamService;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 每批检查的队伍数
+     */
+    @Value("${teamforge.team.reconcile-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 分布式锁租期（秒），需大于任务的执行时间
+     */
+    @Value("${teamforge.team.reconcile-lock-lease-seconds:600}")
+    private long lockLeaseSeconds;
+
+    /**
+     * 每天凌晨修正队伍人数
+     */
+    @Scheduled(cron = "${teamforge.team.reconcile-cron:0 0 4 * * *}")
+    public void doReconcile() {
+        RLock lock = redissonClient.getLock(TEAM_MEMBER_COUNT_RECONCILE_LOCK_KEY);
+        try {
+            // 不等待，抢不到说明其他实例正在执行
+            if (!lock.tryLock(0, lockLeaseSeconds, TimeUnit.SECONDS)) {
+                return;
+            }
+            try {
+                StopWatch stopWatch = new StopWatch();
+                stopWatch.start();
+                long afterId = 0;
+                int checkedNum = 0;
+                int repairedNum = 0;
+                while (true) {
+                    QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+                    queryWrapper.select("id", "memberCount")
+                            .gt("id", afterId)
+                            .orderByAsc("id")
+                            .last("limit " + batchSize);
+                    List<Team> teamList = teamService.list(queryWrapper);
+                    if (teamList.isEmpty()) {
+                        break;
+                    }
+                    repairedNum += reconcile(teamList);
+                    checkedNum += teamList.size();
+                    afterId = teamList.get(teamList.size() - 1).getId();
+                    if (teamList.size() < batchSize) {
+                        break;
+                    }
+                }
+                stopWatch.stop();
+                log.info("team member count reconciled, checked: {}, repaired: {}, cost: {} ms",
+                        checkedNum, repairedNum, stopWatch.getTotalTimeMillis());
+            } finally {
+                // 租期到期后锁可能已被自动释放，只释放自己持有的锁
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("doReconcile interrupted", e);
+        }
+    }
+
+    /**
+     * 修正一批队伍的人数。
+     *
+     * @param teamList 队伍列表，只需要 id 和 memberCount。
+     * @return 修正的队伍数。
+     */
+    private int reconcile(List<Team> teamList) {
+        List<Long> teamIdList = teamList.stream().map(Team::getId).collect(Collectors.toList());
+        Map<Long, Integer> memberCountMap = userTeamService.countMembersByTeamIds(teamIdList);
+        int repairedNum = 0;
+        for (Team team : teamList) {
+            int expectedCount = team.getMemberCount() == null ? 0 : team.getMemberCount();
+            int actualCount = memberCountMap.getOrDefault(team.getId(), 0);
+            if (expectedCount == actualCount) {
+                continue;
+            }
+            if (teamService.repairMemberCount(team.getId(), expectedCount, actualCount)) {
+                repairedNum++;
+                log.warn("team member count drifted, teamId: {}, count: {}, actual: {}",
+                        team.getId(), expectedCount, actualCount);
+            }
+        }
+        return repairedNum;
+    }
+}
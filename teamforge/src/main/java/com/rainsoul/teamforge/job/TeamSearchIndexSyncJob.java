@@ -0,0 +1,34 @@
+package com.rainsoul.teamforge.job;
+
+import com.rainsoul.teamforge.service.TeamSearchIndexService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 队伍搜索索引同步任务
+ * <p>
+ * 搜索结果由索引召回的队伍id再经数据库过滤，其他节点新建或改名的队伍不在本节点索引中就搜不到，
+ * 本任务定时从队伍表增量同步这些修改。每个实例的索引各自独立，不需要分布式锁。
+ * </p>
+ */
+@Component
+@Slf4j
+public class TeamSearchIndexSyncJob {
+
+    @Resource
+    private TeamSearchIndexService teamSearchIndexService;
+
+    @Scheduled(fixedDelayString = "${teamforge.team.search-index-sync-interval-millis:30000}")
+    public void doSync() {
+        try {
+            int syncCount = teamSearchIndexService.syncUpdatedTeams();
+            if (syncCount > 0) {
+                log.debug("team search index synced, teams: {}", syncCount);
+            }
+        } catch (RuntimeException e) {
+            log.error("sync team search index error", e);
+        }
+    }
+}
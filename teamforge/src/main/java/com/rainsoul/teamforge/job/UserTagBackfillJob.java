@@ -0,0 +1,114 @@
+package com.rainsoul.teamforge.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.TagService;
+import com.rainsoul.teamforge.service.UserTagService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+import java.util.List;
+
+/**
+ * 用户标签关系回填任务
+ * <p>
+ * 将 user.tags 中的 json 标签按主键分批拆分写入 user_tag 表，只在 user_tag 表首次上线时执行一次，
+ * 通过 teamforge.user-tag.backfill-enabled=true 开启，完成后关闭。
+ * 每个用户在单独的事务中锁定用户行、重新读取 tags 后同步关系，与更新用户信息走同一条写入路径：
+ * 更新用户信息的事务提交前回填会等待行锁，不会用旧的 tags 恢复已经删除的标签。
+ * </p>
+ */
+@Component
+@Slf4j
+public class UserTagBackfillJob {
+
+    /**
+     * 每批处理的用户数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserTagService userTagService;
+
+    @Resource
+    private TagService tagService;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${teamforge.user-tag.backfill-enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean completed = false;
+
+    /**
+     * 应用启动完成后执行回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void doBackfill() {
+        if (!enabled) {
+            return;
+        }
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        long lastId = 0;
+        long userCount = 0;
+        while (true) {
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id")
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("limit " + BATCH_SIZE);
+            List<User> userList = userMapper.selectList(queryWrapper);
+            if (userList.isEmpty()) {
+                break;
+            }
+            for (User user : userList) {
+                if (syncUserTags(user.getId())) {
+                    userCount++;
+                }
+            }
+            lastId = userList.get(userList.size() - 1).getId();
+        }
+        completed = true;
+        stopWatch.stop();
+        log.info("user tag backfill finished, lastUserId: {}, users: {}, cost: {} ms",
+                lastId, userCount, stopWatch.getTotalTimeMillis());
+    }
+
+    /**
+     * 锁定用户行，按当前的 tags 同步用户标签关系。
+     *
+     * @param userId 用户id
+     * @return 用户存在时返回true
+     */
+    private boolean syncUserTags(long userId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            User user = userMapper.selectIdAndTagsForUpdate(userId);
+            if (user == null) {
+                return false;
+            }
+            userTagService.syncUserTags(userId, tagService.parseTagIds(user.getTags(), true));
+            return true;
+        }));
+    }
+
+    /**
+     * user_tag 表是否已经可以用于检索。
+     *
+     * @return 回填完成或无需回填时返回true。
+     */
+    public boolean isCompleted() {
+        return !enabled || completed;
+    }
+}
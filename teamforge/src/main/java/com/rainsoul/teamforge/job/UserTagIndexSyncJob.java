@@ -0,0 +1,45 @@
+package com.rainsoul.teamforge.job;
+
+import com.rainsoul.teamforge.match.KnnGraphStore;
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户标签索引同步任务
+ * <p>
+ * 标签索引、LSH 索引和 kNN 图的过期标记都在各实例的内存中，本节点的写入直接更新，
+ * 其他节点的写入由本任务定时从用户表增量同步，标签发生变化的用户在 kNN 图中标记为过期。
+ * 每个实例的索引各自独立，不需要分布式锁。
+ * </p>
+ */
+@Component
+@Slf4j
+public class UserTagIndexSyncJob {
+
+    @Resource
+    private UserTagIndexService userTagIndexService;
+
+    @Resource
+    private KnnGraphStore knnGraphStore;
+
+    @Scheduled(fixedDelayString = "${teamforge.user-tag.index-sync-interval-millis:30000}")
+    public void doSync() {
+        if (!userTagIndexService.isReady()) {
+            return;
+        }
+        try {
+            List<Long> changedUserIdList = userTagIndexService.syncUpdatedUsers();
+            changedUserIdList.forEach(knnGraphStore::markTagsUpdated);
+            if (!changedUserIdList.isEmpty()) {
+                log.info("user tag index synced, changed users: {}", changedUserIdList.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("sync user tag index error", e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.rainsoul.teamforge.join;
+
+import com.rainsoul.teamforge.common.ErrorCode;
+import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.mapper.UserTeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.dto.UserTeamCount;
+import com.rainsoul.teamforge.model.enums.TeamStatusEnum;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rainsoul.teamforge.constant.UserConstant.MAX_JOIN_TEAM_NUM;
+
+/**
+ * 批量加入队伍流水线
+ * <p>
+ * 热门队伍开放时大量加入请求集中在同一个队伍上，逐个处理时每个请求都是一个独立事务和多次数据库往返。
+ * 流水线为每个队伍维护一个有界队列，第一个请求到达后等待 lingerMillis 收集更多请求，
+ * 然后按批处理：锁定队伍行读取一次人数，一次查询已加入的用户和每个用户的队伍数，
+ * 一条多行插入写入关系，一次更新人数，数据库往返次数与批次数相关而不是与请求数相关。
+ * 每个请求得到自己的 CompletableFuture，调用方同步等待结果，接口行为不变。
+ * </p>
+ * <p>
+ * 同一队伍在同一时刻只有一个线程在处理，不同队伍并行处理。
+ * 锁定队伍行后再读取人数，多实例部署或与逐个加入的请求同时执行时也不会超员。
+ * 流水线不经过 TeamLock，读取用户已加入的队伍数前按用户id升序锁定批内的用户行，
+ * 同一用户同时加入多个队伍时各批次串行，不会超过加入队伍数的上限。
+ * </p>
+ */
+@Component
+@Slf4j
+public class TeamJoinPipeline {
+
+    private final TeamMapper teamMapper;
+
+    private final UserTeamMapper userTeamMapper;
+
+    private final UserMapper userMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long lingerMillis;
+
+    private final int queueCapacity;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 队伍id -> 等待处理的请求，队列存在期间有且只有一个处理任务负责它，处理完后移除
+     */
+    private final ConcurrentMap<Long, BlockingQueue<PendingJoin>> teamQueueMap = new ConcurrentHashMap<>();
+
+    /**
+     * @param batchSize     每批最多处理的请求数
+     * @param lingerMillis  第一个请求到达后等待收集更多请求的时间（毫秒）
+     * @param queueCapacity 每个队伍最多排队的请求数，超过时直接拒绝
+     * @param threads       处理线程数，即最多同时处理的队伍数
+     */
+    public TeamJoinPipeline(TeamMapper teamMapper, UserTeamMapper userTeamMapper, UserMapper userMapper,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${teamforge.team.join-pipeline.batch-size:64}") int batchSize,
+                            @Value("${teamforge.team.join-pipeline.linger-millis:5}") long lingerMillis,
+                            @Value("${teamforge.team.join-pipeline.queue-capacity:1024}") int queueCapacity,
+                            @Value("${teamforge.team.join-pipeline.threads:4}") int threads) {
+        this.teamMapper = teamMapper;
+        this.userTeamMapper = userTeamMapper;
+        this.userMapper = userMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "team-join-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 加入队伍并等待结果。
+     *
+     * @param teamId   队伍id
+     * @param userId   用户id
+     * @param password 加密队伍的密码
+     * @return 加入成功返回true
+     * @throws BusinessException 不满足加入条件或排队请求过多时抛出
+     */
+    public boolean join(long teamId, long userId, String password) {
+        try {
+            return submit(teamId, userId, password).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入队伍失败");
+        }
+    }
+
+    /**
+     * 提交加入请求。
+     *
+     * @param teamId   队伍id
+     * @param userId   用户id
+     * @param password 加密队伍的密码
+     * @return 加入结果，不满足条件时以 BusinessException 异常完成
+     */
+    public CompletableFuture<Boolean> submit(long teamId, long userId, String password) {
+        PendingJoin pendingJoin = new PendingJoin(userId, password, new CompletableFuture<>());
+        AtomicBoolean created = new AtomicBoolean();
+        AtomicBoolean accepted = new AtomicBoolean();
+        // 在 map 的锁内入队，和处理任务移除空队列互斥，不会把请求放进已经没人处理的队列
+        BlockingQueue<PendingJoin> queue = teamQueueMap.compute(teamId, (id, teamQueue) -> {
+            if (teamQueue == null) {
+                teamQueue = new ArrayBlockingQueue<>(queueCapacity);
+                created.set(true);
+            }
+            accepted.set(teamQueue.offer(pendingJoin));
+            return teamQueue;
+        });
+        if (!accepted.get()) {
+            pendingJoin.future().completeExceptionally(
+                    new BusinessException(ErrorCode.SYSTEM_ERROR, "加入人数过多，请稍后重试"));
+        } else if (created.get()) {
+            try {
+                scheduler.schedule(() -> drain(teamId, queue), lingerMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                teamQueueMap.remove(teamId, queue);
+                failAll(queue, new BusinessException(ErrorCode.SYSTEM_ERROR, "服务正在关闭"));
+            }
+        }
+        return pendingJoin.future();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        teamQueueMap.values().forEach(queue -> failAll(queue, new BusinessException(ErrorCode.SYSTEM_ERROR, "服务正在关闭")));
+    }
+
+    /**
+     * 按批处理一个队伍的请求，直到队列为空。
+     */
+    private void drain(long teamId, BlockingQueue<PendingJoin> queue) {
+        List<PendingJoin> batch = new ArrayList<>(batchSize);
+        while (true) {
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                // 在 map 的锁内确认为空后移除，之后到达的请求会创建新的队列和处理任务
+                if (teamQueueMap.computeIfPresent(teamId, (id, teamQueue) -> teamQueue.isEmpty() ? null : teamQueue) == null) {
+                    return;
+                }
+                continue;
+            }
+            processBatch(teamId, batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 在一个事务中处理一批请求，事务失败时整批失败。
+     */
+    private void processBatch(long teamId, List<PendingJoin> batch) {
+        List<PendingJoin> acceptedList;
+        try {
+            acceptedList = transactionTemplate.execute(status -> joinBatch(teamId, batch));
+        } catch (RuntimeException | Error e) {
+            // 保证每个请求都会完成，调用方不会一直等待
+            log.error("join team batch failed, teamId: {}, size: {}", teamId, batch.size(), e);
+            batch.forEach(pendingJoin -> pendingJoin.future().completeExceptionally(e));
+            return;
+        }
+        if (acceptedList != null) {
+            acceptedList.forEach(pendingJoin -> pendingJoin.future().complete(true));
+        }
+    }
+
+    /**
+     * 校验一批请求并写入，不满足条件的请求单独以异常完成。
+     *
+     * @return 加入成功的请求，事务提交后再通知调用方
+     */
+    private List<PendingJoin> joinBatch(long teamId, List<PendingJoin> batch) {
+        Team team = teamMapper.selectByIdForUpdate(teamId);
+        if (team == null) {
+            rejectAll(batch, new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在"));
+            return List.of();
+        }
+        Date expireTime = team.getExpireTime();
+        if (expireTime != null && expireTime.before(new Date())) {
+            rejectAll(batch, new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已过期"));
+            return List.of();
+        }
+        TeamStatusEnum teamStatusEnum = TeamStatusEnum.getEnumByCode(team.getStatus());
+        if (TeamStatusEnum.PRIVATE.equals(teamStatusEnum)) {
+            rejectAll(batch, new BusinessException(ErrorCode.FORBIDDEN, "禁止加入私有队伍"));
+            return List.of();
+        }
+        // 密码校验和批内去重
+        List<PendingJoin> candidateList = new ArrayList<>(batch.size());
+        Set<Long> userIdSet = new HashSet<>();
+        for (PendingJoin pendingJoin : batch) {
+            if (TeamStatusEnum.SECRET.equals(teamStatusEnum)
+                    && (StringUtils.isBlank(pendingJoin.password()) || !pendingJoin.password().equals(team.getPassword()))) {
+                reject(pendingJoin, new BusinessException(ErrorCode.PARAMS_ERROR, "密码错误"));
+            } else if (!userIdSet.add(pendingJoin.userId())) {
+                reject(pendingJoin, new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍"));
+            } else {
+                candidateList.add(pendingJoin);
+            }
+        }
+        if (candidateList.isEmpty()) {
+            return List.of();
+        }
+        // 先锁定用户行，之后读到的是其他队伍的批次提交后的队伍数；固定顺序加锁，批次之间不会死锁
+        userMapper.selectIdsForUpdate(new TreeSet<>(userIdSet));
+        // 一次查询批内用户是否已加入、各自已加入的队伍数
+        Set<Long> memberUserIdSet = new HashSet<>(userTeamMapper.listMemberUserIds(teamId, userIdSet));
+        Map<Long, Integer> teamCountMap = new HashMap<>();
+        for (UserTeamCount userTeamCount : userTeamMapper.countByUserIds(userIdSet)) {
+            teamCountMap.put(userTeamCount.getUserId(), userTeamCount.getTeamCount());
+        }
+        int memberCount = Optional.ofNullable(team.getMemberCount()).orElse(0);
+        int freeNum = Math.max(0, team.getMaxNum() - memberCount);
+        List<PendingJoin> acceptedList = new ArrayList<>(Math.min(freeNum, candidateList.size()));
+        for (PendingJoin pendingJoin : candidateList) {
+            if (memberUserIdSet.contains(pendingJoin.userId())) {
+                reject(pendingJoin, new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍"));
+            } else if (teamCountMap.getOrDefault(pendingJoin.userId(), 0) >= MAX_JOIN_TEAM_NUM) {
+                reject(pendingJoin, new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入 " + MAX_JOIN_TEAM_NUM + " 个队伍"));
+            } else if (acceptedList.size() >= freeNum) {
+                reject(pendingJoin, new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满"));
+            } else {
+                acceptedList.add(pendingJoin);
+            }
+        }
+        if (acceptedList.isEmpty()) {
+            return List.of();
+        }
+        // 已锁定队伍行，人数不会在读取后变化，条件更新只是兜底
+        if (teamMapper.addMemberCount(teamId, acceptedList.size()) == 0) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "队伍人数已变化，请重试");
+        }
+        Date joinTime = new Date();
+        List<UserTeam> userTeamList = new ArrayList<>(acceptedList.size());
+        for (PendingJoin pendingJoin : acceptedList) {
+            UserTeam userTeam = new UserTeam();
+            userTeam.setUserId(pendingJoin.userId());
+            userTeam.setTeamId(teamId);
+            userTeam.setJoinTime(joinTime);
+            userTeamList.add(userTeam);
+        }
+        userTeamMapper.insertBatch(userTeamList);
+        return acceptedList;
+    }
+
+    private static void reject(PendingJoin pendingJoin, BusinessException e) {
+        pendingJoin.future().completeExceptionally(e);
+    }
+
+    private static void rejectAll(List<PendingJoin> batch, BusinessException e) {
+        batch.forEach(pendingJoin -> reject(pendingJoin, e));
+    }
+
+    private static void failAll(BlockingQueue<PendingJoin> queue, BusinessException e) {
+        PendingJoin pendingJoin;
+        while ((pendingJoin = queue.poll()) != null) {
+            reject(pendingJoin, e);
+        }
+    }
+
+    /**
+     * 排队中的加入请求
+     *
+     * @param userId   用户id
+     * @param password 加密队伍的密码
+     * @param future   加入结果
+     */
+    private record PendingJoin(long userId, String password, CompletableFuture<Boolean> future) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.rainsoul.teamforge.lock;
+
+import com.rainsoul.teamforge.common.ErrorCode;
+import com.rainsoul.teamforge.exception.BusinessException;
+import jakarta.annotation.Resource;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.rainsoul.teamforge.constant.RedisConstant.TEAM_LOCK_KEY;
+import static com.rainsoul.teamforge.constant.RedisConstant.USER_TEAM_LOCK_KEY;
+
+/**
+ * 多实例部署时使用的 Redisson 分布式锁
+ * <p>
+ * 用户锁和队伍锁组成联锁一起获取，锁设置租期，持有锁的实例宕机后自动释放。
+ * 租期需大于一次加入操作的耗时，否则锁可能在事务提交前被释放。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "teamforge.team.lock-mode", havingValue = "redisson")
+public class RedissonTeamLock implements TeamLock {
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 等待锁的最长时间（毫秒）
+     */
+    @Value("${teamforge.team.lock-wait-millis:3000}")
+    private long waitMillis;
+
+    /**
+     * 锁租期（毫秒）
+     */
+    @Value("${teamforge.team.lock-lease-millis:10000}")
+    private long leaseMillis;
+
+    @Override
+    public <T> T executeWithLock(long userId, long teamId, Supplier<T> action) {
+        RLock userLock = redissonClient.getLock(String.format(USER_TEAM_LOCK_KEY, userId));
+        RLock teamLock = redissonClient.getLock(String.format(TEAM_LOCK_KEY, teamId));
+        RLock lock = redissonClient.getMultiLock(userLock, teamLock);
+        try {
+            if (!lock.tryLock(waitMillis, leaseMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入人数过多，请稍后重试");
+            }
+            try {
+                return action.get();
+            } finally {
+                // 租期到期后锁可能已被自动释放，只释放自己持有的锁
+                if (userLock.isHeldByCurrentThread() && teamLock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        }
+    }
+
+    @Override
+    public <T> T executeWithUserLock(long userId, Supplier<T> action) {
+        RLock userLock = redissonClient.getLock(String.format(USER_TEAM_LOCK_KEY, userId));
+        try {
+            if (!userLock.tryLock(waitMillis, leaseMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作过于频繁，请稍后重试");
+            }
+            try {
+                return action.get();
+            } finally {
+                if (userLock.isHeldByCurrentThread()) {
+                    userLock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.rainsoul.teamforge.lock;
+
+import com.rainsoul.teamforge.common.ErrorCode;
+import com.rainsoul.teamforge.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 单实例部署时使用的分段锁
+ * <p>
+ * 用户和队伍各有一组固定数量的锁，按id散列到其中一把，内存占用固定，不需要清理。
+ * 不同的id可能落到同一把锁上，只会多等待，不影响正确性。
+ * 总是先加用户锁再加队伍锁，两组锁互不重叠，不会死锁。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "teamforge.team.lock-mode", havingValue = "local", matchIfMissing = true)
+public class StripedTeamLock implements TeamLock {
+
+    private final ReentrantLock[] userLocks;
+
+    private final ReentrantLock[] teamLocks;
+
+    private final int mask;
+
+    private final long waitMillis;
+
+    /**
+     * @param stripes    每组锁的数量，向上取整为 2 的幂
+     * @param waitMillis 等待锁的最长时间（毫秒）
+     */
+    public StripedTeamLock(@Value("${teamforge.team.lock-stripes:1024}") int stripes,
+                           @Value("${teamforge.team.lock-wait-millis:3000}") long waitMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.userLocks = new ReentrantLock[size];
+        this.teamLocks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            userLocks[i] = new ReentrantLock();
+            teamLocks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    public <T> T executeWithLock(long userId, long teamId, Supplier<T> action) {
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        ReentrantLock teamLock = teamLocks[stripe(teamId)];
+        // 等待时间在两把锁之间共享，总等待不超过 waitMillis
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        try {
+            if (!userLock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作过于频繁，请稍后重试");
+            }
+            try {
+                if (!teamLock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "加入人数过多，请稍后重试");
+                }
+                try {
+                    return action.get();
+                } finally {
+                    teamLock.unlock();
+                }
+            } finally {
+                userLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        }
+    }
+
+    @Override
+    public <T> T executeWithUserLock(long userId, Supplier<T> action) {
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        try {
+            if (!userLock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作过于频繁，请稍后重试");
+            }
+            try {
+                return action.get();
+            } finally {
+                userLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        }
+    }
+
+    /**
+     * 打散相邻的id，连续创建的队伍也能均匀分布到各把锁上。
+     */
+    private int stripe(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,39 @@
+package com.rainsoul.teamforge.lock;
+
+import java.util.function.Supplier;
+
+/**
+ * 队伍操作锁
+ * <p>
+ * 同时锁定用户和队伍：同一个队伍的加入、退出和解散串行执行，保证“是否已加入”和容量校验不会并发穿透，
+ * 解散后也不会再有成员加入；同一个用户的请求串行执行，保证用户加入队伍数的上限。
+ * 不同用户加入不同队伍时互不影响，没有全局锁。
+ * 调用方应在锁内开启并提交事务，释放锁时其他请求已经能读到提交后的数据。
+ * </p>
+ */
+public interface TeamLock {
+
+    /**
+     * 持有用户锁和队伍锁执行操作。
+     *
+     * @param userId 用户id
+     * @param teamId 队伍id
+     * @param action 需要互斥执行的操作
+     * @param <T>    返回值类型
+     * @return 操作的返回值
+     * @throws com.rainsoul.teamforge.exception.BusinessException 等待锁超时时抛出
+     */
+    <T> T executeWithLock(long userId, long teamId, Supplier<T> action);
+
+    /**
+     * 只持有用户锁执行操作，用于创建队伍等只需要按用户串行的操作。
+     * 与 {@link #executeWithLock} 使用同一把用户锁。
+     *
+     * @param userId 用户id
+     * @param action 需要互斥执行的操作
+     * @param <T>    返回值类型
+     * @return 操作的返回值
+     * @throws com.rainsoul.teamforge.exception.BusinessException 等待锁超时时抛出
+     */
+    <T> T executeWithUserLock(long userId, Supplier<T> action);
+}
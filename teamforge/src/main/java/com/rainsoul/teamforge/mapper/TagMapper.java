@@ -0,0 +1,11 @@
+package com.rainsoul.teamforge.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.rainsoul.teamforge.model.domain.Tag;
+
+/**
+ * 标签 Mapper
+ */
+public interface TagMapper extends BaseMapper<Tag> {
+
+}
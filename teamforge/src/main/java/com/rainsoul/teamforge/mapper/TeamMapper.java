@@ -2,14 +2,146 @@ package com.rainsoul.teamforge.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.dto.TeamChecksum;
+import com.rainsoul.teamforge.model.dto.TeamQuery;
+import com.rainsoul.teamforge.model.vo.TeamUserVO;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
 
 /**
  * 队伍 Mapper
  */
 public interface TeamMapper extends BaseMapper<Team> {
 
-}
+    /**
+     * 查询队伍（过期队伍已被到期解散），同时关联创建人信息并统计已加入人数，一次查询返回。
+     *
+     * @param teamQuery    查询条件
+     * @param statusList   允许的队伍状态，为null时不限制
+     * @param loginUserId  当前登录用户id，用于标记是否已加入，为null时都标记为未加入
+     * @param searchIdList 搜索索引召回的队伍id，不为空时代替 searchText 的模糊匹配，为null时按 searchText 模糊匹配
+     * @return 队伍列表，按id倒序
+     */
+    List<TeamUserVO> listTeamUserVO(@Param("teamQuery") TeamQuery teamQuery,
+                                    @Param("statusList") List<Integer> statusList,
+                                    @Param("loginUserId") Long loginUserId,
+                                    @Param("searchIdList") List<Long> searchIdList);
+
+    /**
+     * 按游标查询一页队伍，条件与 {@link #listTeamUserVO} 相同，不统计总数。
+     *
+     * @param teamQuery    查询条件
+     * @param statusList   允许的队伍状态，为null时不限制
+     * @param loginUserId  当前登录用户id，为null时都标记为未加入
+     * @param searchIdList 搜索索引召回的队伍id，为null时按 searchText 模糊匹配
+     * @param cursorTime   上一页最后一个队伍的创建时间，为null时查询第一页
+     * @param cursorId     上一页最后一个队伍的id
+     * @param limit        最多返回的队伍数
+     * @return 队伍列表，按创建时间倒序、id倒序
+     */
+    List<TeamUserVO> listTeamUserVOByCursor(@Param("teamQuery") TeamQuery teamQuery,
+                                            @Param("statusList") List<Integer> statusList,
+                                            @Param("loginUserId") Long loginUserId,
+                                            @Param("searchIdList") List<Long> searchIdList,
+                                            @Param("cursorTime") Date cursorTime,
+                                            @Param("cursorId") Long cursorId,
+                                            @Param("limit") int limit);
+
+    /**
+     * 统计队伍数，条件与 {@link #listTeamUserVO} 相同。
+     *
+     * @param teamQuery    查询条件
+     * @param statusList   允许的队伍状态，为null时不限制
+     * @param searchIdList 搜索索引召回的队伍id，为null时按 searchText 模糊匹配
+     * @return 队伍数
+     */
+    long countTeamUserVO(@Param("teamQuery") TeamQuery teamQuery,
+                         @Param("statusList") List<Integer> statusList,
+                         @Param("searchIdList") List<Long> searchIdList);
+
+    /**
+     * 已加入人数加一，人数已满或队伍不存在时不更新。
+     *
+     * @param teamId 队伍id
+     * @return 更新的行数，0 表示队伍已满或不存在
+     */
+    int incrementMemberCount(@Param("teamId") long teamId);
+
+    /**
+     * 查询队伍并锁定该行，需要在事务中调用。
+     *
+     * @param teamId 队伍id
+     * @return 队伍，不存在时返回null
+     */
+    Team selectByIdForUpdate(@Param("teamId") long teamId);
 
+    /**
+     * 已加入人数一次增加 delta，超过最大人数时不更新。
+     *
+     * @param teamId 队伍id
+     * @param delta  增加的人数
+     * @return 更新的行数，0 表示超过最大人数或队伍不存在
+     */
+    int addMemberCount(@Param("teamId") long teamId, @Param("delta") int delta);
 
+    /**
+     * 已加入人数减一，不会减到负数。
+     *
+     * @param teamId 队伍id
+     * @return 更新的行数
+     */
+    int decrementMemberCount(@Param("teamId") long teamId);
 
+    /**
+     * 人数清零并逻辑删除队伍，需要在事务中作为第一条语句调用，锁定队伍行直到事务结束。
+     *
+     * @param teamId 队伍id
+     * @return 更新的行数，0 表示队伍不存在或已删除
+     */
+    int disbandTeam(@Param("teamId") long teamId);
 
+    /**
+     * 已加入人数为 0 时逻辑删除队伍。
+     *
+     * @param teamId 队伍id
+     * @return 更新的行数，0 表示队伍还有成员或已删除
+     */
+    int removeIfEmpty(@Param("teamId") long teamId);
+
+    /**
+     * 已加入人数仍为 expectedCount 时改为 newCount。
+     *
+     * @param teamId        队伍id
+     * @param expectedCount 读取时的人数
+     * @param newCount      修正后的人数
+     * @return 更新的行数，0 表示人数已被其他操作修改
+     */
+    int compareAndSetMemberCount(@Param("teamId") long teamId, @Param("expectedCount") int expectedCount,
+                                 @Param("newCount") int newCount);
+
+    /**
+     * 计算指定状态的队伍的数量和校验和，校验值的算法见 {@link com.rainsoul.teamforge.utils.OpenTeamIndex#crc}。
+     *
+     * @param statusList 队伍状态，不能为空
+     * @return 队伍数和校验和
+     */
+    TeamChecksum selectChecksum(@Param("statusList") List<Integer> statusList);
+
+    /**
+     * 按 (updateTime, id) 升序分页读取修改过的队伍，包括已删除的队伍，只查询 id、name、description、isDelete、updateTime。
+     *
+     * @param afterTime 上一页最后一个队伍的修改时间，第一页为同步起点
+     * @param afterId   上一页最后一个队伍的id，第一页为0
+     * @param limit     每页最多读取的队伍数
+     * @return 队伍列表
+     */
+    List<Team> selectUpdatedAfter(@Param("afterTime") Date afterTime, @Param("afterId") long afterId,
+                                  @Param("limit") int limit);
+
+    /**
+     * @return 队伍表中最大的修改时间，没有队伍时返回null
+     */
+    Date selectMaxUpdateTime();
+}
@@ -2,11 +2,56 @@ package com.rainsoul.teamforge.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.rainsoul.teamforge.model.domain.User;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 /**
  * 用户 Mapper
  */
 public interface UserMapper extends BaseMapper<User> {
 
-}
+    /**
+     * 流式扫描有标签的用户，只查询 id 和 tags 两列，按 id 升序逐行回调，不在内存中汇总结果。
+     *
+     * @param afterId 只扫描 id 大于该值的用户
+     * @param limit   本次最多扫描的行数
+     * @param handler 逐行处理结果的回调，可通过 ResultContext#stop 提前结束
+     */
+    void scanIdAndTags(@Param("afterId") long afterId, @Param("limit") int limit, ResultHandler<User> handler);
+
+    /**
+     * 查询用户的 id 和 tags 并锁定该行，需要在事务中调用。
+     *
+     * @param userId 用户id
+     * @return 用户，不存在时返回null
+     */
+    User selectIdAndTagsForUpdate(@Param("userId") long userId);
 
+    /**
+     * 按 id 升序锁定一批用户行，需要在事务中调用。
+     *
+     * @param userIds 用户id
+     * @return 存在的用户id
+     */
+    List<Long> selectIdsForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 按 (updateTime, id) 升序分页读取修改过的用户，包括已删除的用户，只查询 id、tags、isDelete、updateTime。
+     *
+     * @param afterTime 上一页最后一个用户的修改时间，第一页为同步起点
+     * @param afterId   上一页最后一个用户的id，第一页为0
+     * @param limit     每页最多读取的用户数
+     * @return 用户列表
+     */
+    List<User> selectUpdatedAfter(@Param("afterTime") Date afterTime, @Param("afterId") long afterId,
+                                  @Param("limit") int limit);
+
+    /**
+     * @return 用户表中最大的修改时间，没有用户时返回null
+     */
+    Date selectMaxUpdateTime();
+}
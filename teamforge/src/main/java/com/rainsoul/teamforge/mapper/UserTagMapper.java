@@ -0,0 +1,42 @@
+package com.rainsoul.teamforge.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.rainsoul.teamforge.model.domain.UserTag;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 用户标签关系 Mapper
+ */
+public interface UserTagMapper extends BaseMapper<UserTag> {
+
+    /**
+     * 查询同时拥有所有指定标签的用户id。
+     *
+     * @param tagIds   升序去重的标签id数组
+     * @param tagCount 标签个数
+     * @return 用户id列表
+     */
+    List<Long> selectUserIdsByTagIds(@Param("tagIds") int[] tagIds, @Param("tagCount") int tagCount);
+
+    /**
+     * 按用户id升序分页查询同时拥有所有指定标签的用户id。
+     *
+     * @param tagIds   升序去重的标签id数组
+     * @param tagCount 标签个数
+     * @param lastId   只查询 id 大于该值的用户
+     * @param limit    最多返回的用户数
+     * @return 用户id列表
+     */
+    List<Long> selectUserIdsByTagIdsAfter(@Param("tagIds") int[] tagIds, @Param("tagCount") int tagCount,
+                                          @Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量写入用户标签关系，已存在的关系忽略。
+     *
+     * @param userTagList 用户标签关系列表
+     * @return 写入的行数
+     */
+    int insertIgnoreBatch(@Param("userTagList") List<UserTag> userTagList);
+}
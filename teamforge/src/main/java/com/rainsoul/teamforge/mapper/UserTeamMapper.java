@@ -2,12 +2,59 @@ package com.rainsoul.teamforge.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.dto.TeamMemberCount;
+import com.rainsoul.teamforge.model.dto.UserTeamCount;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 用户队伍 Mapper
  */
 public interface UserTeamMapper extends BaseMapper<UserTeam> {
 
+    /**
+     * 按队伍分组统计已加入人数，没有成员的队伍不返回。
+     *
+     * @param teamIds 队伍id列表，不能为空
+     * @return 每个队伍的已加入人数
+     */
+    List<TeamMemberCount> countByTeamIds(@Param("teamIds") Collection<Long> teamIds);
+
+    /**
+     * 查询用户已加入的队伍id。
+     *
+     * @param userId  用户id
+     * @param teamIds 只在这些队伍中查询，为null时查询用户加入的所有队伍
+     * @return 已加入的队伍id
+     */
+    List<Long> listJoinedTeamIds(@Param("userId") long userId, @Param("teamIds") Collection<Long> teamIds);
+
+    /**
+     * 按用户分组统计已加入的队伍数，没有加入队伍的用户不返回。
+     *
+     * @param userIds 用户id列表，不能为空
+     * @return 每个用户已加入的队伍数
+     */
+    List<UserTeamCount> countByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 查询这些用户中已加入该队伍的用户。
+     *
+     * @param teamId  队伍id
+     * @param userIds 用户id列表，不能为空
+     * @return 已加入的用户id
+     */
+    List<Long> listMemberUserIds(@Param("teamId") long teamId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 多行插入用户队伍关系。
+     *
+     * @param userTeamList 用户队伍关系，不能为空
+     * @return 插入的行数
+     */
+    int insertBatch(@Param("userTeamList") List<UserTeam> userTeamList);
 }
 
 
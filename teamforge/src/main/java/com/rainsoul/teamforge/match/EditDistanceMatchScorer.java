@@ -0,0 +1,26 @@
+package com.rainsoul.teamforge.match;
+
+import com.rainsoul.teamforge.utils.AlgorithmUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * 以标签id数组的编辑距离作为分数的打分器
+ */
+@Component("editDistance")
+public class EditDistanceMatchScorer implements MatchScorer {
+
+    @Override
+    public PreparedQuery prepare(int[] queryTagIds) {
+        return (tagIds, bound) -> {
+            if (bound == Float.POSITIVE_INFINITY) {
+                return AlgorithmUtils.minDistance(queryTagIds, tagIds);
+            }
+            // 编辑距离是整数，只有不超过 bound - 1 的距离才可能入选
+            int maxDistance = (int) Math.ceil(bound) - 1;
+            if (maxDistance < 0) {
+                return bound;
+            }
+            return AlgorithmUtils.minDistance(queryTagIds, tagIds, maxDistance);
+        };
+    }
+}
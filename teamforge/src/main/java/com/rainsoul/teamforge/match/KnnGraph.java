@@ -0,0 +1,247 @@
+package com.rainsoul.teamforge.match;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射的 k 近邻图文件
+ * <p>
+ * 文件格式（大端序）：
+ * <pre>
+ * 文件头  int 魔数 | int 版本 | int 用户数 | int k | long 生成时间（开始生成的时间，之后修改的标签不在图中）
+ * 索引区  按用户id升序，每个用户 16 字节：long 用户id | int 邻居起始下标 | int 邻居数
+ * 数据区  每个邻居 12 字节：long 邻居用户id | float 分数，按分数从小到大排列
+ * </pre>
+ * 查询时在索引区二分查找用户，再按下标直接读取邻居，全部是对映射内存的绝对位置读取，
+ * 不占用堆内存，多线程并发读取安全；重启后由操作系统页缓存按需加载，无需预热。
+ * </p>
+ */
+public class KnnGraph {
+
+    private static final int MAGIC = 0x4B4E4E47;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final int NEIGHBOR_SIZE = 12;
+
+    private final MappedByteBuffer buffer;
+
+    private final int userCount;
+
+    private final int k;
+
+    private final long createTime;
+
+    private final int dataStart;
+
+    private KnnGraph(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("invalid knn graph file");
+        }
+        this.userCount = buffer.getInt(8);
+        this.k = buffer.getInt(12);
+        this.createTime = buffer.getLong(16);
+        this.dataStart = HEADER_SIZE + userCount * INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * 以只读方式映射图文件。
+     *
+     * @param path 图文件路径。
+     * @return 图。
+     * @throws IOException 读取失败时抛出。
+     */
+    public static KnnGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射建立后即使关闭通道也依然有效
+            return new KnnGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 获取用户最相似的邻居。
+     *
+     * @param userId 用户id。
+     * @param num    最多返回的邻居数。
+     * @return 按相似度从高到低排序的邻居；用户不在图中时返回null。
+     */
+    public List<MatchResult> getNeighbors(long userId, int num) {
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = HEADER_SIZE + mid * INDEX_ENTRY_SIZE;
+            long midUserId = buffer.getLong(entry);
+            if (midUserId < userId) {
+                low = mid + 1;
+            } else if (midUserId > userId) {
+                high = mid - 1;
+            } else {
+                int offset = buffer.getInt(entry + 8);
+                int count = Math.min(num, buffer.getInt(entry + 12));
+                List<MatchResult> neighborList = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int position = dataStart + (offset + i) * NEIGHBOR_SIZE;
+                    neighborList.add(new MatchResult(buffer.getLong(position), buffer.getFloat(position + 8)));
+                }
+                return neighborList;
+            }
+        }
+        return null;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * 图文件写入器
+     * <p>
+     * 索引区和数据区先分别写入临时文件，提交时拼接成完整文件并刷盘，
+     * 再原子重命名为目标文件，读取方不会看到写了一半的文件。
+     * </p>
+     */
+    public static class Writer implements Closeable {
+
+        private final Path target;
+
+        private final int k;
+
+        /**
+         * 创建写入器的时间，作为图的生成时间
+         */
+        private final long createTime = System.currentTimeMillis();
+
+        private final Path indexFile;
+
+        private final Path dataFile;
+
+        private final DataOutputStream indexOut;
+
+        private final DataOutputStream dataOut;
+
+        private int userCount;
+
+        private int neighborCount;
+
+        private long lastUserId = Long.MIN_VALUE;
+
+        /**
+         * 应在读取用户标签之前创建，生成时间早于读取的所有标签。
+         *
+         * @param target 目标文件路径。
+         * @param k      每个用户的最大邻居数。
+         * @throws IOException 创建临时文件失败时抛出。
+         */
+        public Writer(Path target, int k) throws IOException {
+            this.target = target.toAbsolutePath();
+            this.k = k;
+            Files.createDirectories(this.target.getParent());
+            this.indexFile = Files.createTempFile(this.target.getParent(), "knn-index", ".tmp");
+            this.dataFile = Files.createTempFile(this.target.getParent(), "knn-data", ".tmp");
+            this.indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)));
+            this.dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile)));
+        }
+
+        /**
+         * 写入一个用户的邻居，用户id必须严格递增。
+         *
+         * @param userId       用户id。
+         * @param neighborList 按相似度从高到低排序的邻居。
+         * @throws IOException 写入失败时抛出。
+         */
+        public void add(long userId, List<MatchResult> neighborList) throws IOException {
+            if (userId <= lastUserId) {
+                throw new IllegalArgumentException("user ids must be strictly increasing");
+            }
+            lastUserId = userId;
+            int count = Math.min(k, neighborList.size());
+            indexOut.writeLong(userId);
+            indexOut.writeInt(neighborCount);
+            indexOut.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                MatchResult neighbor = neighborList.get(i);
+                dataOut.writeLong(neighbor.userId());
+                dataOut.writeFloat(neighbor.score());
+            }
+            userCount++;
+            neighborCount += count;
+        }
+
+        /**
+         * 生成完整的图文件并原子替换目标文件。
+         *
+         * @throws IOException 写入失败时抛出。
+         */
+        public void commit() throws IOException {
+            indexOut.close();
+            dataOut.close();
+            long size = HEADER_SIZE + (long) userCount * INDEX_ENTRY_SIZE + (long) neighborCount * NEIGHBOR_SIZE;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("knn graph too large to map: " + size + " bytes");
+            }
+            Path graphFile = Files.createTempFile(target.getParent(), "knn-graph", ".tmp");
+            try (FileChannel out = FileChannel.open(graphFile, StandardOpenOption.WRITE)) {
+                DataOutputStream headerOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out)));
+                headerOut.writeInt(MAGIC);
+                headerOut.writeInt(VERSION);
+                headerOut.writeInt(userCount);
+                headerOut.writeInt(k);
+                headerOut.writeLong(createTime);
+                headerOut.flush();
+                appendFile(out, indexFile);
+                appendFile(out, dataFile);
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(graphFile);
+                throw e;
+            } finally {
+                Files.deleteIfExists(indexFile);
+                Files.deleteIfExists(dataFile);
+            }
+            Files.move(graphFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * 放弃写入，删除临时文件。提交后调用无副作用。
+         */
+        @Override
+        public void close() throws IOException {
+            indexOut.close();
+            dataOut.close();
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(dataFile);
+        }
+
+        private static void appendFile(FileChannel out, Path file) throws IOException {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long position = 0;
+                long size = in.size();
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.rainsoul.teamforge.match;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 持有当前生效的 k 近邻图，新图生成后原子切换
+ * <p>
+ * 记录图生成后修改过标签的用户：这些用户自己的邻居和作为别人邻居时的分数都已过期，
+ * 查询时跳过，由调用方实时计算。切换新图时清除新图已包含的记录。
+ * </p>
+ * <p>
+ * 图和过期记录都属于本实例：图由本实例的 {@link com.rainsoul.teamforge.job.KnnGraphBuildJob} 生成，
+ * 其他实例修改的标签由 {@link com.rainsoul.teamforge.job.UserTagIndexSyncJob} 同步后标记。
+ * </p>
+ */
+@Component
+@Slf4j
+public class KnnGraphStore {
+
+    @Value("${teamforge.match.knn-graph-path:data/knn-graph.bin}")
+    private String graphPath;
+
+    private volatile KnnGraph graph;
+
+    /**
+     * 用户id -> 最近一次修改标签的时间（毫秒）
+     */
+    private final ConcurrentMap<Long, Long> tagUpdateTimeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时映射已有的图文件，不存在时匹配走实时计算
+     */
+    @PostConstruct
+    public void init() {
+        Path path = getGraphPath();
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException | IllegalStateException e) {
+            log.warn("load knn graph failed, path: {}", path, e);
+        }
+    }
+
+    /**
+     * 重新映射图文件并切换为当前图，旧的映射在没有读取方引用后由 GC 回收。
+     *
+     * @throws IOException 读取失败时抛出。
+     */
+    public void reload() throws IOException {
+        KnnGraph newGraph = KnnGraph.open(getGraphPath());
+        graph = newGraph;
+        // 新图生成前修改的标签已包含在新图中
+        tagUpdateTimeMap.values().removeIf(updateTime -> updateTime < newGraph.getCreateTime());
+        log.info("knn graph loaded, users: {}, k: {}, createTime: {}",
+                newGraph.getUserCount(), newGraph.getK(), newGraph.getCreateTime());
+    }
+
+    /**
+     * 获取用户最相似的邻居。
+     *
+     * @param userId 用户id。
+     * @param num    最多返回的邻居数。
+     * @return 按相似度从高到低排序的邻居，不包含图生成后修改过标签的邻居；
+     * 图未生成、用户不在图中或用户在图生成后修改过标签时返回null。
+     */
+    public List<MatchResult> getNeighbors(long userId, int num) {
+        KnnGraph current = graph;
+        if (current == null || isStale(userId, current)) {
+            return null;
+        }
+        if (tagUpdateTimeMap.isEmpty()) {
+            return current.getNeighbors(userId, num);
+        }
+        // 读取全部邻居，去掉过期的之后再截取
+        List<MatchResult> neighborList = current.getNeighbors(userId, current.getK());
+        if (neighborList == null) {
+            return null;
+        }
+        return neighborList.stream()
+                .filter(neighbor -> !isStale(neighbor.userId(), current))
+                .limit(num)
+                .toList();
+    }
+
+    /**
+     * 用户修改标签后调用，当前图中与该用户有关的结果不再使用。
+     *
+     * @param userId 用户id。
+     */
+    public void markTagsUpdated(long userId) {
+        tagUpdateTimeMap.put(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * 判断用户是否在图生成后修改过标签。
+     */
+    private boolean isStale(long userId, KnnGraph current) {
+        Long updateTime = tagUpdateTimeMap.get(userId);
+        return updateTime != null && updateTime >= current.getCreateTime();
+    }
+
+    public Path getGraphPath() {
+        return Paths.get(graphPath);
+    }
+}
@@ -0,0 +1,153 @@
+package com.rainsoul.teamforge.match;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行匹配引擎
+ * <p>
+ * 候选用户数达到阈值时，在专用的 ForkJoinPool 中把快照递归切分成若干段，
+ * 每段使用自己的 Top-N 堆打分，子任务完成后逐级合并堆；候选较少时直接在调用线程中顺序匹配，避免调度开销。
+ * 使用专用线程池而不是公共池，匹配任务不会与其他并行流互相争抢线程。
+ * </p>
+ */
+@Component
+@Slf4j
+public class MatchEngine {
+
+    /**
+     * 每个叶子任务至少处理的用户数
+     */
+    private static final int MIN_LEAF_SIZE = 1024;
+
+    /**
+     * 每个工作线程平均分到的叶子任务数，多切几段便于工作窃取平衡负载
+     */
+    private static final int LEAVES_PER_THREAD = 4;
+
+    private final int parallelism;
+
+    private final int parallelThreshold;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism       并行度，不大于 0 时取 CPU 核数。
+     * @param parallelThreshold 候选用户数不少于该值时才并行匹配。
+     */
+    public MatchEngine(@Value("${teamforge.match.parallelism:0}") int parallelism,
+                       @Value("${teamforge.match.parallel-threshold:20000}") int parallelThreshold) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = parallelThreshold;
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism, new MatchWorkerThreadFactory(), null, false) : null;
+        log.info("match engine initialized, parallelism: {}, parallelThreshold: {}", this.parallelism, parallelThreshold);
+    }
+
+    /**
+     * 在快照中为查询用户匹配分数最小的 num 个用户。
+     *
+     * @param snapshot      候选用户快照。
+     * @param excludeUserId 不参与匹配的用户id（登录用户自己）。
+     * @param query         打分函数。
+     * @param num           匹配的用户数。
+     * @return 按相似度从高到低排序的匹配结果。
+     */
+    public List<MatchResult> match(UserTagSnapshot snapshot, long excludeUserId, MatchScorer.PreparedQuery query, int num) {
+        int size = snapshot.size();
+        if (pool == null || size < parallelThreshold) {
+            TopNCollector collector = new TopNCollector(excludeUserId, query, num);
+            collect(snapshot, 0, size, collector);
+            return collector.getResult();
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, size / (parallelism * LEAVES_PER_THREAD));
+        MatchTask task = new MatchTask(snapshot, excludeUserId, query, num, leafSize, 0, size);
+        return pool.invoke(task).getResult();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (pool != null) {
+            pool.shutdown();
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void collect(UserTagSnapshot snapshot, int from, int to, TopNCollector collector) {
+        long[] userIds = snapshot.userIds();
+        int[][] tagIds = snapshot.tagIds();
+        for (int i = from; i < to; i++) {
+            collector.offer(userIds[i], tagIds[i]);
+        }
+    }
+
+    /**
+     * 对快照的 [from, to) 区间打分，区间过大时一分为二。
+     */
+    private static class MatchTask extends RecursiveTask<TopNCollector> {
+
+        private final UserTagSnapshot snapshot;
+
+        private final long excludeUserId;
+
+        private final MatchScorer.PreparedQuery query;
+
+        private final int num;
+
+        private final int leafSize;
+
+        private final int from;
+
+        private final int to;
+
+        MatchTask(UserTagSnapshot snapshot, long excludeUserId, MatchScorer.PreparedQuery query,
+                  int num, int leafSize, int from, int to) {
+            this.snapshot = snapshot;
+            this.excludeUserId = excludeUserId;
+            this.query = query;
+            this.num = num;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopNCollector compute() {
+            if (to - from <= leafSize) {
+                TopNCollector collector = new TopNCollector(excludeUserId, query, num);
+                collect(snapshot, from, to, collector);
+                return collector;
+            }
+            int mid = (from + to) >>> 1;
+            MatchTask left = new MatchTask(snapshot, excludeUserId, query, num, leafSize, from, mid);
+            MatchTask right = new MatchTask(snapshot, excludeUserId, query, num, leafSize, mid, to);
+            left.fork();
+            TopNCollector collector = right.compute();
+            collector.merge(left.join());
+            return collector;
+        }
+    }
+
+    /**
+     * 为匹配线程命名，便于排查问题
+     */
+    private static class MatchWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("match-worker-" + threadNumber.getAndIncrement());
+            return thread;
+        }
+    }
+}
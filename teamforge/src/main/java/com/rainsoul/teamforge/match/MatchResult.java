@@ -0,0 +1,20 @@
+package com.rainsoul.teamforge.match;
+
+import java.util.Comparator;
+
+/**
+ * 匹配结果
+ *
+ * @param userId 用户id
+ * @param score  与登录用户的匹配分数，越小越相似
+ */
+public record MatchResult(long userId, float score) {
+
+    /**
+     * 分数大的排在前面，分数相同时id大的排在前面
+     */
+    public static final Comparator<MatchResult> WORST_FIRST = Comparator
+            .comparingDouble(MatchResult::score)
+            .thenComparingLong(MatchResult::userId)
+            .reversed();
+}
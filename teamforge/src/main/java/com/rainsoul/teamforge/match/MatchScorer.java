@@ -0,0 +1,35 @@
+package com.rainsoul.teamforge.match;
+
+/**
+ * 用户匹配打分器，分数越小表示越相似。
+ */
+public interface MatchScorer {
+
+    /**
+     * 为登录用户的标签预先计算查询所需的数据。
+     *
+     * @param queryTagIds 登录用户升序去重的标签id数组。
+     * @return 可在多个线程中并发使用的打分函数。
+     */
+    PreparedQuery prepare(int[] queryTagIds);
+
+    /**
+     * 针对某个登录用户准备好的打分函数
+     */
+    @FunctionalInterface
+    interface PreparedQuery {
+
+        /**
+         * 计算候选用户的分数。
+         * <p>
+         * bound 为当前入选用户中最差的分数，真实分数不小于 bound 的候选不可能入选，
+         * 此时打分器可以提前结束并返回任意不小于 bound 的值；bound 为正无穷时必须返回精确分数。
+         * </p>
+         *
+         * @param tagIds 候选用户升序的标签id数组。
+         * @param bound  分数上界。
+         * @return 分数，越小越相似。
+         */
+        float score(int[] tagIds, float bound);
+    }
+}
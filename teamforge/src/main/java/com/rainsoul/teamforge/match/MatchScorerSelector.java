@@ -0,0 +1,46 @@
+package com.rainsoul.teamforge.match;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 按配置选择用户匹配使用的打分器
+ */
+@Component
+public class MatchScorerSelector {
+
+    /**
+     * 所有打分器，key 为 bean 名称
+     */
+    @Resource
+    private Map<String, MatchScorer> matchScorerMap;
+
+    /**
+     * 用户匹配使用的打分器：editDistance（标签编辑距离）或 tfidf（TF-IDF 余弦相似度）
+     */
+    @Value("${teamforge.match.scorer:editDistance}")
+    private String matchScorerName;
+
+    private MatchScorer matchScorer;
+
+    @PostConstruct
+    public void init() {
+        matchScorer = matchScorerMap.get(matchScorerName);
+        if (matchScorer == null) {
+            throw new IllegalStateException("unknown match scorer: " + matchScorerName);
+        }
+    }
+
+    /**
+     * 获取当前配置的打分器。
+     *
+     * @return 打分器。
+     */
+    public MatchScorer getScorer() {
+        return matchScorer;
+    }
+}
@@ -0,0 +1,150 @@
+package com.rainsoul.teamforge.match;
+
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于 TF-IDF 加权余弦相似度的打分器，分数为 1 - cos，越小越相似。
+ * <p>
+ * 用户的标签集合视为一篇文档，每个标签只出现一次（TF 为 1），权重即标签的 IDF：
+ * idf = ln((1 + N) / (1 + df)) + 1，N 为有标签的用户数，df 为拥有该标签的用户数。
+ * 冷门标签的权重更高，两个用户共同拥有冷门标签比共同拥有热门标签更能说明相似。
+ * 与编辑距离不同，结果与标签顺序无关。
+ * </p>
+ * <p>
+ * 标签id来自标签字典，是紧凑的非负整数，因此 IDF 表和查询向量都以标签id为下标存为稠密 float 数组，
+ * 打分时只需遍历候选用户的标签做一次查表累加，不需要哈希表。
+ * 每个用户的向量长度只与 IDF 表有关，在统计 IDF 时一并计算，以标签数组的引用为 key 保存，
+ * 只有之后修改过标签的用户（索引中已换成新数组）才在打分时现算。
+ * </p>
+ */
+@Component("tfidf")
+@Slf4j
+public class TfIdfMatchScorer implements MatchScorer {
+
+    @Resource
+    private UserTagIndexService userTagIndexService;
+
+    /**
+     * IDF 表的刷新间隔（秒）
+     */
+    @Value("${teamforge.match.tfidf-refresh-seconds:600}")
+    private long refreshSeconds;
+
+    private volatile IdfTable idfTable;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Override
+    public PreparedQuery prepare(int[] queryTagIds) {
+        IdfTable table = getIdfTable();
+        float[] idf = table.idf();
+        float defaultIdf = table.defaultIdf();
+        Map<int[], Float> norms = table.norms();
+
+        int maxTagId = 0;
+        for (int tagId : queryTagIds) {
+            maxTagId = Math.max(maxTagId, tagId);
+        }
+        // 查询向量：下标为标签id，值为 IDF 权重
+        float[] queryWeights = new float[maxTagId + 1];
+        for (int tagId : queryTagIds) {
+            queryWeights[tagId] = tagId < idf.length ? idf[tagId] : defaultIdf;
+        }
+        float queryNorm = computeNorm(queryTagIds, idf, defaultIdf);
+
+        return (tagIds, bound) -> {
+            float dot = 0;
+            for (int tagId : tagIds) {
+                if (tagId < queryWeights.length) {
+                    dot += queryWeights[tagId] * (tagId < idf.length ? idf[tagId] : defaultIdf);
+                }
+            }
+            if (dot == 0) {
+                return 1f;
+            }
+            Float norm = norms.get(tagIds);
+            return 1f - dot / (queryNorm * (norm != null ? norm : computeNorm(tagIds, idf, defaultIdf)));
+        };
+    }
+
+    /**
+     * 获取 IDF 表，过期时由一个线程重新统计，其他线程继续使用旧表。
+     * 索引尚未构建完成时统计结果不完整，只临时使用、不缓存。
+     */
+    private IdfTable getIdfTable() {
+        IdfTable table = idfTable;
+        long now = System.currentTimeMillis();
+        if (table != null && now - table.createTime() < refreshSeconds * 1000) {
+            return table;
+        }
+        if (table != null) {
+            if (!refreshLock.tryLock()) {
+                return table;
+            }
+        } else {
+            refreshLock.lock();
+        }
+        try {
+            table = idfTable;
+            if (table != null && now - table.createTime() < refreshSeconds * 1000) {
+                return table;
+            }
+            boolean indexReady = userTagIndexService.isReady();
+            int[] userCounts = userTagIndexService.countUsersByTag();
+            int userCount = userTagIndexService.getUserCount();
+            float[] idf = new float[userCounts.length];
+            for (int tagId = 0; tagId < userCounts.length; tagId++) {
+                idf[tagId] = computeIdf(userCount, userCounts[tagId]);
+            }
+            float defaultIdf = computeIdf(userCount, 0);
+            // 只读使用，构建完成后多线程并发读取安全
+            Map<int[], Float> norms = new IdentityHashMap<>();
+            if (indexReady) {
+                userTagIndexService.forEachUser((userId, tagIds) -> norms.put(tagIds, computeNorm(tagIds, idf, defaultIdf)));
+            }
+            table = new IdfTable(idf, defaultIdf, norms, now);
+            if (indexReady) {
+                idfTable = table;
+                log.info("tf-idf table refreshed, users: {}, tags: {}", userCount, userCounts.length);
+            }
+            return table;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static float computeIdf(int userCount, int tagUserCount) {
+        return (float) (Math.log((1.0 + userCount) / (1.0 + tagUserCount)) + 1);
+    }
+
+    /**
+     * 计算标签集合的 TF-IDF 向量长度。
+     */
+    private static float computeNorm(int[] tagIds, float[] idf, float defaultIdf) {
+        float normSquare = 0;
+        for (int tagId : tagIds) {
+            float weight = tagId < idf.length ? idf[tagId] : defaultIdf;
+            normSquare += weight * weight;
+        }
+        return (float) Math.sqrt(normSquare);
+    }
+
+    /**
+     * IDF 表
+     *
+     * @param idf        下标为标签id的 IDF 权重
+     * @param defaultIdf 统计之后新出现的标签使用的权重
+     * @param norms      用户标签数组（按引用）-> 向量长度
+     * @param createTime 统计时间
+     */
+    private record IdfTable(float[] idf, float defaultIdf, Map<int[], Float> norms, long createTime) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.rainsoul.teamforge.match;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 为每个候选用户打分，只保留分数最小的 num 个用户。非线程安全，每个线程使用自己的实例，最后合并。
+ */
+public class TopNCollector {
+
+    private final long excludeUserId;
+
+    private final MatchScorer.PreparedQuery query;
+
+    private final int num;
+
+    /**
+     * 大顶堆，堆顶是当前入选用户中分数最大（最不相似）的一个
+     */
+    private final PriorityQueue<MatchResult> heap;
+
+    /**
+     * @param excludeUserId 不参与匹配的用户id（登录用户自己）。
+     * @param query         打分函数。
+     * @param num           保留的用户数。
+     */
+    public TopNCollector(long excludeUserId, MatchScorer.PreparedQuery query, int num) {
+        this.excludeUserId = excludeUserId;
+        this.query = query;
+        this.num = num;
+        this.heap = new PriorityQueue<>(num, MatchResult.WORST_FIRST);
+    }
+
+    /**
+     * 对候选用户打分并尝试加入结果。
+     *
+     * @param userId 用户id。
+     * @param tagIds 用户升序的标签id数组。
+     */
+    public void offer(long userId, int[] tagIds) {
+        if (userId == excludeUserId || tagIds == null || tagIds.length == 0) {
+            return;
+        }
+        if (heap.size() < num) {
+            heap.offer(new MatchResult(userId, query.score(tagIds, Float.POSITIVE_INFINITY)));
+            return;
+        }
+        // 堆已满，只有比堆顶更相似的用户才能入选
+        float worstScore = heap.peek().score();
+        float score = query.score(tagIds, worstScore);
+        if (score < worstScore) {
+            heap.poll();
+            heap.offer(new MatchResult(userId, score));
+        }
+    }
+
+    /**
+     * 合并另一个收集器的结果。
+     *
+     * @param other 另一个收集器。
+     */
+    public void merge(TopNCollector other) {
+        for (MatchResult result : other.heap) {
+            if (heap.size() < num) {
+                heap.offer(result);
+            } else if (MatchResult.WORST_FIRST.compare(result, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(result);
+            }
+        }
+    }
+
+    /**
+     * 按相似度从高到低返回入选的用户。
+     *
+     * @return 匹配结果列表。
+     */
+    public List<MatchResult> getResult() {
+        List<MatchResult> resultList = new ArrayList<>(heap);
+        resultList.sort(MatchResult.WORST_FIRST.reversed());
+        return resultList;
+    }
+}
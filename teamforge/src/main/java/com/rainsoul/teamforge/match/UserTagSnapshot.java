@@ -0,0 +1,14 @@
+package com.rainsoul.teamforge.match;
+
+/**
+ * 用户标签的只读数组快照，按下标随机访问，便于切分给多个线程并行匹配。
+ *
+ * @param userIds 用户id数组
+ * @param tagIds  与 userIds 一一对应的升序标签id数组，调用方不得修改
+ */
+public record UserTagSnapshot(long[] userIds, int[][] tagIds) {
+
+    public int size() {
+        return userIds.length;
+    }
+}
@@ -33,6 +33,11 @@ public class Team implements Serializable {
      */
     private Integer maxNum;
 
+    /**
+     * 已加入人数
+     */
+    private Integer memberCount;
+
     /**
      * 过期时间
      */
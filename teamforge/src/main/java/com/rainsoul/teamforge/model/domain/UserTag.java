@@ -0,0 +1,33 @@
+package com.rainsoul.teamforge.model.domain;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 用户标签关系实体
+ */
+@TableName(value = "user_tag")
+@Data
+public class UserTag implements Serializable {
+    /**
+     * 用户 id
+     */
+    private Long userId;
+
+    /**
+     * 标签 id
+     */
+    private Long tagId;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
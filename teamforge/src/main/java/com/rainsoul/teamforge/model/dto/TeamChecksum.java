@@ -0,0 +1,19 @@
+package com.rainsoul.teamforge.model.dto;
+
+import lombok.Data;
+
+/**
+ * 队伍表的校验和，用于和内存索引比对
+ */
+@Data
+public class TeamChecksum {
+    /**
+     * 队伍数
+     */
+    private Long teamCount;
+
+    /**
+     * 每个队伍校验值的异或
+     */
+    private Long checksum;
+}
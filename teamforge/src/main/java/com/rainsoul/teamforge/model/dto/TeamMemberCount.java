@@ -0,0 +1,19 @@
+package com.rainsoul.teamforge.model.dto;
+
+import lombok.Data;
+
+/**
+ * 队伍已加入人数，按队伍分组统计的结果
+ */
+@Data
+public class TeamMemberCount {
+    /**
+     * 队伍id
+     */
+    private Long teamId;
+
+    /**
+     * 已加入人数
+     */
+    private Integer memberCount;
+}
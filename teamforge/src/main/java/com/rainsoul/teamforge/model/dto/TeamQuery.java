@@ -52,4 +52,9 @@ public class TeamQuery extends PageRequest {
      * 0 - 公开，1 - 私有，2 - 加密
      */
     private Integer status;
+
+    /**
+     * 游标分页时上一页返回的 nextCursor，第一页不传
+     */
+    private String cursor;
 }
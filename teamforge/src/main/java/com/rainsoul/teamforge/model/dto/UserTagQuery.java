@@ -0,0 +1,25 @@
+package com.rainsoul.teamforge.model.dto;
+
+import com.rainsoul.teamforge.common.PageRequest;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+
+/**
+ * 用户标签搜索封装类（游标分页）
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class UserTagQuery extends PageRequest {
+    /**
+     * 标签名称列表，需同时拥有
+     */
+    private List<String> tagNameList;
+
+    /**
+     * 上一页最后一个用户的 id（即上一页返回的 nextCursor），第一页不传
+     */
+    private Long lastId;
+}
@@ -0,0 +1,19 @@
+package com.rainsoul.teamforge.model.dto;
+
+import lombok.Data;
+
+/**
+ * 用户已加入的队伍数，按用户分组统计的结果
+ */
+@Data
+public class UserTeamCount {
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 已加入的队伍数
+     */
+    private Integer teamCount;
+}
@@ -0,0 +1,49 @@
+package com.rainsoul.teamforge.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 缓存命中统计
+ */
+@Data
+public class CacheStatsVO implements Serializable {
+
+    private static final long serialVersionUID = 4378159826014576391L;
+
+    /**
+     * 缓存名称
+     */
+    private String cacheName;
+
+    /**
+     * 一级缓存（本地）命中次数
+     */
+    private Long l1Hits;
+
+    /**
+     * 二级缓存（Redis）命中次数
+     */
+    private Long l2Hits;
+
+    /**
+     * 未命中次数
+     */
+    private Long misses;
+
+    /**
+     * 命中率
+     */
+    private Double hitRate;
+
+    /**
+     * 收到的失效通知次数
+     */
+    private Long invalidations;
+
+    /**
+     * 一级缓存当前条数（估算值）
+     */
+    private Long l1Size;
+}
@@ -0,0 +1,62 @@
+package com.rainsoul.teamforge.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.rainsoul.teamforge.model.domain.Tag;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 标签服务接口，同时作为标签字典，将标签名称映射为整数id。
+ */
+public interface TagService extends IService<Tag> {
+
+    /**
+     * 查询标签id，不会创建新标签。本地字典未命中时查询标签表，其他节点新建的标签也能查到。
+     *
+     * @param tagName 标签名称。
+     * @return 标签id，标签不存在时返回-1。
+     */
+    int getTagId(String tagName);
+
+    /**
+     * 获取标签id，标签不存在时写入标签表。
+     *
+     * @param tagName 标签名称。
+     * @return 标签id。
+     */
+    int internTag(String tagName);
+
+    /**
+     * 根据标签id获取标签名称。
+     *
+     * @param tagId 标签id。
+     * @return 标签名称，不存在时返回null。
+     */
+    String getTagName(int tagId);
+
+    /**
+     * 将标签名称集合转换为升序去重的标签id数组，不会创建新标签。
+     *
+     * @param tagNames 标签名称集合。
+     * @return 标签id数组，存在标签表中也没有的标签时返回null。
+     */
+    int[] getTagIds(Collection<String> tagNames);
+
+    /**
+     * 解析标签 json 列表为升序去重的标签id数组。
+     *
+     * @param tags   标签 json 列表。
+     * @param intern 是否为未知标签创建新标签，为false时忽略未知标签。
+     * @return 标签id数组，为空或格式错误时返回空数组。
+     */
+    int[] parseTagIds(String tags, boolean intern);
+
+    /**
+     * 解析标签 json 列表为标签名称列表，保留原有顺序。
+     *
+     * @param tags 标签 json 列表。
+     * @return 标签名称列表，为空或格式错误时返回空列表。
+     */
+    List<String> parseTagNames(String tags);
+}
@@ -0,0 +1,81 @@
+package com.rainsoul.teamforge.service;
+
+import com.rainsoul.teamforge.model.dto.TeamQuery;
+import com.rainsoul.teamforge.model.vo.TeamUserVO;
+import com.rainsoul.teamforge.utils.OpenTeamIndex;
+
+import java.util.List;
+
+/**
+ * 开放队伍列表索引服务，在内存中维护公开和加密队伍，队伍列表查询不访问数据库。
+ */
+public interface TeamListIndexService {
+
+    /**
+     * 从队伍表全量重建索引。
+     */
+    void rebuild();
+
+    /**
+     * 判断查询能否由索引处理：索引已构建完成，只查询公开和加密队伍，且没有指定id、id列表或搜索关键词。
+     *
+     * @param teamQuery  查询条件
+     * @param statusList 允许的队伍状态，为null表示不限制
+     * @return 可以使用索引时返回true，否则调用方应查询数据库。
+     */
+    boolean canServe(TeamQuery teamQuery, List<Integer> statusList);
+
+    /**
+     * 从索引查询未过期的队伍，条件和返回内容与数据库查询相同。
+     *
+     * @param teamQuery   查询条件
+     * @param statusList  允许的队伍状态
+     * @param loginUserId 当前登录用户id，为null时都标记为未加入
+     * @return 队伍列表，按创建时间倒序
+     */
+    List<TeamUserVO> listTeams(TeamQuery teamQuery, List<Integer> statusList, Long loginUserId);
+
+    /**
+     * 从索引按游标查询一页未过期的队伍。
+     *
+     * @param teamQuery   查询条件
+     * @param statusList  允许的队伍状态
+     * @param loginUserId 当前登录用户id，为null时都标记为未加入
+     * @param after       上一页最后一个队伍的位置（不含），为null时从第一个开始
+     * @param limit       最多返回的队伍数
+     * @return 队伍列表，按创建时间倒序、id倒序
+     */
+    List<TeamUserVO> listTeams(TeamQuery teamQuery, List<Integer> statusList, Long loginUserId,
+                               OpenTeamIndex.Key after, int limit);
+
+    /**
+     * 从索引统计未过期的队伍数。
+     *
+     * @param teamQuery  查询条件
+     * @param statusList 允许的队伍状态
+     * @return 队伍数
+     */
+    long countTeams(TeamQuery teamQuery, List<Integer> statusList);
+
+    /**
+     * 从数据库重新读取队伍及成员并更新索引，队伍已删除或不再开放时移出索引。
+     * 在事务中调用时于事务提交后执行。
+     *
+     * @param teamId 队伍id
+     */
+    void refresh(long teamId);
+
+    /**
+     * 比对索引和队伍表的队伍数与校验和。
+     *
+     * @return 一致时返回true
+     */
+    boolean checkConsistency();
+
+    /**
+     * 索引是否已构建完成。
+     *
+     * @return 构建完成返回true
+     */
+    boolean isReady();
+}
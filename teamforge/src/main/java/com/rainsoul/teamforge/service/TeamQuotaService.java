@@ -0,0 +1,42 @@
+package com.rainsoul.teamforge.service;
+
+import com.rainsoul.teamforge.model.domain.User;
+
+/**
+ * 用户创建队伍数配额服务，缓存每个用户作为队长的队伍数，创建队伍时不需要每次查询数据库。
+ */
+public interface TeamQuotaService {
+
+    /**
+     * 按用户角色获取最多可以创建的队伍数。
+     *
+     * @param user 用户
+     * @return 最多可以创建的队伍数
+     */
+    int getCreateLimit(User user);
+
+    /**
+     * 占用一个创建队伍的名额，已达到上限时不占用。
+     * 创建失败时调用方需要调用 {@link #release} 归还名额。
+     *
+     * @param userId 用户id
+     * @param limit  最多可以创建的队伍数
+     * @return 占用成功返回true，已达到上限返回false
+     */
+    boolean tryAcquire(long userId, int limit);
+
+    /**
+     * 归还一个名额，用于创建失败或队伍被删除。在事务中调用时，事务提交后才归还。
+     *
+     * @param userId 用户id
+     */
+    void release(long userId);
+
+    /**
+     * 清除用户的缓存计数，下次从数据库重新统计，用于队长转让、队伍过期等批量变化。
+     * 在事务中调用时，事务提交后才清除。
+     *
+     * @param userId 用户id
+     */
+    void invalidate(long userId);
+}
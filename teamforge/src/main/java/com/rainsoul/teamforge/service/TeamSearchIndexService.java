@@ -0,0 +1,54 @@
+package com.rainsoul.teamforge.service;
+
+import java.util.List;
+
+/**
+ * 队伍全文搜索索引服务，对队伍名称和描述建立内存中的 BM25 倒排索引。
+ */
+public interface TeamSearchIndexService {
+
+    /**
+     * 从队伍表全量重建索引。
+     */
+    void rebuild();
+
+    /**
+     * 判断能否用索引处理该查询：索引已构建完成，且查询文本能切分出可匹配的词。
+     *
+     * @param searchText 查询文本
+     * @return 可以使用索引时返回true，否则调用方应退回数据库搜索。
+     */
+    boolean canSearch(String searchText);
+
+    /**
+     * 队伍新增或名称、描述修改时更新索引。
+     *
+     * @param teamId      队伍id
+     * @param name        队伍名称
+     * @param description 队伍描述
+     */
+    void updateTeam(long teamId, String name, String description);
+
+    /**
+     * 队伍删除时从索引中移除。
+     *
+     * @param teamId 队伍id
+     */
+    void removeTeam(long teamId);
+
+    /**
+     * 从队伍表读取上次同步以来修改过的队伍，更新到索引中，用于同步其他节点的写入。
+     *
+     * @return 同步的队伍数
+     */
+    int syncUpdatedTeams();
+
+    /**
+     * 按相关度搜索队伍。
+     *
+     * @param searchText 查询文本
+     * @param limit      最多返回的队伍数
+     * @return 按相关度从高到低排列的队伍id，可能包含已过期的队伍，由调用方过滤。
+     */
+    List<Long> search(String searchText, int limit);
+}
@@ -1,6 +1,7 @@
 package com.rainsoul.teamforge.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.model.domain.Team;
 import com.rainsoul.teamforge.model.domain.User;
 import com.rainsoul.teamforge.model.dto.TeamQuery;
@@ -28,11 +29,32 @@ public interface TeamService extends IService<Team> {
     /**
      * 搜索队伍。
      *
-     * @param teamQuery     搜索条件
-     * @param isAdmin        是否是管理员搜索
+     * @param teamQuery 搜索条件
+     * @param isAdmin   是否是管理员搜索
+     * @param loginUser 当前登录用户，用于标记是否已加入，未登录时为null
      * @return 符合条件的队伍列表
      */
-    List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin);
+    List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin, User loginUser);
+
+    /**
+     * 游标分页搜索队伍，不执行 count 查询，第一页返回缓存的近似总数。
+     *
+     * @param teamQuery 搜索条件，cursor 为上一页返回的 nextCursor
+     * @param isAdmin   是否是管理员搜索
+     * @param loginUser 当前登录用户，未登录时为null
+     * @return 一页队伍及下一页游标
+     */
+    CursorPage<TeamUserVO> listTeamsByCursor(TeamQuery teamQuery, boolean isAdmin, User loginUser);
+
+    /**
+     * 修正队伍的已加入人数，人数在读取后被其他操作修改时放弃修正。
+     *
+     * @param teamId        队伍id
+     * @param expectedCount 读取时的人数
+     * @param actualCount   按用户队伍关系统计的实际人数
+     * @return 是否修正成功
+     */
+    boolean repairMemberCount(long teamId, int expectedCount, int actualCount);
 
     /**
      * 更新队伍信息。
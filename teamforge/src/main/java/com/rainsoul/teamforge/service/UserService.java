@@ -1,6 +1,8 @@
 package com.rainsoul.teamforge.service;
 
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.model.domain.User;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -56,6 +58,43 @@ public interface UserService extends IService<User> {
      */
     List<User> searchUsersByTags(List<String> tagNameList);
 
+    /**
+     * 根据标签搜索用户（游标分页）。
+     *
+     * @param tagNameList 标签名称列表，用于筛选用户。
+     * @param lastId      上一页最后一个用户的id，第一页传0。
+     * @param pageSize    每页数量。
+     * @return 按用户id升序的一页用户，nextCursor 为下一页的 lastId。
+     */
+    CursorPage<User> searchUsersByTags(List<String> tagNameList, long lastId, int pageSize);
+
+    /**
+     * 分页获取推荐用户，优先读取 Redis 中预热的缓存，未命中时实时查询并写入缓存。
+     *
+     * @param pageNum   页码，从 1 开始。
+     * @param pageSize  每页数量。
+     * @param loginUser 当前登录用户，未登录时为null。
+     * @return 一页脱敏后的推荐用户。
+     */
+    Page<User> recommendUsers(long pageNum, long pageSize, User loginUser);
+
+    /**
+     * 实时查询一页推荐用户并写入 Redis 缓存，供预热任务调用。
+     *
+     * @param userId   用户id，0 表示未登录用户。
+     * @param pageNum  页码，从 1 开始。
+     * @param pageSize 每页数量。
+     */
+    void cacheRecommendUsers(long userId, long pageNum, long pageSize);
+
+    /**
+     * 根据id获取脱敏后的用户信息，结果会被缓存。
+     *
+     * @param userId 用户id。
+     * @return 脱敏后的用户，不存在时返回null。
+     */
+    User getSafetyUserById(long userId);
+
     /**
      * 更新用户信息。
      *
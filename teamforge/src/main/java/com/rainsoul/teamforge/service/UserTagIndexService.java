@@ -0,0 +1,116 @@
+package com.rainsoul.teamforge.service;
+
+import com.rainsoul.teamforge.match.UserTagSnapshot;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+/**
+ * 用户标签倒排索引服务，维护 标签id -> 用户id 位图 的内存索引，
+ * 以及每个用户升序排列的标签id数组。
+ */
+public interface UserTagIndexService {
+
+    /**
+     * 从用户表全量重建索引。
+     */
+    void rebuild();
+
+    /**
+     * 索引是否已构建完成。
+     *
+     * @return 构建完成返回true，否则返回false。
+     */
+    boolean isReady();
+
+    /**
+     * 用户标签写入时同步更新索引。
+     *
+     * @param userId 用户id。
+     * @param tagIds 升序去重的新标签id数组。
+     */
+    void updateUserTags(long userId, int[] tagIds);
+
+    /**
+     * 从用户表读取上次同步以来修改过的用户，把标签变化应用到索引中，
+     * 用于同步其他节点写入的标签。
+     *
+     * @return 标签发生变化的用户id。
+     */
+    List<Long> syncUpdatedUsers();
+
+    /**
+     * 获取用户的标签id数组。
+     *
+     * @param userId 用户id。
+     * @return 升序的标签id数组，用户没有标签时返回空数组。调用方不得修改返回的数组。
+     */
+    int[] getUserTagIds(long userId);
+
+    /**
+     * 查询同时拥有所有指定标签的用户id。
+     *
+     * @param tagIds 标签id数组。
+     * @return 用户id位图（副本），没有匹配时返回空位图。
+     */
+    RoaringBitmap searchUserIds(int[] tagIds);
+
+    /**
+     * 通过 MinHash LSH 召回标签集合与给定标签相似的用户，作为匹配的候选集。
+     *
+     * @param tagIds 升序去重的标签id数组。
+     * @return 候选用户id位图（新对象），可能包含查询用户自己；没有候选时返回空位图。
+     */
+    RoaringBitmap searchSimilarUserIds(int[] tagIds);
+
+    /**
+     * 统计每个标签的用户数（文档频率）。
+     *
+     * @return 下标为标签id、值为拥有该标签的用户数的数组。
+     */
+    int[] countUsersByTag();
+
+    /**
+     * 获取索引中有标签的用户数。
+     *
+     * @return 用户数。
+     */
+    int getUserCount();
+
+    /**
+     * 遍历索引中所有有标签的用户。
+     *
+     * @param consumer 用户标签处理器，不得修改传入的标签id数组。
+     */
+    void forEachUser(UserTagIdsConsumer consumer);
+
+    /**
+     * 获取索引中所有有标签用户的数组快照，索引未更新时重复调用返回同一个快照。
+     *
+     * @return 只读快照。
+     */
+    UserTagSnapshot snapshot();
+
+    /**
+     * 获取指定用户的标签快照，通常用于 LSH 召回的候选用户。
+     *
+     * @param userIds 用户id位图。
+     * @return 只读快照，不在索引中的用户标签为空数组。
+     */
+    UserTagSnapshot snapshot(RoaringBitmap userIds);
+
+    /**
+     * 用户标签id数组处理器
+     */
+    @FunctionalInterface
+    interface UserTagIdsConsumer {
+
+        /**
+         * 处理一个用户的标签。
+         *
+         * @param userId 用户id。
+         * @param tagIds 升序的标签id数组。
+         */
+        void accept(long userId, int[] tagIds);
+    }
+}
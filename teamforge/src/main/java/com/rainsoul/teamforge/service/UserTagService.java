@@ -0,0 +1,39 @@
+package com.rainsoul.teamforge.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.rainsoul.teamforge.model.domain.UserTag;
+
+import java.util.List;
+
+/**
+ * 用户标签关系服务
+ */
+public interface UserTagService extends IService<UserTag> {
+
+    /**
+     * 查询同时拥有所有指定标签的用户id。
+     *
+     * @param tagIds 升序去重的标签id数组。
+     * @return 用户id列表。
+     */
+    List<Long> listUserIdsByTagIds(int[] tagIds);
+
+    /**
+     * 按用户id升序分页查询同时拥有所有指定标签的用户id。
+     *
+     * @param tagIds 升序去重的标签id数组。
+     * @param lastId 只查询 id 大于该值的用户。
+     * @param limit  最多返回的用户数。
+     * @return 用户id列表。
+     */
+    List<Long> listUserIdsByTagIds(int[] tagIds, long lastId, int limit);
+
+    /**
+     * 将用户的标签关系同步为指定的标签id集合。
+     * 需要在更新或锁定用户行的事务中调用，同一用户的写入按行锁串行，不会交错。
+     *
+     * @param userId 用户id。
+     * @param tagIds 升序去重的标签id数组。
+     */
+    void syncUserTags(long userId, int[] tagIds);
+}
@@ -3,6 +3,10 @@ package com.rainsoul.teamforge.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.rainsoul.teamforge.model.domain.UserTeam;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * 用户队伍服务
  *
@@ -11,4 +15,20 @@ import com.rainsoul.teamforge.model.domain.UserTeam;
  */
 public interface UserTeamService extends IService<UserTeam> {
 
+    /**
+     * 批量统计队伍的已加入人数。
+     *
+     * @param teamIds 队伍id列表
+     * @return 队伍id -> 已加入人数，没有成员的队伍不在结果中
+     */
+    Map<Long, Integer> countMembersByTeamIds(Collection<Long> teamIds);
+
+    /**
+     * 批量判断用户加入了哪些队伍。
+     *
+     * @param userId  用户id
+     * @param teamIds 队伍id列表，为null时返回用户加入的所有队伍
+     * @return 已加入的队伍id集合
+     */
+    Set<Long> listJoinedTeamIds(long userId, Collection<Long> teamIds);
 }
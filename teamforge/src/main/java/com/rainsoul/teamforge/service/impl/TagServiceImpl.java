@@ -0,0 +1,213 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.rainsoul.teamforge.common.ErrorCode;
+import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.mapper.TagMapper;
+import com.rainsoul.teamforge.model.domain.Tag;
+import com.rainsoul.teamforge.service.TagService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签服务实现类
+ * <p>
+ * 以标签表为准，在内存中维护 标签名称 <-> 标签id 的双向字典，
+ * 用户标签以升序的 int[] 表示，请求路径上无需再解析 json。
+ * 多实例部署时其他节点新建的标签不在本地字典中，未命中时按名称或id查询标签表并放入字典。
+ * </p>
+ */
+@Service
+@Slf4j
+public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagService {
+
+    private static final Gson GSON = new Gson();
+
+    private static final Type TAG_LIST_TYPE = new TypeToken<List<String>>() {
+    }.getType();
+
+    private static final int[] EMPTY_TAG_IDS = new int[0];
+
+    /**
+     * 标签名称 -> 标签id
+     */
+    private final Map<String, Integer> tagIdMap = new ConcurrentHashMap<>();
+
+    /**
+     * 标签id -> 标签名称
+     */
+    private final Map<Integer, String> tagNameMap = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时加载标签表
+     */
+    @PostConstruct
+    public void loadTags() {
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName");
+        List<Tag> tagList = this.list(queryWrapper);
+        tagList.forEach(this::putTag);
+        log.info("tag dictionary loaded, tags: {}", tagIdMap.size());
+    }
+
+    @Override
+    public int getTagId(String tagName) {
+        if (StringUtils.isBlank(tagName)) {
+            return -1;
+        }
+        Integer tagId = tagIdMap.get(tagName);
+        if (tagId != null) {
+            return tagId;
+        }
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName").eq("tagName", tagName);
+        Tag tag = this.getOne(queryWrapper);
+        return tag == null ? -1 : putTag(tag);
+    }
+
+    @Override
+    public int internTag(String tagName) {
+        if (StringUtils.isBlank(tagName) || tagName.length() > 256) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "标签名称不合法");
+        }
+        Integer tagId = tagIdMap.get(tagName);
+        if (tagId != null) {
+            return tagId;
+        }
+        // 标签表中 tagName 唯一，并发写入时以先写入的为准
+        Tag tag = new Tag();
+        tag.setTagName(tagName);
+        tag.setIsParent(0);
+        try {
+            this.save(tag);
+        } catch (DuplicateKeyException e) {
+            QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "tagName").eq("tagName", tagName);
+            tag = this.getOne(queryWrapper);
+            if (tag == null) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "标签写入失败");
+            }
+        }
+        return putTag(tag);
+    }
+
+    @Override
+    public String getTagName(int tagId) {
+        String tagName = tagNameMap.get(tagId);
+        if (tagName != null || tagId < 0) {
+            return tagName;
+        }
+        QueryWrapper<Tag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "tagName").eq("id", tagId);
+        Tag tag = this.getOne(queryWrapper);
+        if (tag == null) {
+            return null;
+        }
+        putTag(tag);
+        return tag.getTagName();
+    }
+
+    @Override
+    public int[] getTagIds(Collection<String> tagNames) {
+        if (tagNames == null || tagNames.isEmpty()) {
+            return EMPTY_TAG_IDS;
+        }
+        int[] tagIds = new int[tagNames.size()];
+        int size = 0;
+        for (String tagName : tagNames) {
+            int tagId = getTagId(tagName);
+            if (tagId < 0) {
+                return null;
+            }
+            tagIds[size++] = tagId;
+        }
+        return sortDistinct(tagIds, size);
+    }
+
+    @Override
+    public int[] parseTagIds(String tags, boolean intern) {
+        List<String> tagNameList = parseTagNames(tags);
+        if (tagNameList.isEmpty()) {
+            return EMPTY_TAG_IDS;
+        }
+        int[] tagIds = new int[tagNameList.size()];
+        int size = 0;
+        for (String tagName : tagNameList) {
+            if (StringUtils.isBlank(tagName)) {
+                continue;
+            }
+            int tagId = intern ? internTag(tagName) : getTagId(tagName);
+            if (tagId >= 0) {
+                tagIds[size++] = tagId;
+            }
+        }
+        return sortDistinct(tagIds, size);
+    }
+
+    @Override
+    public List<String> parseTagNames(String tags) {
+        if (StringUtils.isBlank(tags)) {
+            return Collections.emptyList();
+        }
+        try {
+            List<String> tagNameList = GSON.fromJson(tags, TAG_LIST_TYPE);
+            return tagNameList == null ? Collections.emptyList() : tagNameList;
+        } catch (JsonSyntaxException e) {
+            log.warn("invalid user tags json: {}", tags);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 将标签放入字典。
+     *
+     * @param tag 标签。
+     * @return 标签id。
+     */
+    private int putTag(Tag tag) {
+        long id = tag.getId();
+        if (id > Integer.MAX_VALUE) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "标签id超出范围");
+        }
+        int tagId = (int) id;
+        tagIdMap.put(tag.getTagName(), tagId);
+        tagNameMap.put(tagId, tag.getTagName());
+        return tagId;
+    }
+
+    /**
+     * 对数组前 size 个元素升序排序并去重。
+     *
+     * @param tagIds 标签id数组。
+     * @param size   有效元素个数。
+     * @return 升序去重后的新数组。
+     */
+    private static int[] sortDistinct(int[] tagIds, int size) {
+        if (size == 0) {
+            return EMPTY_TAG_IDS;
+        }
+        Arrays.sort(tagIds, 0, size);
+        int distinct = 1;
+        for (int i = 1; i < size; i++) {
+            if (tagIds[i] != tagIds[distinct - 1]) {
+                tagIds[distinct++] = tagIds[i];
+            }
+        }
+        return Arrays.copyOf(tagIds, distinct);
+    }
+}
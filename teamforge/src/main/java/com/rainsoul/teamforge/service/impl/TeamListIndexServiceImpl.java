@@ -0,0 +1,282 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.mapper.UserTeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.dto.TeamChecksum;
+import com.rainsoul.teamforge.model.dto.TeamQuery;
+import com.rainsoul.teamforge.model.enums.TeamStatusEnum;
+import com.rainsoul.teamforge.model.vo.TeamUserVO;
+import com.rainsoul.teamforge.model.vo.UserVO;
+import com.rainsoul.teamforge.service.TeamListIndexService;
+import com.rainsoul.teamforge.service.UserService;
+import com.rainsoul.teamforge.utils.OpenTeamIndex;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StopWatch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 开放队伍列表索引服务实现类
+ * <p>
+ * 队伍浏览页查询的都是公开和加密队伍，数据量小、读多写少，全部放在 {@link OpenTeamIndex} 中，
+ * 连同成员id一起保存，已加入人数和当前用户是否已加入都不需要查询数据库，创建人信息读取用户缓存。
+ * </p>
+ * <p>
+ * 队伍的每次修改（创建、修改、加入、退出、解散、过期）都调用 {@link #refresh}，从数据库重新读取该队伍，
+ * 同一个队伍的刷新按分段锁串行，最后一次刷新读到的一定是最新提交的数据。
+ * 重建期间被刷新的队伍在新索引生效后再刷新一次，不会被重建时读到的旧数据覆盖。
+ * 漏掉的修改（如直接修改数据库）由定时校验发现后重建。
+ * </p>
+ */
+@Service
+@Slf4j
+public class TeamListIndexServiceImpl implements TeamListIndexService {
+
+    /**
+     * 索引中的队伍状态
+     */
+    private static final List<Integer> INDEXED_STATUS_LIST =
+            List.of(TeamStatusEnum.PUBLIC.getCode(), TeamStatusEnum.SECRET.getCode());
+
+    /**
+     * 刷新使用的锁分段数
+     */
+    private static final int LOCK_STRIPES = 256;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private UserTeamMapper userTeamMapper;
+
+    @Resource
+    private UserService userService;
+
+    /**
+     * 重建时每批读取的队伍数
+     */
+    @Value("${teamforge.team.list-index.batch-size:1000}")
+    private int batchSize;
+
+    private volatile OpenTeamIndex index = new OpenTeamIndex();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 重建期间被刷新的队伍，不在重建时为null
+     */
+    private volatile Set<Long> rebuildingDirtyIds;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public TeamListIndexServiceImpl() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 应用启动完成后构建索引，构建期间查询走数据库。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+        rebuildingDirtyIds = dirtyIds;
+        try {
+            OpenTeamIndex newIndex = new OpenTeamIndex();
+            long lastId = 0;
+            while (true) {
+                QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "name", "description", "maxNum", "memberCount", "expireTime", "userId",
+                                "status", "createTime", "updateTime")
+                        .in("status", INDEXED_STATUS_LIST)
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("limit " + batchSize);
+                List<Team> teamList = teamMapper.selectList(queryWrapper);
+                if (teamList.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> memberIdMap = listMemberIds(teamList.stream().map(Team::getId).toList());
+                for (Team team : teamList) {
+                    newIndex.put(team, memberIdMap.getOrDefault(team.getId(), List.of()));
+                }
+                lastId = teamList.get(teamList.size() - 1).getId();
+            }
+            index = newIndex;
+            ready = true;
+            // 重建期间修改过的队伍可能读到的是旧数据，在新索引上重新刷新
+            dirtyIds.forEach(this::doRefresh);
+            stopWatch.stop();
+            log.info("team list index rebuilt, teams: {}, cost: {} ms", newIndex.size(), stopWatch.getTotalTimeMillis());
+        } finally {
+            rebuildingDirtyIds = null;
+        }
+    }
+
+    @Override
+    public boolean canServe(TeamQuery teamQuery, List<Integer> statusList) {
+        return ready
+                && statusList != null
+                && INDEXED_STATUS_LIST.containsAll(statusList)
+                && StringUtils.isBlank(teamQuery.getSearchText())
+                && (teamQuery.getId() == null || teamQuery.getId() <= 0)
+                && teamQuery.getIdList() == null;
+    }
+
+    @Override
+    public List<TeamUserVO> listTeams(TeamQuery teamQuery, List<Integer> statusList, Long loginUserId) {
+        return listTeams(teamQuery, statusList, loginUserId, null, 0);
+    }
+
+    @Override
+    public List<TeamUserVO> listTeams(TeamQuery teamQuery, List<Integer> statusList, Long loginUserId,
+                                      OpenTeamIndex.Key after, int limit) {
+        List<OpenTeamIndex.IndexedTeam> indexedTeamList = index.query(getUserId(teamQuery), statusList,
+                toFilter(teamQuery), after, limit);
+        // 同一个创建人只读取一次缓存
+        Map<Long, UserVO> createUserMap = new HashMap<>();
+        List<TeamUserVO> teamUserVOList = new ArrayList<>(indexedTeamList.size());
+        for (OpenTeamIndex.IndexedTeam indexedTeam : indexedTeamList) {
+            Team team = indexedTeam.team();
+            TeamUserVO teamUserVO = new TeamUserVO();
+            BeanUtils.copyProperties(team, teamUserVO);
+            teamUserVO.setHasJoinNum(team.getMemberCount());
+            teamUserVO.setHasJoin(loginUserId != null && indexedTeam.memberIds().contains(loginUserId));
+            if (team.getUserId() != null) {
+                teamUserVO.setCreateUser(createUserMap.computeIfAbsent(team.getUserId(), this::getCreateUser));
+            }
+            teamUserVOList.add(teamUserVO);
+        }
+        return teamUserVOList;
+    }
+
+    @Override
+    public long countTeams(TeamQuery teamQuery, List<Integer> statusList) {
+        return index.query(getUserId(teamQuery), statusList, toFilter(teamQuery), null, 0).size();
+    }
+
+    @Override
+    public void refresh(long teamId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRefresh(teamId);
+                }
+            });
+        } else {
+            doRefresh(teamId);
+        }
+    }
+
+    @Override
+    public boolean checkConsistency() {
+        OpenTeamIndex currentIndex = index;
+        TeamChecksum teamChecksum = teamMapper.selectChecksum(INDEXED_STATUS_LIST);
+        long teamCount = teamChecksum.getTeamCount() == null ? 0 : teamChecksum.getTeamCount();
+        long checksum = teamChecksum.getChecksum() == null ? 0 : teamChecksum.getChecksum();
+        boolean consistent = teamCount == currentIndex.size() && checksum == currentIndex.checksum();
+        if (!consistent) {
+            log.warn("team list index checksum mismatch, db: {}/{}, index: {}/{}",
+                    teamCount, checksum, currentIndex.size(), currentIndex.checksum());
+        }
+        return consistent;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 刷新失败只记录日志，不影响已提交的业务操作，偏差由定时校验修复。
+     */
+    private void doRefresh(long teamId) {
+        synchronized (locks[(int) Math.floorMod(teamId, (long) LOCK_STRIPES)]) {
+            // 先取索引再读数据库：重建生效前开始的刷新只会写入旧索引
+            OpenTeamIndex currentIndex = index;
+            Set<Long> dirtyIds = rebuildingDirtyIds;
+            if (dirtyIds != null) {
+                dirtyIds.add(teamId);
+            }
+            try {
+                Team team = teamMapper.selectById(teamId);
+                if (team == null || !INDEXED_STATUS_LIST.contains(team.getStatus())) {
+                    currentIndex.remove(teamId);
+                    return;
+                }
+                team.setPassword(null);
+                currentIndex.put(team, listMemberIds(List.of(teamId)).getOrDefault(teamId, List.of()));
+            } catch (RuntimeException e) {
+                log.error("refresh team list index error, teamId: {}", teamId, e);
+            }
+        }
+    }
+
+    /**
+     * 查询队伍的成员id。
+     *
+     * @param teamIdList 队伍id
+     * @return 队伍id -> 成员id
+     */
+    private Map<Long, List<Long>> listMemberIds(List<Long> teamIdList) {
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("teamId", "userId").in("teamId", teamIdList);
+        Map<Long, List<Long>> memberIdMap = new HashMap<>();
+        for (UserTeam userTeam : userTeamMapper.selectList(queryWrapper)) {
+            memberIdMap.computeIfAbsent(userTeam.getTeamId(), k -> new ArrayList<>()).add(userTeam.getUserId());
+        }
+        return memberIdMap;
+    }
+
+    private static Long getUserId(TeamQuery teamQuery) {
+        return teamQuery.getUserId() != null && teamQuery.getUserId() > 0 ? teamQuery.getUserId() : null;
+    }
+
+    /**
+     * 与 TeamMapper.listTeamUserVO 相同的过滤条件，另外过滤掉已过期但还未被解散的队伍。
+     */
+    private Predicate<Team> toFilter(TeamQuery teamQuery) {
+        Date now = new Date();
+        String name = teamQuery.getName();
+        String description = teamQuery.getDescription();
+        Integer maxNum = teamQuery.getMaxNum();
+        return team -> (team.getExpireTime() == null || team.getExpireTime().after(now))
+                && (StringUtils.isEmpty(name) || StringUtils.containsIgnoreCase(team.getName(), name))
+                && (StringUtils.isEmpty(description) || StringUtils.containsIgnoreCase(team.getDescription(), description))
+                && (maxNum == null || maxNum <= 0 || maxNum.equals(team.getMaxNum()));
+    }
+
+    private UserVO getCreateUser(long userId) {
+        User user = userService.getSafetyUserById(userId);
+        if (user == null) {
+            return null;
+        }
+        UserVO userVO = new UserVO();
+        BeanUtils.copyProperties(user, userVO);
+        return userVO;
+    }
+}
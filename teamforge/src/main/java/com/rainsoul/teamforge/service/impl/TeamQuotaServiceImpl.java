@@ -0,0 +1,153 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.TeamQuotaService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rainsoul.teamforge.constant.UserConstant.*;
+
+/**
+ * 用户创建队伍数配额服务实现类
+ * <p>
+ * 每个用户作为队长的队伍数缓存在有界的本地缓存中，未命中时按 team.userId 索引统计。
+ * 占用名额是对计数的比较并交换，同一个用户并发创建时只有未超过上限的请求能占用成功；
+ * 调用方还需在用户锁内提交事务，保证释放锁时计数和数据库一致。
+ * 计数过期后重新统计，直接修改数据库等遗漏的变化也会自动修正。
+ * </p>
+ * <p>
+ * 多实例部署（lock-mode=redisson）时各实例的缓存互不可见，不使用缓存，
+ * 每次都在分布式用户锁内从数据库统计。
+ * </p>
+ */
+@Service
+public class TeamQuotaServiceImpl implements TeamQuotaService {
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    /**
+     * 普通用户最多创建的队伍数
+     */
+    @Value("${teamforge.team.quota.default-create-limit:" + DEFAULT_MAX_CREATE_TEAM_NUM + "}")
+    private int defaultCreateLimit;
+
+    /**
+     * 管理员最多创建的队伍数
+     */
+    @Value("${teamforge.team.quota.admin-create-limit:" + ADMIN_MAX_CREATE_TEAM_NUM + "}")
+    private int adminCreateLimit;
+
+    /**
+     * 最多缓存的用户数
+     */
+    @Value("${teamforge.team.quota.cache-size:10000}")
+    private long cacheSize;
+
+    /**
+     * 计数的有效期（分钟）
+     */
+    @Value("${teamforge.team.quota.expire-minutes:30}")
+    private long expireMinutes;
+
+    @Value("${teamforge.team.lock-mode:local}")
+    private String lockMode;
+
+    /**
+     * 用户id -> 作为队长的队伍数，为null时不使用缓存
+     */
+    private Cache<Long, AtomicInteger> createCountCache;
+
+    @PostConstruct
+    public void init() {
+        if ("redisson".equals(lockMode)) {
+            return;
+        }
+        createCountCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build();
+    }
+
+    @Override
+    public int getCreateLimit(User user) {
+        return user != null && user.getUserRole() != null && user.getUserRole() == ADMIN_ROLE
+                ? adminCreateLimit : defaultCreateLimit;
+    }
+
+    @Override
+    public boolean tryAcquire(long userId, int limit) {
+        if (createCountCache == null) {
+            return countCreatedTeams(userId) < limit;
+        }
+        AtomicInteger createCount = createCountCache.get(userId, id -> new AtomicInteger(countCreatedTeams(id)));
+        while (true) {
+            int count = createCount.get();
+            if (count >= limit) {
+                return false;
+            }
+            if (createCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long userId) {
+        if (createCountCache == null) {
+            return;
+        }
+        afterCommit(() -> {
+            AtomicInteger createCount = createCountCache.getIfPresent(userId);
+            if (createCount != null) {
+                createCount.updateAndGet(count -> Math.max(0, count - 1));
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(long userId) {
+        if (createCountCache == null) {
+            return;
+        }
+        afterCommit(() -> createCountCache.invalidate(userId));
+    }
+
+    /**
+     * 统计用户作为队长的未删除队伍数，使用 team.userId 索引。
+     */
+    private int countCreatedTeams(long userId) {
+        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", userId);
+        Long count = teamMapper.selectCount(queryWrapper);
+        return count == null ? 0 : count.intValue();
+    }
+
+    /**
+     * 有事务时在提交后执行，回滚时不执行；没有事务时立即执行。
+     */
+    private static void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+}
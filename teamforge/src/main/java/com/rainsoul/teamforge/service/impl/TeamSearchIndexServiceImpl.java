@@ -0,0 +1,193 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.service.TeamSearchIndexService;
+import com.rainsoul.teamforge.utils.Bm25Index;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StopWatch;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 队伍全文搜索索引服务实现类
+ * <p>
+ * 队伍名称和描述大多是中文，按字符二元组切分后建立 BM25 倒排索引，
+ * 搜索时不再对队伍表做 LIKE '%x%' 全表扫描，结果按相关度排序。
+ * 索引只负责召回队伍id，过期、删除、状态等条件仍由数据库查询过滤，索引中残留的旧数据不会被返回。
+ * </p>
+ * <p>
+ * 本节点的写入直接更新索引；其他节点的写入和重建期间丢失的更新由 {@link #syncUpdatedTeams()}
+ * 按队伍表的 updateTime 增量同步，同步起点回退一段重叠时间，修改时间早于提交时间的事务也不会漏掉。
+ * </p>
+ */
+@Service
+@Slf4j
+public class TeamSearchIndexServiceImpl implements TeamSearchIndexService {
+
+    /**
+     * 重建索引时每批读取的队伍数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 增量同步时每批读取的队伍数
+     */
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    /**
+     * 名称中的词计入的次数
+     */
+    @Value("${teamforge.team.search-name-boost:3}")
+    private int nameBoost;
+
+    private Bm25Index index;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 已同步到的队伍修改时间，下次同步从这里回退重叠时间开始读取
+     */
+    private volatile Date syncedUpdateTime;
+
+    /**
+     * 增量同步的重叠时间（秒），应大于写入队伍的事务从修改到提交的最长时间
+     */
+    @Value("${teamforge.team.search-index-sync-overlap-seconds:60}")
+    private long syncOverlapSeconds;
+
+    /**
+     * 应用启动完成后构建索引，构建期间搜索走数据库。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 与 {@link #syncUpdatedTeams()} 互斥执行。
+     */
+    @Override
+    public synchronized void rebuild() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        // 扫描开始前的修改时间作为增量同步的起点，扫描期间的修改会在下次同步时补上
+        Date newSyncedUpdateTime = Optional.ofNullable(teamMapper.selectMaxUpdateTime()).orElse(new Date(0));
+        Bm25Index newIndex = new Bm25Index(nameBoost);
+        long lastId = 0;
+        while (true) {
+            // 按主键分批读取，只取需要索引的列
+            QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("id", "name", "description")
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("limit " + REBUILD_BATCH_SIZE);
+            List<Team> teamList = teamMapper.selectList(queryWrapper);
+            if (teamList.isEmpty()) {
+                break;
+            }
+            for (Team team : teamList) {
+                newIndex.put(team.getId(), team.getName(), team.getDescription());
+            }
+            lastId = teamList.get(teamList.size() - 1).getId();
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = newIndex;
+            syncedUpdateTime = newSyncedUpdateTime;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        stopWatch.stop();
+        log.info("team search index rebuilt, teams: {}, cost: {} ms", newIndex.size(), stopWatch.getTotalTimeMillis());
+    }
+
+    @Override
+    public boolean canSearch(String searchText) {
+        return ready && Bm25Index.isSearchable(searchText);
+    }
+
+    @Override
+    public void updateTeam(long teamId, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.put(teamId, name, description);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeTeam(long teamId) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.remove(teamId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized int syncUpdatedTeams() {
+        if (!ready || syncedUpdateTime == null) {
+            return 0;
+        }
+        Date maxUpdateTime = syncedUpdateTime;
+        Date afterTime = new Date(maxUpdateTime.getTime() - TimeUnit.SECONDS.toMillis(syncOverlapSeconds));
+        long afterId = 0;
+        int syncCount = 0;
+        while (true) {
+            List<Team> teamList = teamMapper.selectUpdatedAfter(afterTime, afterId, SYNC_BATCH_SIZE);
+            if (teamList.isEmpty()) {
+                break;
+            }
+            for (Team team : teamList) {
+                if (Integer.valueOf(1).equals(team.getIsDelete())) {
+                    removeTeam(team.getId());
+                } else {
+                    updateTeam(team.getId(), team.getName(), team.getDescription());
+                }
+            }
+            syncCount += teamList.size();
+            Team lastTeam = teamList.get(teamList.size() - 1);
+            afterTime = lastTeam.getUpdateTime();
+            afterId = lastTeam.getId();
+            if (afterTime.after(maxUpdateTime)) {
+                maxUpdateTime = afterTime;
+            }
+        }
+        syncedUpdateTime = maxUpdateTime;
+        return syncCount;
+    }
+
+    @Override
+    public List<Long> search(String searchText, int limit) {
+        lock.readLock().lock();
+        try {
+            return index == null ? List.of() : index.search(searchText, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.rainsoul.teamforge.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.rainsoul.teamforge.cache.RefreshAheadCache;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.common.ErrorCode;
 import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.expire.TeamExpiryScheduler;
+import com.rainsoul.teamforge.join.TeamJoinPipeline;
+import com.rainsoul.teamforge.lock.TeamLock;
 import com.rainsoul.teamforge.mapper.TeamMapper;
 import com.rainsoul.teamforge.model.domain.Team;
 import com.rainsoul.teamforge.model.domain.User;
@@ -14,15 +19,30 @@ import com.rainsoul.teamforge.model.request.TeamJoinRequest;
 import com.rainsoul.teamforge.model.request.TeamQuitRequest;
 import com.rainsoul.teamforge.model.request.TeamUpdateRequest;
 import com.rainsoul.teamforge.model.vo.TeamUserVO;
+import com.rainsoul.teamforge.service.TeamListIndexService;
+import com.rainsoul.teamforge.service.TeamQuotaService;
+import com.rainsoul.teamforge.service.TeamSearchIndexService;
 import com.rainsoul.teamforge.service.TeamService;
 import com.rainsoul.teamforge.service.UserService;
 import com.rainsoul.teamforge.service.UserTeamService;
+import com.rainsoul.teamforge.utils.OpenTeamIndex;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executor;
+
+import static com.rainsoul.teamforge.constant.CacheConstant.TEAM_CACHE;
+import static com.rainsoul.teamforge.constant.UserConstant.MAX_JOIN_TEAM_NUM;
 
 @Service
 public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements TeamService {
@@ -33,9 +53,80 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
     @Resource
     private UserService userService;
 
+    @Resource
+    private TeamLock teamLock;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private TeamJoinPipeline teamJoinPipeline;
+
+    @Resource
+    private TeamSearchIndexService teamSearchIndexService;
+
+    @Resource
+    private TeamExpiryScheduler teamExpiryScheduler;
+
+    @Resource
+    private TeamListIndexService teamListIndexService;
+
+    @Resource
+    private TeamQuotaService teamQuotaService;
+
+    /**
+     * 全文搜索最多召回的队伍数
+     */
+    @Value("${teamforge.team.search-max-results:1000}")
+    private int searchMaxResults;
+
+    @Resource
+    private Executor cacheRefreshExecutor;
+
+    /**
+     * 游标分页总数缓存的新鲜期（秒）
+     */
+    @Value("${teamforge.team.total-fresh-seconds:30}")
+    private long totalFreshSeconds;
+
+    /**
+     * 游标分页总数过了新鲜期后仍可返回旧值的时长（秒）
+     */
+    @Value("${teamforge.team.total-stale-seconds:300}")
+    private long totalStaleSeconds;
+
+    /**
+     * 查询条件 -> 队伍总数
+     */
+    private RefreshAheadCache<String, Long> teamTotalCache;
+
+    /**
+     * 游标分页每页最多的队伍数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 总数缓存的最大条数
+     */
+    private static final int TEAM_TOTAL_CACHE_SIZE = 1000;
+
+    @PostConstruct
+    public void initTeamTotalCache() {
+        teamTotalCache = new RefreshAheadCache<>(TEAM_TOTAL_CACHE_SIZE, Duration.ofSeconds(totalFreshSeconds),
+                Duration.ofSeconds(totalStaleSeconds), 1.0, cacheRefreshExecutor);
+    }
+
+    /**
+     * 是否通过批量流水线加入队伍，适合热门队伍集中报名的场景
+     */
+    @Value("${teamforge.team.join-pipeline.enabled:false}")
+    private boolean joinPipelineEnabled;
 
     /**
      * 添加队伍
+     * <p>
+     * 创建数量的校验和插入在用户锁内执行，事务在锁内提交，同一个用户并发创建时不会超过上限。
+     * </p>
      *
      * @param team      需要添加的队伍对象，包含队伍的各种信息
      * @param loginUser 当前登录的用户，用于标识谁创建了队伍
@@ -80,16 +171,34 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if (new Date().after(expireTime)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已过期");
         }
-        // 8. 校验用户创建队伍的数量是否超过限制
-        QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("userId", userId);
-        long hasTeamNum = this.count(queryWrapper);
-        if (hasTeamNum >= 5) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户最多创建 5 个队伍");
-        }
-        // 9. 插入队伍信息
+        // 8. 校验用户创建队伍的数量是否超过限制，占用名额后在事务中插入
+        int createLimit = teamQuotaService.getCreateLimit(loginUser);
+        Long teamId = teamLock.executeWithUserLock(userId, () -> {
+            if (!teamQuotaService.tryAcquire(userId, createLimit)) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户最多创建 " + createLimit + " 个队伍");
+            }
+            try {
+                return transactionTemplate.execute(status -> doAddTeam(team, userId));
+            } catch (RuntimeException e) {
+                teamQuotaService.release(userId);
+                throw e;
+            }
+        });
+        return teamId == null ? 0 : teamId;
+    }
+
+    /**
+     * 在锁和事务内插入队伍和创建人的成员关系。
+     *
+     * @param team   队伍
+     * @param userId 创建人id
+     * @return 队伍id
+     */
+    private Long doAddTeam(Team team, long userId) {
+        // 9. 插入队伍信息，创建人是第一个成员
         team.setId(null);
         team.setUserId(userId);
+        team.setMemberCount(1);
         boolean result = this.save(team);
         Long teamId = team.getId();
         if (!result || teamId == null) {
@@ -104,15 +213,143 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         if (!result) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "创建队伍失败");
         }
+        teamSearchIndexService.updateTeam(teamId, team.getName(), team.getDescription());
+        teamExpiryScheduler.register(teamId, team.getExpireTime());
+        teamListIndexService.refresh(teamId);
         return teamId;
     }
 
+    /**
+     * 根据id获取队伍，结果会被缓存，队伍更新或删除时清除。
+     * 服务内部调用 getById 不经过代理，读取的是数据库中的最新数据。
+     * 缓存会写入 Redis，返回的队伍不包含密码，校验密码时直接读取数据库。
+     *
+     * @param id 队伍id。
+     * @return 队伍，不存在时返回null。
+     */
+    @Override
+    @Cacheable(cacheNames = TEAM_CACHE, key = "#id", unless = "#result == null")
+    public Team getById(Serializable id) {
+        Team team = super.getById(id);
+        if (team != null) {
+            team.setPassword(null);
+        }
+        return team;
+    }
+
+    /**
+     * 搜索未过期的队伍，创建人信息、已加入人数和当前用户是否已加入在一条 SQL 中查出。
+     * <p>
+     * 指定状态时只查询该状态，普通用户不能查询私有队伍；
+     * 未指定状态时管理员查询所有队伍，普通用户查询公开和加密队伍。
+     * 指定搜索关键词时先从全文索引按相关度召回候选队伍，再由数据库过滤其他条件，结果按相关度排序；
+     * 索引未就绪或关键词无法切分（如单个汉字）时退回数据库模糊匹配。
+     * 只查询公开和加密队伍、不按关键词和id查询时（即队伍浏览页）由内存中的开放队伍索引返回，不访问数据库。
+     * </p>
+     *
+     * @param teamQuery 搜索条件
+     * @param isAdmin   是否是管理员搜索
+     * @param loginUser 当前登录用户，未登录时为null
+     * @return 符合条件的队伍列表
+     * @throws BusinessException 如果参数错误，或普通用户查询私有队伍时抛出
+     */
     @Override
-    public List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin) {
-        return List.of();
+    public List<TeamUserVO> listTeams(TeamQuery teamQuery, boolean isAdmin, User loginUser) {
+        if (teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        // 指定了空的id列表（如没有加入任何队伍）时没有结果，不能当作不限制
+        List<Long> idList = teamQuery.getIdList();
+        if (idList != null && idList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> statusList = getStatusList(teamQuery, isAdmin);
+        Long loginUserId = loginUser == null ? null : loginUser.getId();
+        if (teamListIndexService.canServe(teamQuery, statusList)) {
+            return teamListIndexService.listTeams(teamQuery, statusList, loginUserId);
+        }
+        List<Long> searchIdList = getSearchIdList(teamQuery);
+        if (searchIdList == null) {
+            return baseMapper.listTeamUserVO(teamQuery, statusList, loginUserId, null);
+        }
+        if (searchIdList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<TeamUserVO> teamUserVOList = baseMapper.listTeamUserVO(teamQuery, statusList, loginUserId, searchIdList);
+        // 按索引返回的相关度顺序排列
+        Map<Long, Integer> rankMap = new HashMap<>();
+        for (int i = 0; i < searchIdList.size(); i++) {
+            rankMap.put(searchIdList.get(i), i);
+        }
+        teamUserVOList.sort(Comparator.comparingInt(teamUserVO -> rankMap.get(teamUserVO.getId())));
+        return teamUserVOList;
     }
 
+    /**
+     * 游标分页搜索队伍，条件与 {@link #listTeams} 相同，按创建时间倒序、id倒序排列。
+     * <p>
+     * 以上一页最后一个队伍的 (createTime, id) 为起点向后查找，不使用 offset，也不执行 count 查询，
+     * 翻页深度不影响开销；浏览页由开放队伍索引返回，不访问数据库。
+     * 总数只在第一页返回，取自本地缓存，过期后先返回旧值再在后台刷新，是近似值。
+     * 有搜索关键词时按全文索引召回的队伍过滤，但不按相关度排序。
+     * </p>
+     *
+     * @param teamQuery 搜索条件，cursor 为上一页返回的 nextCursor，第一页不传
+     * @param isAdmin   是否是管理员搜索
+     * @param loginUser 当前登录用户，未登录时为null
+     * @return 一页队伍及下一页游标
+     * @throws BusinessException 如果参数错误、游标格式错误，或普通用户查询私有队伍时抛出
+     */
     @Override
+    public CursorPage<TeamUserVO> listTeamsByCursor(TeamQuery teamQuery, boolean isAdmin, User loginUser) {
+        if (teamQuery == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        int pageSize = teamQuery.getPageSize();
+        if (pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "分页参数错误");
+        }
+        OpenTeamIndex.Key after = parseCursor(teamQuery.getCursor());
+        CursorPage<TeamUserVO> cursorPage = new CursorPage<>();
+        List<Long> idList = teamQuery.getIdList();
+        if (idList != null && idList.isEmpty()) {
+            cursorPage.setTotal(0L);
+            return cursorPage;
+        }
+        List<Integer> statusList = getStatusList(teamQuery, isAdmin);
+        Long loginUserId = loginUser == null ? null : loginUser.getId();
+        // 多取一个用于判断是否还有下一页
+        int limit = pageSize + 1;
+        List<TeamUserVO> teamUserVOList;
+        if (teamListIndexService.canServe(teamQuery, statusList)) {
+            teamUserVOList = teamListIndexService.listTeams(teamQuery, statusList, loginUserId, after, limit);
+        } else {
+            List<Long> searchIdList = getSearchIdList(teamQuery);
+            if (searchIdList != null && searchIdList.isEmpty()) {
+                teamUserVOList = new ArrayList<>();
+            } else {
+                teamUserVOList = baseMapper.listTeamUserVOByCursor(teamQuery, statusList, loginUserId, searchIdList,
+                        after == null ? null : new Date(after.createTime()), after == null ? null : after.id(), limit);
+            }
+        }
+        boolean hasMore = teamUserVOList.size() > pageSize;
+        if (hasMore) {
+            teamUserVOList = new ArrayList<>(teamUserVOList.subList(0, pageSize));
+            TeamUserVO lastTeam = teamUserVOList.get(pageSize - 1);
+            long createTime = lastTeam.getCreateTime() == null ? 0 : lastTeam.getCreateTime().getTime();
+            cursorPage.setNextCursor(createTime + "_" + lastTeam.getId());
+        }
+        cursorPage.setRecords(teamUserVOList);
+        cursorPage.setHasMore(hasMore);
+        if (after == null) {
+            cursorPage.setTotal(teamTotalCache.get(toTotalCacheKey(teamQuery, statusList),
+                    () -> countTeams(teamQuery, statusList)));
+        }
+        return cursorPage;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = TEAM_CACHE, key = "#teamUpdateRequest.id")
     public boolean updateTeam(TeamUpdateRequest teamUpdateRequest, User loginUser) {
         if (teamUpdateRequest == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
@@ -136,27 +373,371 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, Team> implements Te
         }
         Team updateTeam = new Team();
         BeanUtils.copyProperties(teamUpdateRequest, updateTeam);
-        return this.updateById(updateTeam);
+        boolean result = this.updateById(updateTeam);
+        if (result) {
+            teamExpiryScheduler.register(id, updateTeam.getExpireTime());
+            teamListIndexService.refresh(id);
+        }
+        // 名称或描述修改后更新搜索索引
+        if (result && (updateTeam.getName() != null || updateTeam.getDescription() != null)) {
+            Team newTeam = getById(id);
+            if (newTeam != null) {
+                teamSearchIndexService.updateTeam(id, newTeam.getName(), newTeam.getDescription());
+            }
+        }
+        return result;
     }
 
+    /**
+     * 加入队伍。
+     * <p>
+     * 持有用户锁和队伍锁执行：同一队伍的加入请求串行，“是否已加入”的检查不会被并发穿透；
+     * 同一用户的请求串行，加入队伍数不会超过上限。不同队伍之间没有竞争。
+     * 先加锁再开启事务，事务提交后才释放锁，下一个请求一定能读到已提交的数据。
+     * 已加入人数通过条件更新加一，人数已满时更新 0 行，即使绕过锁也不会超员。
+     * 开启批量流水线时交给 {@link TeamJoinPipeline} 按批处理，调用方同步等待本次请求的结果。
+     * </p>
+     *
+     * @param teamJoinRequest 加入请求信息
+     * @param loginUser       登录用户信息
+     * @return 加入成功与否
+     * @throws BusinessException 如果参数错误、队伍不存在、已过期、私有、密码错误、已满或用户已加入时抛出
+     */
     @Override
+    @CacheEvict(cacheNames = TEAM_CACHE, key = "#teamJoinRequest.teamId")
     public boolean joinTeam(TeamJoinRequest teamJoinRequest, User loginUser) {
         if (teamJoinRequest == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
         Long teamId = teamJoinRequest.getTeamId();
-        //todo 1. 校验请求参数
-        return false;
+        if (teamId == null || teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        long userId = loginUser.getId();
+        Boolean result;
+        if (joinPipelineEnabled) {
+            result = teamJoinPipeline.join(teamId, userId, teamJoinRequest.getPassword());
+        } else {
+            result = teamLock.executeWithLock(userId, teamId,
+                    () -> transactionTemplate.execute(status -> doJoinTeam(teamId, teamJoinRequest.getPassword(), userId)));
+        }
+        // 事务已提交，刷新队伍列表索引中的人数和成员
+        if (Boolean.TRUE.equals(result)) {
+            teamListIndexService.refresh(teamId);
+        }
+        return Boolean.TRUE.equals(result);
     }
 
+    /**
+     * 在锁和事务内校验并加入队伍。
+     *
+     * @param teamId   队伍id
+     * @param password 加密队伍的密码
+     * @param userId   用户id
+     * @return 加入成功与否
+     */
+    private boolean doJoinTeam(long teamId, String password, long userId) {
+        Team team = getTeamById(teamId);
+        Date expireTime = team.getExpireTime();
+        if (expireTime != null && expireTime.before(new Date())) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已过期");
+        }
+        TeamStatusEnum teamStatusEnum = TeamStatusEnum.getEnumByCode(team.getStatus());
+        if (TeamStatusEnum.PRIVATE.equals(teamStatusEnum)) {
+            throw new BusinessException(ErrorCode.FORBIDDEN, "禁止加入私有队伍");
+        }
+        if (TeamStatusEnum.SECRET.equals(teamStatusEnum)) {
+            if (StringUtils.isBlank(password) || !password.equals(team.getPassword())) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "密码错误");
+            }
+        }
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.eq("userId", userId);
+        if (userTeamService.count(userTeamQueryWrapper) >= MAX_JOIN_TEAM_NUM) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "最多创建和加入 " + MAX_JOIN_TEAM_NUM + " 个队伍");
+        }
+        userTeamQueryWrapper.eq("teamId", teamId);
+        if (userTeamService.count(userTeamQueryWrapper) > 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "用户已加入该队伍");
+        }
+        if (baseMapper.incrementMemberCount(teamId) == 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍已满");
+        }
+        UserTeam userTeam = new UserTeam();
+        userTeam.setUserId(userId);
+        userTeam.setTeamId(teamId);
+        userTeam.setJoinTime(new Date());
+        return userTeamService.save(userTeam);
+    }
+
+    /**
+     * 退出队伍。
+     * <p>
+     * 最后一个成员退出时解散队伍；队长退出时队长转给最早加入的成员。
+     * 与加入队伍使用同一把用户锁和队伍锁，在锁内提交事务。
+     * </p>
+     *
+     * @param teamQuitRequest 退出请求信息
+     * @param loginUser       登录用户信息
+     * @return 退出成功与否
+     * @throws BusinessException 如果参数错误、队伍不存在或用户未加入该队伍时抛出
+     */
     @Override
+    @CacheEvict(cacheNames = TEAM_CACHE, key = "#teamQuitRequest.teamId")
     public boolean quitTeam(TeamQuitRequest teamQuitRequest, User loginUser) {
-        return false;
+        if (teamQuitRequest == null) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        Long teamId = teamQuitRequest.getTeamId();
+        if (teamId == null || teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        long userId = loginUser.getId();
+        Boolean result = teamLock.executeWithLock(userId, teamId,
+                () -> transactionTemplate.execute(status -> doQuitTeam(teamId, userId)));
+        return Boolean.TRUE.equals(result);
     }
 
+    /**
+     * 在锁和事务内退出队伍。
+     *
+     * @param teamId 队伍id
+     * @param userId 用户id
+     * @return 退出成功与否
+     */
+    private boolean doQuitTeam(long teamId, long userId) {
+        // 锁定队伍行，和批量加入、过期解散互斥
+        Team team = getTeamByIdForUpdate(teamId);
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.eq("teamId", teamId);
+        userTeamQueryWrapper.eq("userId", userId);
+        // 删除成功才减人数，重复退出时不会多减
+        if (!userTeamService.remove(userTeamQueryWrapper)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "未加入队伍");
+        }
+        baseMapper.decrementMemberCount(teamId);
+        teamListIndexService.refresh(teamId);
+        // 按人数决定是否解散：减人数时已锁定队伍行，同时加入的请求要么已计入人数，要么在提交后因队伍已删除而失败
+        if (baseMapper.removeIfEmpty(teamId) > 0) {
+            teamSearchIndexService.removeTeam(teamId);
+            if (team.getUserId() != null) {
+                teamQuotaService.release(team.getUserId());
+            }
+            return true;
+        }
+        // 查询最早加入的剩余成员
+        QueryWrapper<UserTeam> nextMemberQueryWrapper = new QueryWrapper<>();
+        nextMemberQueryWrapper.eq("teamId", teamId);
+        nextMemberQueryWrapper.orderByAsc("id");
+        nextMemberQueryWrapper.last("limit 1");
+        UserTeam nextUserTeam = userTeamService.getOne(nextMemberQueryWrapper);
+        if (nextUserTeam != null && team.getUserId() != null && team.getUserId() == userId) {
+            Team updateTeam = new Team();
+            updateTeam.setId(teamId);
+            updateTeam.setUserId(nextUserTeam.getUserId());
+            // 队长转让后两人的创建数都变化，重新统计
+            teamQuotaService.invalidate(userId);
+            teamQuotaService.invalidate(nextUserTeam.getUserId());
+            return this.updateById(updateTeam);
+        }
+        return true;
+    }
+
+    /**
+     * 解散队伍，只有队长和管理员可以解散，同时移除所有成员关系。
+     * 与加入队伍使用同一把用户锁和队伍锁，在锁内提交事务。
+     *
+     * @param id        队伍ID
+     * @param loginUser 登录用户信息
+     * @return 删除成功与否
+     * @throws BusinessException 如果队伍不存在或没有权限时抛出
+     */
     @Override
+    @CacheEvict(cacheNames = TEAM_CACHE, key = "#id")
     public boolean deleteTeam(long id, User loginUser) {
-        return false;
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        if (id <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        boolean isAdmin = userService.isAdmin(loginUser);
+        Boolean result = teamLock.executeWithLock(loginUser.getId(), id,
+                () -> transactionTemplate.execute(status -> doDeleteTeam(id, loginUser.getId(), isAdmin)));
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * 在锁和事务内解散队伍。
+     *
+     * @param id      队伍id
+     * @param userId  操作用户id
+     * @param isAdmin 操作用户是否是管理员
+     * @return 删除成功与否
+     */
+    private boolean doDeleteTeam(long id, long userId, boolean isAdmin) {
+        Team team = getTeamByIdForUpdate(id);
+        if (!Objects.equals(team.getUserId(), userId) && !isAdmin) {
+            throw new BusinessException(ErrorCode.NO_AUTH, "无访问权限");
+        }
+        // 人数清零并删除队伍，提交后其他实例上的加入也会因队伍已删除而失败，不会留下成员关系
+        if (baseMapper.disbandTeam(id) == 0) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在");
+        }
+        QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+        userTeamQueryWrapper.eq("teamId", id);
+        userTeamService.remove(userTeamQueryWrapper);
+        teamSearchIndexService.removeTeam(id);
+        teamListIndexService.refresh(id);
+        if (team.getUserId() != null) {
+            teamQuotaService.release(team.getUserId());
+        }
+        return true;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = TEAM_CACHE, key = "#teamId")
+    public boolean repairMemberCount(long teamId, int expectedCount, int actualCount) {
+        boolean result = baseMapper.compareAndSetMemberCount(teamId, expectedCount, actualCount) > 0;
+        if (result) {
+            teamListIndexService.refresh(teamId);
+        }
+        return result;
+    }
+
+    /**
+     * 按查询的状态和用户权限确定可以查询的队伍状态。
+     *
+     * @param teamQuery 搜索条件
+     * @param isAdmin   是否是管理员搜索
+     * @return 允许的队伍状态，为null时不限制
+     * @throws BusinessException 如果状态不合法，或普通用户查询私有队伍时抛出
+     */
+    private List<Integer> getStatusList(TeamQuery teamQuery, boolean isAdmin) {
+        Integer status = teamQuery.getStatus();
+        if (status != null) {
+            TeamStatusEnum teamStatusEnum = TeamStatusEnum.getEnumByCode(status);
+            if (teamStatusEnum == null) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "队伍状态不满足要求");
+            }
+            if (!isAdmin && teamStatusEnum.equals(TeamStatusEnum.PRIVATE)) {
+                throw new BusinessException(ErrorCode.NO_AUTH);
+            }
+            return List.of(status);
+        }
+        if (isAdmin) {
+            return null;
+        }
+        return List.of(TeamStatusEnum.PUBLIC.getCode(), TeamStatusEnum.SECRET.getCode());
+    }
+
+    /**
+     * 用全文索引召回搜索关键词匹配的队伍。
+     *
+     * @param teamQuery 搜索条件
+     * @return 按相关度排列的队伍id（已按 idList 过滤）；没有关键词或索引不可用时返回null，由数据库模糊匹配
+     */
+    private List<Long> getSearchIdList(TeamQuery teamQuery) {
+        String searchText = teamQuery.getSearchText();
+        if (StringUtils.isBlank(searchText) || !teamSearchIndexService.canSearch(searchText)) {
+            return null;
+        }
+        List<Long> searchIdList = teamSearchIndexService.search(searchText, searchMaxResults);
+        List<Long> idList = teamQuery.getIdList();
+        if (idList != null) {
+            Set<Long> idSet = new HashSet<>(idList);
+            searchIdList = searchIdList.stream().filter(idSet::contains).toList();
+        }
+        return searchIdList;
+    }
+
+    /**
+     * 解析游标 "创建时间毫秒_队伍id"。
+     *
+     * @param cursor 游标，为空时表示第一页
+     * @return 游标位置，第一页返回null
+     * @throws BusinessException 如果游标格式错误时抛出
+     */
+    private OpenTeamIndex.Key parseCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        String[] parts = cursor.split("_");
+        try {
+            if (parts.length == 2) {
+                long createTime = Long.parseLong(parts[0]);
+                long id = Long.parseLong(parts[1]);
+                if (createTime >= 0 && id > 0) {
+                    return new OpenTeamIndex.Key(createTime, id);
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            // 按格式错误处理
+        }
+        throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标格式错误");
+    }
+
+    /**
+     * 统计队伍总数，浏览页在开放队伍索引中统计，其他查询执行 count。
+     */
+    private long countTeams(TeamQuery teamQuery, List<Integer> statusList) {
+        if (teamListIndexService.canServe(teamQuery, statusList)) {
+            return teamListIndexService.countTeams(teamQuery, statusList);
+        }
+        List<Long> searchIdList = getSearchIdList(teamQuery);
+        if (searchIdList != null && searchIdList.isEmpty()) {
+            return 0;
+        }
+        return baseMapper.countTeamUserVO(teamQuery, statusList, searchIdList);
+    }
+
+    /**
+     * 总数缓存的 key，由影响总数的条件组成，不包括游标和分页大小。
+     */
+    private static String toTotalCacheKey(TeamQuery teamQuery, List<Integer> statusList) {
+        return String.join("|", String.valueOf(statusList), String.valueOf(teamQuery.getUserId()),
+                String.valueOf(teamQuery.getMaxNum()), String.valueOf(teamQuery.getName()),
+                String.valueOf(teamQuery.getDescription()), String.valueOf(teamQuery.getSearchText()),
+                String.valueOf(teamQuery.getIdList()), String.valueOf(teamQuery.getId()));
+    }
+
+    /**
+     * 根据id查询队伍，不经过缓存。
+     *
+     * @param teamId 队伍id
+     * @return 队伍
+     * @throws BusinessException 如果id不合法或队伍不存在时抛出
+     */
+    private Team getTeamById(Long teamId) {
+        if (teamId == null || teamId <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        Team team = super.getById(teamId);
+        if (team == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在");
+        }
+        return team;
+    }
+
+    /**
+     * 查询队伍并锁定该行，需要在事务中调用。
+     *
+     * @param teamId 队伍id
+     * @return 队伍
+     * @throws BusinessException 如果队伍不存在时抛出
+     */
+    private Team getTeamByIdForUpdate(long teamId) {
+        Team team = baseMapper.selectByIdForUpdate(teamId);
+        if (team == null) {
+            throw new BusinessException(ErrorCode.NULL_ERROR, "队伍不存在");
+        }
+        return team;
     }
 
 }
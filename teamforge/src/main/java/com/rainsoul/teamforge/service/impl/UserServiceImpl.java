@@ -1,28 +1,59 @@
 package com.rainsoul.teamforge.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.rainsoul.teamforge.cache.RefreshAheadCache;
+import com.rainsoul.teamforge.cache.SingleFlight;
+import com.rainsoul.teamforge.common.CursorPage;
 import com.rainsoul.teamforge.common.ErrorCode;
 import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.job.UserTagBackfillJob;
 import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.match.MatchEngine;
+import com.rainsoul.teamforge.match.MatchResult;
+import com.rainsoul.teamforge.match.KnnGraphStore;
+import com.rainsoul.teamforge.match.MatchScorer;
+import com.rainsoul.teamforge.match.MatchScorerSelector;
+import com.rainsoul.teamforge.match.TopNCollector;
+import com.rainsoul.teamforge.match.UserTagSnapshot;
 import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.TagService;
 import com.rainsoul.teamforge.service.UserService;
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import com.rainsoul.teamforge.service.UserTagService;
+import com.rainsoul.teamforge.utils.AlgorithmUtils;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.DigestUtils;
 
-import java.util.List;
-import java.util.Set;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
+import static com.rainsoul.teamforge.constant.CacheConstant.USER_CACHE;
+import static com.rainsoul.teamforge.constant.RedisConstant.USER_RECOMMEND_KEY;
 import static com.rainsoul.teamforge.constant.UserConstant.ADMIN_ROLE;
 import static com.rainsoul.teamforge.constant.UserConstant.USER_LOGIN_STATE;
 
@@ -34,11 +65,128 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private UserTagIndexService userTagIndexService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private UserTagService userTagService;
+
+    @Autowired
+    private UserTagBackfillJob userTagBackfillJob;
+
+    @Autowired
+    private MatchEngine matchEngine;
+
+    @Autowired
+    private MatchScorerSelector matchScorerSelector;
+
+    @Autowired
+    private KnnGraphStore knnGraphStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 推荐用户缓存的过期时间（秒），略长于预热任务的执行间隔
+     */
+    @Value("${teamforge.precache.ttl-seconds:90000}")
+    private long recommendCacheTtlSeconds;
+
+    @Autowired
+    private Executor cacheRefreshExecutor;
+
+    /**
+     * 未登录用户推荐页的本地缓存新鲜期（秒）
+     */
+    @Value("${teamforge.precache.hot-fresh-seconds:60}")
+    private long hotRecommendFreshSeconds;
+
+    /**
+     * 未登录用户推荐页过了新鲜期后仍可返回旧值的时长（秒）
+     */
+    @Value("${teamforge.precache.hot-stale-seconds:300}")
+    private long hotRecommendStaleSeconds;
+
+    /**
+     * 推荐缓存未命中时合并同一个 key 的并发查询
+     */
+    private final SingleFlight<String, Page<User>> recommendSingleFlight = new SingleFlight<>();
+
+    /**
+     * 未登录用户共用的推荐页
+     */
+    private RefreshAheadCache<String, Page<User>> hotRecommendCache;
+
+    /**
+     * 是否只对 LSH 召回的候选用户计算匹配度
+     */
+    @Value("${teamforge.match.lsh-enabled:true}")
+    private boolean lshEnabled;
+
+    /**
+     * 是否优先从离线生成的 k 近邻图中读取匹配结果
+     */
+    @Value("${teamforge.match.knn-enabled:true}")
+    private boolean knnEnabled;
+
+    /**
+     * XFetch 提前刷新系数
+     */
+    private static final double HOT_RECOMMEND_REFRESH_BETA = 1.0;
+
+    /**
+     * 本地缓存的未登录用户推荐页最大数量
+     */
+    private static final int HOT_RECOMMEND_CACHE_SIZE = 100;
+
     /**
      * 盐值，混淆密码
      */
     private static final String SALT = "CQUPT";
 
+    /**
+     * 按id批量查询用户时每批的最大数量
+     */
+    private static final int SELECT_BATCH_SIZE = 1000;
+
+    /**
+     * 流式扫描用户表时每个窗口读取的行数
+     */
+    private static final int SCAN_WINDOW_SIZE = 5000;
+
+    /**
+     * 游标分页搜索时每页的最大数量
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 一次最多匹配的用户数
+     */
+    private static final int MAX_MATCH_NUM = 20;
+
+    /**
+     * 推荐用户每页的最大数量
+     */
+    private static final int MAX_RECOMMEND_PAGE_SIZE = 50;
+
+    /**
+     * 推荐用户缓存过期时间的随机偏移上限（秒），避免大量缓存同时过期
+     */
+    private static final int RECOMMEND_CACHE_TTL_JITTER_SECONDS = 300;
+
+    @PostConstruct
+    public void initHotRecommendCache() {
+        hotRecommendCache = new RefreshAheadCache<>(HOT_RECOMMEND_CACHE_SIZE,
+                Duration.ofSeconds(hotRecommendFreshSeconds), Duration.ofSeconds(hotRecommendStaleSeconds),
+                HOT_RECOMMEND_REFRESH_BETA, cacheRefreshExecutor);
+    }
+
     /**
      * 用户注册接口
      *
@@ -201,35 +349,213 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if (CollectionUtils.isEmpty(tagNameList)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
-        // 创建查询包装器
-        QueryWrapper<User> wrapper = new QueryWrapper<>();
-        // 从数据库获取所有用户列表
-        List<User> userList = userMapper.selectList(wrapper);
-
-        // 使用Gson工具将用户标签从字符串转换为Set<String>
-        Gson gson = new Gson();
-        // 过滤用户列表，保留所有包含所有指定标签的用户
-        return userList.stream().filter(user -> {
-                    String tags = user.getTags();
-                    /**
-                     * 将JSON字符串转换为字符串集。
-                     * 该方法使用Gson库将提供的JSON字符串解析为Set<String>类型的集合。
-                     *
-                     * @param tags JSON字符串，表示一组标签。
-                     * @return 解析后的字符串集，每个字符串代表一个标签。
-                     */
-                    // Todo 学习Gson
-                    Set<String> tempTagNameSet = gson.fromJson(tags, new TypeToken<Set<String>>() {
-                    }.getType());
-                    // 检查用户是否包含所有指定的标签
-                    for (String tagName : tagNameList) {
-                        if (!tempTagNameSet.contains(tagName)) {
-                            return false; // 如果用户缺少某个标签，则过滤掉该用户
-                        }
-                    }
-                    return true;
-                }).map(this::getSafetyUser) // 对过滤后的用户进行安全处理
-                .collect(Collectors.toList()); // 收集结果并返回
+        // 通过标签字典将标签名称转换为标签id，存在未知标签时不可能有匹配的用户
+        int[] tagIds = tagService.getTagIds(tagNameList);
+        if (tagIds == null) {
+            return new ArrayList<>();
+        }
+        // 索引尚未构建完成时，优先走 user_tag 表，回填未完成时退回到全表扫描
+        if (!userTagIndexService.isReady()) {
+            if (userTagBackfillJob.isCompleted()) {
+                return searchUsersByTagsBySQL(tagIds);
+            }
+            return searchUsersByTagsByScan(tagIds);
+        }
+        // 通过标签位图求交集得到匹配的用户id
+        RoaringBitmap userIdBitmap = userTagIndexService.searchUserIds(tagIds);
+        if (userIdBitmap.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 只查询匹配的用户，分批避免 in 列表过长
+        List<User> resultList = new ArrayList<>(userIdBitmap.getCardinality());
+        List<Long> idBatch = new ArrayList<>(SELECT_BATCH_SIZE);
+        IntIterator iterator = userIdBitmap.getIntIterator();
+        while (iterator.hasNext()) {
+            idBatch.add((long) iterator.next());
+            if (idBatch.size() == SELECT_BATCH_SIZE || !iterator.hasNext()) {
+                userMapper.selectBatchIds(idBatch).stream()
+                        .map(this::getSafetyUser)
+                        .forEach(resultList::add);
+                idBatch.clear();
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 根据标签名列表搜索用户（游标分页）。
+     * <p>
+     * 以用户id为游标，每页都从 id &gt; lastId 处向后查找，不使用 OFFSET，翻页深度不影响开销。
+     * </p>
+     *
+     * @param tagNameList 标签名列表，不能为空。
+     * @param lastId      上一页最后一个用户的id，第一页传0。
+     * @param pageSize    每页数量，范围 1 ~ 100。
+     * @return 按用户id升序的一页用户。
+     * @throws BusinessException 如果标签名列表为空或分页参数不合法，抛出此异常。
+     */
+    @Override
+    public CursorPage<User> searchUsersByTags(List<String> tagNameList, long lastId, int pageSize) {
+        if (CollectionUtils.isEmpty(tagNameList)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        if (lastId < 0 || pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "分页参数错误");
+        }
+        CursorPage<User> cursorPage = new CursorPage<>();
+        int[] tagIds = tagService.getTagIds(tagNameList);
+        if (tagIds == null) {
+            return cursorPage;
+        }
+        // 多取一个用于判断是否还有下一页
+        int limit = pageSize + 1;
+        List<Long> userIdList;
+        if (userTagIndexService.isReady()) {
+            userIdList = new ArrayList<>(limit);
+            if (lastId < Integer.MAX_VALUE) {
+                PeekableIntIterator iterator = userTagIndexService.searchUserIds(tagIds).getIntIterator();
+                iterator.advanceIfNeeded((int) lastId + 1);
+                while (iterator.hasNext() && userIdList.size() < limit) {
+                    userIdList.add((long) iterator.next());
+                }
+            }
+        } else if (userTagBackfillJob.isCompleted()) {
+            userIdList = userTagService.listUserIdsByTagIds(tagIds, lastId, limit);
+        } else {
+            userIdList = scanUserIdsByTags(tagIds, lastId, limit);
+        }
+        boolean hasMore = userIdList.size() > pageSize;
+        if (hasMore) {
+            userIdList = userIdList.subList(0, pageSize);
+        }
+        List<User> userList = listSafetyUsersByIds(userIdList);
+        userList.sort(Comparator.comparingLong(User::getId));
+        cursorPage.setRecords(userList);
+        cursorPage.setHasMore(hasMore);
+        // 游标取自id列表而不是查询结果，期间被删除的用户不会影响翻页
+        if (hasMore) {
+            cursorPage.setNextCursor(String.valueOf(userIdList.get(userIdList.size() - 1)));
+        }
+        return cursorPage;
+    }
+
+    /**
+     * 分页获取推荐用户。
+     * <p>
+     * 先读 Redis 中预热任务写入的缓存，未命中时实时查询并写入缓存，同一个 key 的并发查询合并为一次。
+     * Redis 只是加速手段，读写失败时记录日志并直接返回实时查询结果。
+     * 未登录用户共用同一份推荐，访问最集中，额外在本地缓存中提前刷新，过期后先返回旧值。
+     * </p>
+     *
+     * @param pageNum   页码，从 1 开始。
+     * @param pageSize  每页数量，范围 1 ~ 50。
+     * @param loginUser 当前登录用户，未登录时为null。
+     * @return 一页脱敏后的推荐用户。
+     * @throws BusinessException 如果分页参数不合法，抛出此异常。
+     */
+    @Override
+    public Page<User> recommendUsers(long pageNum, long pageSize, User loginUser) {
+        if (pageNum <= 0 || pageSize <= 0 || pageSize > MAX_RECOMMEND_PAGE_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        long userId = loginUser == null ? 0 : loginUser.getId();
+        String redisKey = String.format(USER_RECOMMEND_KEY, userId, pageSize, pageNum);
+        if (userId == 0) {
+            return hotRecommendCache.get(redisKey, () -> getRecommendUsers(redisKey, userId, pageNum, pageSize));
+        }
+        return getRecommendUsers(redisKey, userId, pageNum, pageSize);
+    }
+
+    /**
+     * 读取 Redis 中的推荐用户缓存，未命中时实时查询并写入缓存。
+     *
+     * @param redisKey 缓存 key。
+     * @param userId   用户id，0 表示未登录用户。
+     * @param pageNum  页码。
+     * @param pageSize 每页数量。
+     * @return 一页脱敏后的推荐用户。
+     */
+    private Page<User> getRecommendUsers(String redisKey, long userId, long pageNum, long pageSize) {
+        ValueOperations<String, Object> valueOperations = redisTemplate.opsForValue();
+        try {
+            Object cachedPage = valueOperations.get(redisKey);
+            if (cachedPage instanceof Page) {
+                return (Page<User>) cachedPage;
+            }
+        } catch (Exception e) {
+            log.error("read recommend cache error, key: {}", redisKey, e);
+        }
+        return recommendSingleFlight.execute(redisKey, () -> {
+            Page<User> userPage = listRecommendUsers(userId, pageNum, pageSize);
+            writeRecommendCache(redisKey, userPage);
+            return userPage;
+        });
+    }
+
+    @Override
+    public void cacheRecommendUsers(long userId, long pageNum, long pageSize) {
+        String redisKey = String.format(USER_RECOMMEND_KEY, userId, pageSize, pageNum);
+        writeRecommendCache(redisKey, listRecommendUsers(userId, pageNum, pageSize));
+    }
+
+    /**
+     * 实时查询一页推荐用户，排除用户自己。
+     *
+     * @param userId   用户id，0 表示未登录用户。
+     * @param pageNum  页码。
+     * @param pageSize 每页数量。
+     * @return 一页脱敏后的用户。
+     */
+    private Page<User> listRecommendUsers(long userId, long pageNum, long pageSize) {
+        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+        queryWrapper.ne(userId > 0, "id", userId);
+        Page<User> userPage = this.page(new Page<>(pageNum, pageSize), queryWrapper);
+        userPage.setRecords(userPage.getRecords().stream().map(this::getSafetyUser).toList());
+        return userPage;
+    }
+
+    /**
+     * 写入推荐用户缓存，过期时间加上随机偏移。
+     *
+     * @param redisKey 缓存 key。
+     * @param userPage 一页推荐用户。
+     */
+    private void writeRecommendCache(String redisKey, Page<User> userPage) {
+        long ttlSeconds = recommendCacheTtlSeconds
+                + ThreadLocalRandom.current().nextInt(RECOMMEND_CACHE_TTL_JITTER_SECONDS);
+        try {
+            redisTemplate.opsForValue().set(redisKey, userPage, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("write recommend cache error, key: {}", redisKey, e);
+        }
+    }
+
+    /**
+     * 根据id获取脱敏后的用户信息。
+     * <p>
+     * 结果写入二级缓存，缓存中只保存脱敏后的用户，不包含密码。
+     * 用户信息更新或删除时清除缓存。
+     * </p>
+     *
+     * @param userId 用户id。
+     * @return 脱敏后的用户，不存在时返回null。
+     */
+    @Override
+    @Cacheable(cacheNames = USER_CACHE, key = "#userId", unless = "#result == null")
+    public User getSafetyUserById(long userId) {
+        return getSafetyUser(userMapper.selectById(userId));
+    }
+
+    /**
+     * 删除用户，同时清除用户缓存。
+     *
+     * @param id 用户id。
+     * @return 删除成功返回true。
+     */
+    @Override
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
+    public boolean removeById(Serializable id) {
+        return super.removeById(id);
     }
 
     /**
@@ -241,6 +567,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
      * @throws BusinessException 如果用户ID不合法、没有权限操作或用户不存在，则抛出业务异常。
      */
     @Override
+    @CacheEvict(cacheNames = USER_CACHE, key = "#user.id")
     public int updateUser(User user, User loginUser) {
         long userId = user.getId();
         // 检查用户ID是否合法
@@ -256,8 +583,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
         if (originalUser == null) {
             throw new BusinessException(ErrorCode.NULL_ERROR);
         }
-        // 更新用户信息并返回更新结果
-        return userMapper.updateById(user);
+        int[] tagIds = user.getTags() == null ? null : tagService.parseTagIds(user.getTags(), true);
+        // 用户信息和用户标签关系在同一个事务中更新，用户行锁到提交为止，
+        // 同一用户的并发更新和标签回填按顺序写入，标签索引也在锁内按同样的顺序更新
+        Integer result = transactionTemplate.execute(status -> {
+            int updated = userMapper.updateById(user);
+            if (updated > 0 && tagIds != null) {
+                userTagService.syncUserTags(userId, tagIds);
+                userTagIndexService.updateUserTags(userId, tagIds);
+                knnGraphStore.markTagsUpdated(userId);
+            }
+            return updated;
+        });
+        return result == null ? 0 : result;
     }
 
 
@@ -311,37 +649,280 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User>
     }
 
 
+    /**
+     * 根据标签相似度为登录用户匹配用户。
+     * <p>
+     * 遍历标签索引（索引未就绪时流式扫描用户表）中有标签的用户，逐个计算与登录用户标签id数组的编辑距离，
+     * 用容量为 num 的大顶堆只保留最相似的 num 个用户，最后只查询入选用户的完整信息。
+     * 堆满后以堆顶距离作为上限，不可能入选的用户在带状编辑距离中提前淘汰。
+     * 开启 LSH 时只对与登录用户标签集合碰撞的候选用户计算距离，候选不足 num 个时退化为全量匹配。
+     * 索引就绪时交给匹配引擎，候选较多时在多个线程上并行打分。
+     * 打分器由 teamforge.match.scorer 配置，可改用与标签顺序无关的 TF-IDF 余弦相似度。
+     * 离线 k 近邻图中有该用户足够的邻居时，直接读取内存映射文件，不再实时计算；
+     * 图生成后修改过标签的用户不使用图中的结果。
+     * 时间复杂度 O(n log num)，内存占用 O(num)。
+     * </p>
+     *
+     * @param num       匹配的用户数量，范围 1 ~ 20。
+     * @param loginUser 当前登录用户。
+     * @return 按相似度从高到低排序的用户列表。
+     * @throws BusinessException 如果数量不合法、用户未登录或用户没有标签，抛出此异常。
+     */
     @Override
     public List<User> matchUsers(long num, User loginUser) {
-        return List.of();
+        if (num <= 0 || num > MAX_MATCH_NUM) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN);
+        }
+        List<MatchResult> candidateList = knnEnabled ? knnGraphStore.getNeighbors(loginUser.getId(), (int) num) : null;
+        // 离线图中没有该用户或邻居不足时实时计算
+        if (candidateList == null || candidateList.size() < num) {
+            candidateList = computeMatchResults(loginUser, (int) num);
+        }
+        if (candidateList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 只查询入选用户，并按相似度顺序返回
+        List<Long> userIdList = candidateList.stream().map(MatchResult::userId).toList();
+        Map<Long, User> userMap = new HashMap<>();
+        userMapper.selectBatchIds(userIdList).forEach(user -> userMap.put(user.getId(), user));
+        List<User> resultList = new ArrayList<>(userIdList.size());
+        for (Long userId : userIdList) {
+            User user = userMap.get(userId);
+            if (user != null) {
+                resultList.add(getSafetyUser(user));
+            }
+        }
+        return resultList;
     }
 
 
+    /**
+     * 实时计算与登录用户最相似的用户。
+     *
+     * @param loginUser 当前登录用户。
+     * @param num       匹配的用户数量。
+     * @return 按相似度从高到低排序的匹配结果。
+     */
+    private List<MatchResult> computeMatchResults(User loginUser, int num) {
+        MatchScorer matchScorer = matchScorerSelector.getScorer();
+        if (userTagIndexService.isReady()) {
+            // 索引中保存了所有用户的标签id数组，直接在内存中匹配
+            int[] tagIds = userTagIndexService.getUserTagIds(loginUser.getId());
+            if (tagIds.length == 0) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "请先设置标签");
+            }
+            UserTagSnapshot snapshot = null;
+            if (lshEnabled) {
+                RoaringBitmap candidateIds = userTagIndexService.searchSimilarUserIds(tagIds);
+                // 候选集包含登录用户自己
+                if (candidateIds.getCardinality() > num) {
+                    snapshot = userTagIndexService.snapshot(candidateIds);
+                }
+            }
+            if (snapshot == null) {
+                snapshot = userTagIndexService.snapshot();
+            }
+            return matchEngine.match(snapshot, loginUser.getId(), matchScorer.prepare(tagIds), num);
+        } else {
+            // 会话中的标签可能已过期，以数据库为准
+            User currentUser = userMapper.selectById(loginUser.getId());
+            if (currentUser == null) {
+                throw new BusinessException(ErrorCode.NULL_ERROR);
+            }
+            int[] tagIds = tagService.parseTagIds(currentUser.getTags(), false);
+            if (tagIds.length == 0) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "请先设置标签");
+            }
+            TopNCollector collector = new TopNCollector(currentUser.getId(), matchScorer.prepare(tagIds), num);
+            scanUsers(0, new MatchResultHandler(collector));
+            return collector.getResult();
+        }
+    }
+
     /**
      * 根据标签搜索用户（SQL 查询版）
      * <p>
-     * 该方法通过给定的标签名列表查询用户。查询条件是用户拥有的标签中包含列表中的所有标签。
-     * 注意：该方法使用了SQL的like操作进行标签匹配，可能效率较低，且存在SQL注入的风险。
+     * 在 user_tag 关系表上按 (tagId, userId) 索引查找，按用户分组后要求命中全部标签，
+     * 再按id批量查询匹配的用户。
      * </p>
      *
-     * @param tagNameList 用户要拥有的标签列表。不能为空。
+     * @param tagIds 用户要拥有的标签id数组，升序去重。
      * @return 返回经过处理的安全用户列表。
-     * @throws BusinessException 如果标签名列表为空，抛出此异常。
      */
-    @Deprecated
-    private List<User> searchUsersByTagsBySQL(List<String> tagNameList) {
-        // 检查标签名列表是否为空，为空则抛出业务异常
-        if (CollectionUtils.isEmpty(tagNameList)) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+    private List<User> searchUsersByTagsBySQL(int[] tagIds) {
+        List<Long> userIdList = userTagService.listUserIdsByTagIds(tagIds);
+        return listSafetyUsersByIds(userIdList);
+    }
+
+    /**
+     * 根据标签搜索用户（流式扫描版）
+     * <p>
+     * 标签索引和 user_tag 表都不可用时使用，流式扫描用户表并逐行过滤，只保留匹配的用户id。
+     * </p>
+     *
+     * @param tagIds 用户要拥有的标签id数组，升序去重。
+     * @return 返回经过处理的安全用户列表。
+     */
+    private List<User> searchUsersByTagsByScan(int[] tagIds) {
+        List<Long> userIdList = scanUserIdsByTags(tagIds, 0, Integer.MAX_VALUE);
+        return listSafetyUsersByIds(userIdList);
+    }
+
+    /**
+     * 流式扫描用户表，按 id 升序收集同时拥有所有指定标签的用户id。
+     * <p>
+     * 按主键分窗口读取，每个窗口内的行只投影 id 和 tags 并逐行过滤，不会在内存中保存用户对象；
+     * 收集到 limit 个用户后立即停止，不再读取后续窗口。
+     * </p>
+     *
+     * @param tagIds  用户要拥有的标签id数组，升序去重。
+     * @param afterId 只扫描 id 大于该值的用户。
+     * @param limit   最多返回的用户数。
+     * @return 匹配的用户id列表，按 id 升序。
+     */
+    private List<Long> scanUserIdsByTags(int[] tagIds, long afterId, int limit) {
+        TagFilterResultHandler handler = new TagFilterResultHandler(tagIds, limit);
+        scanUsers(afterId, handler);
+        return handler.getUserIdList();
+    }
+
+    /**
+     * 按主键分窗口流式扫描有标签的用户，逐行交给处理器，处理器结束时不再读取后续窗口。
+     *
+     * @param afterId 只扫描 id 大于该值的用户。
+     * @param handler 逐行处理用户的处理器。
+     */
+    private void scanUsers(long afterId, WindowedScanHandler handler) {
+        long lastId = afterId;
+        while (!handler.isFinished()) {
+            handler.resetWindow();
+            userMapper.scanIdAndTags(lastId, SCAN_WINDOW_SIZE, handler);
+            // 窗口未读满说明已经扫描到表尾
+            if (handler.getWindowRows() < SCAN_WINDOW_SIZE) {
+                break;
+            }
+            lastId = handler.getLastId();
         }
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        // 拼接多个标签的like查询条件
-        for (String tagName : tagNameList) {
-            queryWrapper = queryWrapper.like("tags", tagName);
+    }
+
+    /**
+     * 按id批量查询用户并脱敏，分批避免 in 列表过长。
+     *
+     * @param userIdList 用户id列表。
+     * @return 脱敏后的用户列表。
+     */
+    private List<User> listSafetyUsersByIds(List<Long> userIdList) {
+        List<User> resultList = new ArrayList<>(userIdList.size());
+        for (int i = 0; i < userIdList.size(); i += SELECT_BATCH_SIZE) {
+            List<Long> idBatch = userIdList.subList(i, Math.min(i + SELECT_BATCH_SIZE, userIdList.size()));
+            userMapper.selectBatchIds(idBatch).stream()
+                    .map(this::getSafetyUser)
+                    .forEach(resultList::add);
+        }
+        return resultList;
+    }
+
+    /**
+     * 分窗口流式扫描的结果处理器，记录窗口内读取的行数和最后一个用户id。
+     */
+    private abstract static class WindowedScanHandler implements ResultHandler<User> {
+
+        private long lastId;
+
+        private int windowRows;
+
+        @Override
+        public final void handleResult(ResultContext<? extends User> resultContext) {
+            User user = resultContext.getResultObject();
+            lastId = user.getId();
+            windowRows++;
+            handleUser(user);
+            // 处理器已结束，停止读取剩余行
+            if (isFinished()) {
+                resultContext.stop();
+            }
+        }
+
+        /**
+         * 处理一行用户数据（只包含 id 和 tags）。
+         *
+         * @param user 用户。
+         */
+        protected abstract void handleUser(User user);
+
+        /**
+         * 是否已经不需要再读取后续数据。
+         *
+         * @return 结束返回true。
+         */
+        protected boolean isFinished() {
+            return false;
+        }
+
+        void resetWindow() {
+            windowRows = 0;
+        }
+
+        long getLastId() {
+            return lastId;
+        }
+
+        int getWindowRows() {
+            return windowRows;
+        }
+    }
+
+    /**
+     * 流式扫描时逐行过滤标签的结果处理器。
+     */
+    private class TagFilterResultHandler extends WindowedScanHandler {
+
+        private final int[] tagIds;
+
+        private final int limit;
+
+        private final List<Long> userIdList = new ArrayList<>();
+
+        TagFilterResultHandler(int[] tagIds, int limit) {
+            this.tagIds = tagIds;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void handleUser(User user) {
+            if (AlgorithmUtils.containsAll(tagService.parseTagIds(user.getTags(), false), tagIds)) {
+                userIdList.add(user.getId());
+            }
+        }
+
+        @Override
+        protected boolean isFinished() {
+            return userIdList.size() >= limit;
+        }
+
+        List<Long> getUserIdList() {
+            return userIdList;
+        }
+    }
+
+    /**
+     * 流式扫描时将每个用户交给匹配收集器。
+     */
+    private class MatchResultHandler extends WindowedScanHandler {
+
+        private final TopNCollector collector;
+
+        MatchResultHandler(TopNCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        protected void handleUser(User user) {
+            collector.offer(user.getId(), tagService.parseTagIds(user.getTags(), false));
         }
-        // 执行查询，并对每个用户结果进行安全处理
-        List<User> userList = userMapper.selectList(queryWrapper);
-        return userList.stream().map(this::getSafetyUser).collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,420 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.match.UserTagSnapshot;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.TagService;
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import com.rainsoul.teamforge.utils.MinHashLsh;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StopWatch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户标签倒排索引服务实现类
+ * <p>
+ * 每个标签id对应一个压缩位图（RoaringBitmap），记录拥有该标签的用户id。
+ * 多标签 AND 查询即为多个位图求交集，无需扫描用户表。
+ * 同时保存每个用户升序的标签id数组，供标签过滤和用户匹配直接使用，
+ * 并维护 MinHash LSH 索引，用户匹配时只需对碰撞到的候选用户计算相似度。
+ * </p>
+ * <p>
+ * 本节点的写入直接更新索引；其他节点的写入由 {@link #syncUpdatedUsers()} 按用户表的 updateTime 增量同步。
+ * 同步起点回退一段重叠时间，修改时间早于提交时间的长事务也不会漏掉，重复读到的用户标签不变时跳过。
+ * </p>
+ */
+@Service
+@Slf4j
+public class UserTagIndexServiceImpl implements UserTagIndexService {
+
+    /**
+     * 重建索引时每批读取的用户数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 增量同步时每批读取的用户数
+     */
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    private static final int[] EMPTY_TAG_IDS = new int[0];
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private TagService tagService;
+
+    /**
+     * 标签id -> 用户id位图
+     */
+    private Map<Integer, RoaringBitmap> tagIndex = new HashMap<>();
+
+    /**
+     * 用户id -> 升序标签id数组
+     */
+    private Map<Long, int[]> userTagIdsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 标签集合相似用户的 LSH 索引
+     */
+    private MinHashLsh lsh;
+
+    /**
+     * LSH 分段数
+     */
+    @Value("${teamforge.match.lsh-bands:16}")
+    private int lshBands;
+
+    /**
+     * LSH 每个分段的哈希值个数
+     */
+    @Value("${teamforge.match.lsh-rows:2}")
+    private int lshRows;
+
+    /**
+     * 当前索引的数组快照，索引更新时置空，下次使用时重新生成
+     */
+    private volatile UserTagSnapshot snapshot;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 已同步到的用户修改时间，下次同步从这里回退重叠时间开始读取
+     */
+    private volatile Date syncedUpdateTime;
+
+    /**
+     * 增量同步的重叠时间（秒），应大于写入用户的事务从修改到提交的最长时间
+     */
+    @Value("${teamforge.user-tag.index-sync-overlap-seconds:60}")
+    private long syncOverlapSeconds;
+
+    /**
+     * 重建期间更新过的用户 -> 最新的标签id数组，不在重建时为null，只在写锁内访问
+     */
+    private Map<Long, int[]> rebuildingDirtyTags;
+
+    /**
+     * 应用启动完成后构建索引，构建期间标签搜索走数据库兜底。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 扫描用户表期间不持有锁，期间的标签更新写入旧索引，同时记录下来，在新索引生效时重新应用，
+     * 不会被扫描时读到的旧数据覆盖。
+     */
+    @Override
+    public synchronized void rebuild() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        lock.writeLock().lock();
+        try {
+            rebuildingDirtyTags = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // 扫描开始前的修改时间作为增量同步的起点，扫描期间其他节点的修改会在下次同步时补上
+        Date newSyncedUpdateTime = Optional.ofNullable(userMapper.selectMaxUpdateTime()).orElse(new Date(0));
+        Map<Integer, RoaringBitmap> newIndex = new HashMap<>();
+        Map<Long, int[]> newUserTagIdsMap = new ConcurrentHashMap<>();
+        MinHashLsh newLsh = new MinHashLsh(lshBands, lshRows);
+        long lastId = 0;
+        try {
+            while (true) {
+                // 按主键分批读取，只取 id 和 tags 两列
+                QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id", "tags")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("limit " + REBUILD_BATCH_SIZE);
+                List<User> userList = userMapper.selectList(queryWrapper);
+                if (userList.isEmpty()) {
+                    break;
+                }
+                for (User user : userList) {
+                    long userId = user.getId();
+                    int[] tagIds = tagService.parseTagIds(user.getTags(), true);
+                    if (tagIds.length == 0 || !isIndexable(userId)) {
+                        continue;
+                    }
+                    newUserTagIdsMap.put(userId, tagIds);
+                    newLsh.put((int) userId, tagIds);
+                    for (int tagId : tagIds) {
+                        newIndex.computeIfAbsent(tagId, k -> new RoaringBitmap()).add((int) userId);
+                    }
+                }
+                lastId = userList.get(userList.size() - 1).getId();
+            }
+            newIndex.values().forEach(RoaringBitmap::runOptimize);
+
+            lock.writeLock().lock();
+            try {
+                // 扫描期间更新过的用户以最新的标签为准
+                rebuildingDirtyTags.forEach((userId, tagIds) ->
+                        applyUserTags(newIndex, newUserTagIdsMap, newLsh, userId, tagIds));
+                tagIndex = newIndex;
+                userTagIdsMap = newUserTagIdsMap;
+                lsh = newLsh;
+                snapshot = null;
+                syncedUpdateTime = newSyncedUpdateTime;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuildingDirtyTags = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        stopWatch.stop();
+        log.info("user tag index rebuilt, users: {}, tags: {}, cost: {} ms",
+                newUserTagIdsMap.size(), newIndex.size(), stopWatch.getTotalTimeMillis());
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void updateUserTags(long userId, int[] newTagIds) {
+        if (newTagIds == null || !isIndexable(userId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyUserTags(tagIndex, userTagIdsMap, lsh, userId, newTagIds);
+            if (rebuildingDirtyTags != null) {
+                rebuildingDirtyTags.put(userId, newTagIds);
+            }
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 与 {@link #rebuild()} 互斥执行。
+     */
+    @Override
+    public synchronized List<Long> syncUpdatedUsers() {
+        if (!ready || syncedUpdateTime == null) {
+            return new ArrayList<>();
+        }
+        Date maxUpdateTime = syncedUpdateTime;
+        Date afterTime = new Date(maxUpdateTime.getTime() - TimeUnit.SECONDS.toMillis(syncOverlapSeconds));
+        long afterId = 0;
+        List<Long> changedUserIdList = new ArrayList<>();
+        while (true) {
+            List<User> userList = userMapper.selectUpdatedAfter(afterTime, afterId, SYNC_BATCH_SIZE);
+            if (userList.isEmpty()) {
+                break;
+            }
+            for (User user : userList) {
+                long userId = user.getId();
+                if (!isIndexable(userId)) {
+                    continue;
+                }
+                int[] tagIds = Integer.valueOf(1).equals(user.getIsDelete())
+                        ? EMPTY_TAG_IDS : tagService.parseTagIds(user.getTags(), true);
+                if (!Arrays.equals(tagIds, getUserTagIds(userId))) {
+                    updateUserTags(userId, tagIds);
+                    changedUserIdList.add(userId);
+                }
+            }
+            User lastUser = userList.get(userList.size() - 1);
+            afterTime = lastUser.getUpdateTime();
+            afterId = lastUser.getId();
+            if (afterTime.after(maxUpdateTime)) {
+                maxUpdateTime = afterTime;
+            }
+        }
+        syncedUpdateTime = maxUpdateTime;
+        return changedUserIdList;
+    }
+
+    /**
+     * 把用户的标签更新到指定的索引中，调用方需持有写锁或独占该索引。
+     *
+     * @param tagIndex      标签id -> 用户id位图
+     * @param userTagIdsMap 用户id -> 升序标签id数组
+     * @param lsh           LSH 索引，为null时跳过
+     * @param userId        用户id
+     * @param newTagIds     升序去重的新标签id数组
+     */
+    private static void applyUserTags(Map<Integer, RoaringBitmap> tagIndex, Map<Long, int[]> userTagIdsMap,
+                                      MinHashLsh lsh, long userId, int[] newTagIds) {
+        int[] oldTagIds = userTagIdsMap.getOrDefault(userId, EMPTY_TAG_IDS);
+        for (int tagId : oldTagIds) {
+            if (Arrays.binarySearch(newTagIds, tagId) >= 0) {
+                continue;
+            }
+            RoaringBitmap bitmap = tagIndex.get(tagId);
+            if (bitmap != null) {
+                bitmap.remove((int) userId);
+                if (bitmap.isEmpty()) {
+                    tagIndex.remove(tagId);
+                }
+            }
+        }
+        for (int tagId : newTagIds) {
+            tagIndex.computeIfAbsent(tagId, k -> new RoaringBitmap()).add((int) userId);
+        }
+        if (lsh != null) {
+            lsh.put((int) userId, newTagIds);
+        }
+        if (newTagIds.length == 0) {
+            userTagIdsMap.remove(userId);
+        } else {
+            userTagIdsMap.put(userId, newTagIds);
+        }
+    }
+
+    @Override
+    public int[] getUserTagIds(long userId) {
+        return userTagIdsMap.getOrDefault(userId, EMPTY_TAG_IDS);
+    }
+
+    @Override
+    public int[] countUsersByTag() {
+        lock.readLock().lock();
+        try {
+            int maxTagId = tagIndex.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            int[] userCounts = new int[maxTagId + 1];
+            tagIndex.forEach((tagId, bitmap) -> userCounts[tagId] = bitmap.getCardinality());
+            return userCounts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getUserCount() {
+        return userTagIdsMap.size();
+    }
+
+    @Override
+    public void forEachUser(UserTagIdsConsumer consumer) {
+        userTagIdsMap.forEach(consumer::accept);
+    }
+
+    @Override
+    public UserTagSnapshot snapshot() {
+        UserTagSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // 读锁期间索引不会被修改，生成的快照与索引一致
+        lock.readLock().lock();
+        try {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            int size = userTagIdsMap.size();
+            long[] userIds = new long[size];
+            int[][] tagIds = new int[size][];
+            int i = 0;
+            for (Map.Entry<Long, int[]> entry : userTagIdsMap.entrySet()) {
+                userIds[i] = entry.getKey();
+                tagIds[i] = entry.getValue();
+                i++;
+            }
+            current = new UserTagSnapshot(userIds, tagIds);
+            snapshot = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public UserTagSnapshot snapshot(RoaringBitmap userIds) {
+        int size = userIds.getCardinality();
+        long[] snapshotUserIds = new long[size];
+        int[][] tagIds = new int[size][];
+        IntIterator iterator = userIds.getIntIterator();
+        for (int i = 0; i < size; i++) {
+            int userId = iterator.next();
+            snapshotUserIds[i] = userId;
+            tagIds[i] = getUserTagIds(userId);
+        }
+        return new UserTagSnapshot(snapshotUserIds, tagIds);
+    }
+
+    @Override
+    public RoaringBitmap searchUserIds(int[] tagIds) {
+        if (tagIds == null || tagIds.length == 0) {
+            return new RoaringBitmap();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] bitmaps = new RoaringBitmap[tagIds.length];
+            for (int i = 0; i < tagIds.length; i++) {
+                RoaringBitmap bitmap = tagIndex.get(tagIds[i]);
+                // 任意一个标签没有用户，交集必为空
+                if (bitmap == null) {
+                    return new RoaringBitmap();
+                }
+                bitmaps[i] = bitmap;
+            }
+            if (bitmaps.length == 1) {
+                return bitmaps[0].clone();
+            }
+            // 从基数最小的位图开始求交集，尽早缩小结果
+            Arrays.sort(bitmaps, Comparator.comparingInt(RoaringBitmap::getCardinality));
+            return FastAggregation.and(bitmaps);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public RoaringBitmap searchSimilarUserIds(int[] tagIds) {
+        lock.readLock().lock();
+        try {
+            if (lsh == null) {
+                return new RoaringBitmap();
+            }
+            return lsh.candidates(tagIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 位图以 int 存储用户id，超出范围的用户不进入索引。
+     *
+     * @param userId 用户id。
+     * @return 可以进入索引返回true，否则返回false。
+     */
+    private boolean isIndexable(long userId) {
+        if (userId <= 0 || userId > Integer.MAX_VALUE) {
+            log.warn("user id out of tag index range, userId: {}", userId);
+            return false;
+        }
+        return true;
+    }
+}
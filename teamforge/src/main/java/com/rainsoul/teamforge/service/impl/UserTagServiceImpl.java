@@ -0,0 +1,61 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.rainsoul.teamforge.mapper.UserTagMapper;
+import com.rainsoul.teamforge.model.domain.UserTag;
+import com.rainsoul.teamforge.service.UserTagService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 用户标签关系服务实现类
+ */
+@Service
+public class UserTagServiceImpl extends ServiceImpl<UserTagMapper, UserTag>
+        implements UserTagService {
+
+    @Override
+    public List<Long> listUserIdsByTagIds(int[] tagIds) {
+        if (tagIds == null || tagIds.length == 0) {
+            return new ArrayList<>();
+        }
+        return this.baseMapper.selectUserIdsByTagIds(tagIds, tagIds.length);
+    }
+
+    @Override
+    public List<Long> listUserIdsByTagIds(int[] tagIds, long lastId, int limit) {
+        if (tagIds == null || tagIds.length == 0) {
+            return new ArrayList<>();
+        }
+        return this.baseMapper.selectUserIdsByTagIdsAfter(tagIds, tagIds.length, lastId, limit);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void syncUserTags(long userId, int[] tagIds) {
+        // 删除不再拥有的标签
+        QueryWrapper<UserTag> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("userId", userId);
+        if (tagIds.length > 0) {
+            queryWrapper.notIn("tagId", Arrays.stream(tagIds).boxed().toList());
+        }
+        this.remove(queryWrapper);
+        if (tagIds.length == 0) {
+            return;
+        }
+        // 写入新增的标签，已存在的关系忽略
+        List<UserTag> userTagList = new ArrayList<>(tagIds.length);
+        for (int tagId : tagIds) {
+            UserTag userTag = new UserTag();
+            userTag.setUserId(userId);
+            userTag.setTagId((long) tagId);
+            userTagList.add(userTag);
+        }
+        this.baseMapper.insertIgnoreBatch(userTagList);
+    }
+}
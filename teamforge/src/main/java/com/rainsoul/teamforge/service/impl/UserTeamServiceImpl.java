@@ -3,9 +3,12 @@ package com.rainsoul.teamforge.service.impl;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.rainsoul.teamforge.mapper.UserTeamMapper;
 import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.dto.TeamMemberCount;
 import com.rainsoul.teamforge.service.UserTeamService;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+
 /**
  * 用户队伍服务实现类
  */
@@ -13,4 +16,43 @@ import org.springframework.stereotype.Service;
 public class UserTeamServiceImpl extends ServiceImpl<UserTeamMapper, UserTeam>
         implements UserTeamService {
 
-}
\ No newline at end of file
+    /**
+     * 按队伍id批量查询时每批的最大数量，避免 in 列表过长
+     */
+    private static final int SELECT_BATCH_SIZE = 1000;
+
+    @Override
+    public Map<Long, Integer> countMembersByTeamIds(Collection<Long> teamIds) {
+        Map<Long, Integer> memberCountMap = new HashMap<>();
+        if (teamIds == null || teamIds.isEmpty()) {
+            return memberCountMap;
+        }
+        for (List<Long> batch : partition(teamIds)) {
+            for (TeamMemberCount teamMemberCount : baseMapper.countByTeamIds(batch)) {
+                memberCountMap.put(teamMemberCount.getTeamId(), teamMemberCount.getMemberCount());
+            }
+        }
+        return memberCountMap;
+    }
+
+    @Override
+    public Set<Long> listJoinedTeamIds(long userId, Collection<Long> teamIds) {
+        if (teamIds == null) {
+            return new HashSet<>(baseMapper.listJoinedTeamIds(userId, null));
+        }
+        Set<Long> joinedTeamIdSet = new HashSet<>();
+        for (List<Long> batch : partition(teamIds)) {
+            joinedTeamIdSet.addAll(baseMapper.listJoinedTeamIds(userId, batch));
+        }
+        return joinedTeamIdSet;
+    }
+
+    private static List<List<Long>> partition(Collection<Long> teamIds) {
+        List<Long> teamIdList = new ArrayList<>(new LinkedHashSet<>(teamIds));
+        List<List<Long>> batchList = new ArrayList<>();
+        for (int from = 0; from < teamIdList.size(); from += SELECT_BATCH_SIZE) {
+            batchList.add(teamIdList.subList(from, Math.min(from + SELECT_BATCH_SIZE, teamIdList.size())));
+        }
+        return batchList;
+    }
+}
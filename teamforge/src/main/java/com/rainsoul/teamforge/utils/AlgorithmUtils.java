@@ -6,9 +6,17 @@ import java.util.Objects;
 /**
  * 算法工具类，提供编辑距离算法的实现。
  * 原理: https://blog.csdn.net/DBC_121/article/details/104198838
+ * <p>
+ * 动态规划只保留上一行和当前行两行，行缓冲区按线程复用，计算过程中不产生垃圾对象。
+ * </p>
  */
 public class AlgorithmUtils {
 
+    /**
+     * 线程内复用的两行缓冲区，[0] 为上一行，[1] 为当前行
+     */
+    private static final ThreadLocal<int[][]> ROW_BUFFER = ThreadLocal.withInitial(() -> new int[2][64]);
+
     /**
      * 使用编辑距离算法计算两个标签列表之间的相似度。
      * 编辑距离是一个字符串相似度的度量，表示从一个字符串转换成另一个字符串所需的最少操作次数，
@@ -27,35 +35,43 @@ public class AlgorithmUtils {
             return n + m;
         }
 
-        // 初始化编辑距离矩阵
-        int[][] d = new int[n + 1][m + 1];
-        for (int i = 0; i < n + 1; i++) {
-            d[i][0] = i;
-        }
-
+        // 初始化第 0 行
+        int[][] rows = getRows(m + 1);
+        int[] prev = rows[0];
+        int[] cur = rows[1];
         for (int j = 0; j < m + 1; j++) {
-            d[0][j] = j;
+            prev[j] = j;
         }
 
         // 动态规划计算编辑距离
         for (int i = 1; i < n + 1; i++) {
+            String tag = tagList1.get(i - 1);
+            cur[0] = i;
             for (int j = 1; j < m + 1; j++) {
-                int left = d[i - 1][j] + 1; // 删除操作
-                int down = d[i][j - 1] + 1; // 插入操作
-                int left_down = d[i - 1][j - 1];
-                if (!Objects.equals(tagList1.get(i - 1), tagList2.get(j - 1))) {
+                int left = prev[j] + 1; // 删除操作
+                int down = cur[j - 1] + 1; // 插入操作
+                int left_down = prev[j - 1];
+                if (!Objects.equals(tag, tagList2.get(j - 1))) {
                     left_down += 1; // 替换操作
                 }
-                d[i][j] = Math.min(left, Math.min(down, left_down));
+                cur[j] = Math.min(left, Math.min(down, left_down));
             }
+            int[] temp = prev;
+            prev = cur;
+            cur = temp;
         }
-        return d[n][m];
+        return prev[m];
     }
 
     /**
      * 使用编辑距离算法计算两个字符串之间的相似度。
      * 编辑距离是一个字符串相似度的度量，表示从一个字符串转换成另一个字符串所需的最少操作次数，
      * 其中允许的操作包括删除一个字符、插入一个字符、替换一个字符。
+     * <p>
+     * 以较短的字符串为模式串，使用位并行算法（Myers / Hyyrö）计算：模式串不超过 64 个字符时
+     * 整列状态放在一个 long 中，每个文本字符只需常数次位运算；更长时按 64 位分块计算，
+     * 复杂度 O(⌈m / 64⌉ * n)。结果与动态规划完全一致。
+     * </p>
      *
      * @param word1 第一个字符串。
      * @param word2 第二个字符串。
@@ -68,27 +84,390 @@ public class AlgorithmUtils {
         if (n * m == 0) {
             return n + m;
         }
+        if (word1.equals(word2)) {
+            return 0;
+        }
+        // 较短的作为模式串，减少分块数
+        if (n < m) {
+            return bitParallelDistance(word1, word2);
+        }
+        return bitParallelDistance(word2, word1);
+    }
+
+    /**
+     * 使用经典动态规划计算两个字符串之间的编辑距离，复杂度 O(n * m)。
+     * 作为位并行实现的对照基准。
+     *
+     * @param word1 第一个字符串。
+     * @param word2 第二个字符串。
+     * @return 两个字符串之间的编辑距离。
+     */
+    static int minDistanceByDp(String word1, String word2) {
+        int n = word1.length();
+        int m = word2.length();
 
-        int[][] d = new int[n + 1][m + 1];
-        for (int i = 0; i < n + 1; i++) {
-            d[i][0] = i;
+        if (n * m == 0) {
+            return n + m;
         }
 
+        int[][] rows = getRows(m + 1);
+        int[] prev = rows[0];
+        int[] cur = rows[1];
         for (int j = 0; j < m + 1; j++) {
-            d[0][j] = j;
+            prev[j] = j;
         }
 
         for (int i = 1; i < n + 1; i++) {
+            char c = word1.charAt(i - 1);
+            cur[0] = i;
             for (int j = 1; j < m + 1; j++) {
-                int left = d[i - 1][j] + 1;
-                int down = d[i][j - 1] + 1;
-                int left_down = d[i - 1][j - 1];
-                if (word1.charAt(i - 1) != word2.charAt(j - 1)) {
+                int left = prev[j] + 1;
+                int down = cur[j - 1] + 1;
+                int left_down = prev[j - 1];
+                if (c != word2.charAt(j - 1)) {
+                    left_down += 1;
+                }
+                cur[j] = Math.min(left, Math.min(down, left_down));
+            }
+            int[] temp = prev;
+            prev = cur;
+            cur = temp;
+        }
+        return prev[m];
+    }
+
+    /**
+     * 使用编辑距离算法计算两个标签id数组之间的相似度。
+     * 与列表版本相同，但直接比较 int，无需装箱和 equals 调用。
+     *
+     * @param tagIds1 第一个标签id数组。
+     * @param tagIds2 第二个标签id数组。
+     * @return 两个标签id数组之间的编辑距离。
+     */
+    public static int minDistance(int[] tagIds1, int[] tagIds2) {
+        return minDistance(tagIds1, tagIds2, Math.max(tagIds1.length, tagIds2.length));
+    }
+
+    /**
+     * 计算两个标签id数组之间的编辑距离，超过 maxDistance 时提前结束。
+     * <p>
+     * 采用 Ukkonen 带状算法：距离不超过 maxDistance 时，最优路径一定落在主对角线两侧
+     * maxDistance 宽的带内，只计算带内的格子，复杂度 O(min(n, m) * maxDistance)；
+     * 一旦某一行带内的最小值超过 maxDistance，后续行只会更大，直接返回。
+     * 用于 Top-N 匹配时，maxDistance 取当前入选候选中最差的距离减一，不可能入选的用户很快被淘汰。
+     * </p>
+     *
+     * @param tagIds1     第一个标签id数组。
+     * @param tagIds2     第二个标签id数组。
+     * @param maxDistance 关心的最大距离，不能为负数。
+     * @return 编辑距离；超过 maxDistance 时返回 maxDistance + 1。
+     */
+    public static int minDistance(int[] tagIds1, int[] tagIds2, int maxDistance) {
+        int n = tagIds1.length;
+        int m = tagIds2.length;
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must not be negative");
+        }
+        // 编辑距离不会超过较长数组的长度，同时避免带外哨兵值溢出
+        maxDistance = Math.min(maxDistance, Math.max(n, m));
+        int limit = maxDistance + 1;
+        // 长度差就是距离的下界
+        if (Math.abs(n - m) > maxDistance) {
+            return limit;
+        }
+        if (n * m == 0) {
+            return n + m;
+        }
+
+        int[][] rows = getRows(m + 1);
+        int[] prev = rows[0];
+        int[] cur = rows[1];
+        int bandEnd = Math.min(m, maxDistance);
+        for (int j = 0; j <= bandEnd; j++) {
+            prev[j] = j;
+        }
+        if (bandEnd < m) {
+            prev[bandEnd + 1] = limit;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            // 带左侧的格子视为不可达
+            cur[from - 1] = from == 1 ? Math.min(i, limit) : limit;
+            int rowMin = cur[from - 1];
+            int tagId = tagIds1[i - 1];
+            for (int j = from; j <= to; j++) {
+                int left = prev[j] + 1;
+                int down = cur[j - 1] + 1;
+                int left_down = prev[j - 1];
+                if (tagId != tagIds2[j - 1]) {
                     left_down += 1;
                 }
-                d[i][j] = Math.min(left, Math.min(down, left_down));
+                int d = Math.min(limit, Math.min(left, Math.min(down, left_down)));
+                cur[j] = d;
+                if (d < rowMin) {
+                    rowMin = d;
+                }
+            }
+            // 带右侧的格子视为不可达，供下一行读取
+            if (to < m) {
+                cur[to + 1] = limit;
+            }
+            if (rowMin > maxDistance) {
+                return limit;
             }
+            int[] temp = prev;
+            prev = cur;
+            cur = temp;
+        }
+        return Math.min(prev[m], limit);
+    }
+
+    /**
+     * 判断升序数组 sortedIds 是否包含升序数组 requiredIds 中的所有元素。
+     * 两个数组同时向后归并，时间复杂度 O(n + m)，不分配额外内存。
+     *
+     * @param sortedIds   升序去重的id数组。
+     * @param requiredIds 升序去重的待匹配id数组。
+     * @return 全部包含返回true，否则返回false。
+     */
+    public static boolean containsAll(int[] sortedIds, int[] requiredIds) {
+        if (requiredIds.length > sortedIds.length) {
+            return false;
+        }
+        int i = 0;
+        for (int requiredId : requiredIds) {
+            while (i < sortedIds.length && sortedIds[i] < requiredId) {
+                i++;
+            }
+            if (i == sortedIds.length || sortedIds[i] != requiredId) {
+                return false;
+            }
+            i++;
+        }
+        return true;
+    }
+
+    /**
+     * 位并行计算编辑距离（Hyyrö 2003 分块版本，单块时即 Myers 算法）。
+     * <p>
+     * 将 DP 矩阵一列的相邻差值（只可能是 -1、0、+1）编码为 VP / VN 两个位向量，
+     * 每读入一个文本字符，用加法进位一次性传播整列的状态，并只跟踪最后一行的得分。
+     * </p>
+     *
+     * @param pattern 模式串，非空。
+     * @param text    文本串，非空。
+     * @return 编辑距离。
+     */
+    private static int bitParallelDistance(String pattern, String text) {
+        int m = pattern.length();
+        int words = (m + 63) >>> 6;
+        PatternMatchTable table = PATTERN_MATCH_TABLE.get();
+        table.build(pattern, words);
+        try {
+            if (words == 1) {
+                return myersDistance(table, m, text);
+            }
+            return blockDistance(table, m, words, text);
+        } finally {
+            table.clear();
+        }
+    }
+
+    /**
+     * 模式串不超过 64 个字符时的单字位并行实现。
+     */
+    private static int myersDistance(PatternMatchTable table, int m, String text) {
+        long last = 1L << (m - 1);
+        long vp = -1L;
+        long vn = 0L;
+        int score = m;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            long x = table.get(text.charAt(i), 0);
+            long d0 = (((x & vp) + vp) ^ vp) | x | vn;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & last) != 0) {
+                score++;
+            }
+            if ((hn & last) != 0) {
+                score--;
+            }
+            // 第 0 行的水平差值恒为 +1
+            hp = (hp << 1) | 1L;
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+        return score;
+    }
+
+    /**
+     * 模式串超过 64 个字符时的多字分块实现，块之间传递水平差值的进位。
+     */
+    private static int blockDistance(PatternMatchTable table, int m, int words, String text) {
+        long last = 1L << ((m - 1) & 63);
+        long[] vp = table.vp;
+        long[] vn = table.vn;
+        for (int w = 0; w < words; w++) {
+            vp[w] = -1L;
+            vn[w] = 0L;
+        }
+        int score = m;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            long hpCarry = 1L;
+            long hnCarry = 0L;
+            for (int w = 0; w < words; w++) {
+                long x = table.get(c, w) | hnCarry;
+                long d0 = (((x & vp[w]) + vp[w]) ^ vp[w]) | x | vn[w];
+                long hp = vn[w] | ~(d0 | vp[w]);
+                long hn = d0 & vp[w];
+                long hpCarryIn = hpCarry;
+                long hnCarryIn = hnCarry;
+                if (w < words - 1) {
+                    hpCarry = hp >>> 63;
+                    hnCarry = hn >>> 63;
+                } else {
+                    hpCarry = (hp & last) != 0 ? 1L : 0L;
+                    hnCarry = (hn & last) != 0 ? 1L : 0L;
+                }
+                hp = (hp << 1) | hpCarryIn;
+                hn = (hn << 1) | hnCarryIn;
+                vp[w] = hn | ~(d0 | hp);
+                vn[w] = hp & d0;
+            }
+            score += (int) hpCarry - (int) hnCarry;
+        }
+        return score;
+    }
+
+    /**
+     * 线程内复用的模式串字符位图表
+     */
+    private static final ThreadLocal<PatternMatchTable> PATTERN_MATCH_TABLE = ThreadLocal.withInitial(PatternMatchTable::new);
+
+    /**
+     * 模式串字符位图表：记录每个字符在模式串中出现的位置（第 w 块的第 k 位表示位置 64 * w + k）。
+     * ASCII 字符直接寻址，其他字符（如中文）使用开放寻址散列表。用完后只清理写入过的位置，供下次复用。
+     */
+    private static final class PatternMatchTable {
+
+        private static final int ASCII_SIZE = 128;
+
+        private int words;
+
+        private long[] ascii = new long[ASCII_SIZE];
+
+        private char[] extKeys = new char[64];
+
+        private long[] extMasks = new long[64];
+
+        private int[] usedSlots = new int[64];
+
+        private int usedSlotCount;
+
+        private String pattern;
+
+        private long[] vp = new long[2];
+
+        private long[] vn = new long[2];
+
+        void build(String pattern, int words) {
+            int m = pattern.length();
+            this.pattern = pattern;
+            this.words = words;
+            if (ascii.length < ASCII_SIZE * words) {
+                ascii = new long[ASCII_SIZE * words];
+            }
+            if (vp.length < words) {
+                vp = new long[words];
+                vn = new long[words];
+            }
+            // 散列表容量保持在模式串长度的两倍以上
+            int capacity = extKeys.length;
+            while (capacity < m * 2) {
+                capacity <<= 1;
+            }
+            if (capacity != extKeys.length) {
+                extKeys = new char[capacity];
+                extMasks = new long[capacity * words];
+                usedSlots = new int[capacity];
+            } else if (extMasks.length < capacity * words) {
+                extMasks = new long[capacity * words];
+            }
+            usedSlotCount = 0;
+            for (int i = 0; i < m; i++) {
+                char c = pattern.charAt(i);
+                int offset = (i >>> 6);
+                long bit = 1L << (i & 63);
+                if (c < ASCII_SIZE) {
+                    ascii[c * words + offset] |= bit;
+                } else {
+                    int slot = findSlot(c);
+                    if (extKeys[slot] == 0) {
+                        extKeys[slot] = c;
+                        usedSlots[usedSlotCount++] = slot;
+                    }
+                    extMasks[slot * words + offset] |= bit;
+                }
+            }
+        }
+
+        long get(char c, int word) {
+            if (c < ASCII_SIZE) {
+                return ascii[c * words + word];
+            }
+            int slot = findSlot(c);
+            return extKeys[slot] == 0 ? 0L : extMasks[slot * words + word];
+        }
+
+        void clear() {
+            for (int i = 0, m = pattern.length(); i < m; i++) {
+                char c = pattern.charAt(i);
+                if (c < ASCII_SIZE) {
+                    ascii[c * words + (i >>> 6)] = 0L;
+                }
+            }
+            for (int i = 0; i < usedSlotCount; i++) {
+                int slot = usedSlots[i];
+                extKeys[slot] = 0;
+                for (int w = 0; w < words; w++) {
+                    extMasks[slot * words + w] = 0L;
+                }
+            }
+            usedSlotCount = 0;
+            pattern = null;
+        }
+
+        /**
+         * 线性探测查找字符所在的槽位，字符不存在时返回遇到的第一个空槽位。
+         * 非 ASCII 字符不会是 0，因此用 0 表示空槽位。
+         */
+        private int findSlot(char c) {
+            int mask = extKeys.length - 1;
+            int slot = (c * 0x9E3779B1 >>> 16) & mask;
+            while (extKeys[slot] != 0 && extKeys[slot] != c) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * 获取当前线程的两行缓冲区，长度不足时扩容。
+     *
+     * @param length 每行需要的长度。
+     * @return 两行缓冲区。
+     */
+    private static int[][] getRows(int length) {
+        int[][] rows = ROW_BUFFER.get();
+        if (rows[0].length < length) {
+            int newLength = Math.max(length, rows[0].length * 2);
+            rows[0] = new int[newLength];
+            rows[1] = new int[newLength];
         }
-        return d[n][m];
+        return rows;
     }
 }
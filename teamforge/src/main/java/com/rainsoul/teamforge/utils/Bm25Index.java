@@ -0,0 +1,220 @@
+package com.rainsoul.teamforge.utils;
+
+import java.util.*;
+
+/**
+ * 基于字符二元组（bigram）分词的 BM25 倒排索引，用于队伍名称和描述的全文搜索。
+ * <p>
+ * 中文没有空格分词，按相邻两个字切分（“篮球比赛” -> 篮球、球比、比赛）即可在不依赖分词器的情况下匹配任意连续子串；
+ * 英文和数字按单词切分并转为小写。查询使用同样的方式切分，按 BM25 分数排序：
+ * score = Σ idf(t) * tf * (k1 + 1) / (tf + k1 * (1 - b + b * dl / avgdl))，
+ * idf(t) = ln(1 + (N - df + 0.5) / (df + 0.5))。
+ * 名称的词重复计入 nameBoost 次，名称命中比描述命中排名更靠前。
+ * </p>
+ * <p>
+ * 非线程安全，由调用方加锁。
+ * </p>
+ */
+public class Bm25Index {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /**
+     * 名称中的词计入的次数
+     */
+    private final int nameBoost;
+
+    /**
+     * 词 -> (文档id -> 词频)
+     */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * 文档id -> 该文档的词频，用于更新和删除时从倒排表中移除
+     */
+    private final Map<Long, Map<String, Integer>> docTermFreqs = new HashMap<>();
+
+    /**
+     * 文档id -> 文档长度（词数）
+     */
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * @param nameBoost 名称中的词计入的次数，至少为 1。
+     */
+    public Bm25Index(int nameBoost) {
+        if (nameBoost <= 0) {
+            throw new IllegalArgumentException("nameBoost must be positive");
+        }
+        this.nameBoost = nameBoost;
+    }
+
+    /**
+     * 添加或替换文档。
+     *
+     * @param docId       文档id
+     * @param name        名称，可为null
+     * @param description 描述，可为null
+     */
+    public void put(long docId, String name, String description) {
+        remove(docId);
+        Map<String, Integer> termFreqs = new HashMap<>();
+        List<String> nameTokens = tokenize(name);
+        for (String token : nameTokens) {
+            termFreqs.merge(token, nameBoost, Integer::sum);
+        }
+        List<String> descriptionTokens = tokenize(description);
+        for (String token : descriptionTokens) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        if (termFreqs.isEmpty()) {
+            return;
+        }
+        int length = nameTokens.size() * nameBoost + descriptionTokens.size();
+        termFreqs.forEach((term, freq) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(docId, freq));
+        docTermFreqs.put(docId, termFreqs);
+        docLengths.put(docId, length);
+        totalLength += length;
+    }
+
+    /**
+     * 删除文档，不存在时忽略。
+     *
+     * @param docId 文档id
+     */
+    public void remove(long docId) {
+        Map<String, Integer> termFreqs = docTermFreqs.remove(docId);
+        if (termFreqs == null) {
+            return;
+        }
+        for (String term : termFreqs.keySet()) {
+            Map<Long, Integer> docFreqs = postings.get(term);
+            docFreqs.remove(docId);
+            if (docFreqs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= docLengths.remove(docId);
+    }
+
+    /**
+     * 搜索包含任一查询词的文档，按 BM25 分数从高到低排序。
+     *
+     * @param query 查询文本
+     * @param limit 最多返回的文档数
+     * @return 文档id列表，没有匹配时返回空列表
+     */
+    public List<Long> search(String query, int limit) {
+        int docCount = docLengths.size();
+        if (docCount == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        double avgLength = (double) totalLength / docCount;
+        Map<Long, Double> scoreMap = new HashMap<>();
+        // 查询中重复的词只计算一次
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Map<Long, Integer> docFreqs = postings.get(term);
+            if (docFreqs == null) {
+                continue;
+            }
+            int df = docFreqs.size();
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            docFreqs.forEach((docId, tf) -> {
+                double norm = K1 * (1 - B + B * docLengths.get(docId) / avgLength);
+                scoreMap.merge(docId, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            });
+        }
+        // 分数相同时id大（较新）的在前
+        PriorityQueue<Map.Entry<Long, Double>> topQueue = new PriorityQueue<>(
+                Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<Long, Double> entry : scoreMap.entrySet()) {
+            topQueue.offer(entry);
+            if (topQueue.size() > limit) {
+                topQueue.poll();
+            }
+        }
+        List<Long> docIdList = new ArrayList<>(topQueue.size());
+        while (!topQueue.isEmpty()) {
+            docIdList.add(topQueue.poll().getKey());
+        }
+        Collections.reverse(docIdList);
+        return docIdList;
+    }
+
+    /**
+     * 索引中的文档数。
+     *
+     * @return 文档数
+     */
+    public int size() {
+        return docLengths.size();
+    }
+
+    /**
+     * 判断查询文本能否使用索引：单独的一个汉字切不出二元组，无法匹配，需要调用方退回其他方式搜索。
+     *
+     * @param query 查询文本
+     * @return 能切分出至少一个词且不包含单字时返回true
+     */
+    public static boolean isSearchable(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        for (String token : tokens) {
+            if (token.length() == 1 && !isAsciiLetterOrDigit(token.charAt(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 分词：英文和数字按单词切分并转为小写，其他文字（中文等）按连续两个字切分，
+     * 长度为 1 的非英文片段保留单字。标点和空白作为分隔符。
+     *
+     * @param text 文本，可为null
+     * @return 词列表，保留重复
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isAsciiLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && isAsciiLetterOrDigit(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isAsciiLetterOrDigit(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(text.substring(start, i));
+                } else {
+                    for (int j = start; j + 1 < i; j++) {
+                        tokens.add(text.substring(j, j + 2));
+                    }
+                }
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,172 @@
+package com.rainsoul.teamforge.utils;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 基于 MinHash 的局部敏感哈希（LSH）索引，用于快速召回标签集合相似的用户。
+ * <p>
+ * 每个用户的标签集合计算 bands * rows 个 MinHash 值，每 rows 个值组成一个分段并哈希到桶中。
+ * 两个集合的 Jaccard 相似度为 s 时，至少在一个分段中落入同一个桶的概率为 1 - (1 - s^rows)^bands，
+ * 因此查询时只需合并查询集合所在的 bands 个桶，即可以很高的概率召回相似用户，而不必遍历全部用户。
+ * </p>
+ * <p>
+ * 非线程安全，由调用方加锁。
+ * </p>
+ */
+public class MinHashLsh {
+
+    /**
+     * 固定种子，保证重建前后同一标签集合的签名不变
+     */
+    private static final long SEED = 0x5EED_7A65L;
+
+    private final int bands;
+
+    private final int rows;
+
+    /**
+     * 每个哈希函数的种子，长度 bands * rows
+     */
+    private final long[] hashSeeds;
+
+    /**
+     * 每个分段一张表：分段哈希值 -> 用户id位图
+     */
+    private final List<Map<Long, RoaringBitmap>> buckets;
+
+    /**
+     * 用户id -> 各分段的哈希值，用于更新时从旧桶中移除
+     */
+    private final Map<Integer, long[]> userBandKeys = new HashMap<>();
+
+    /**
+     * @param bands 分段数，越大召回率越高、候选越多。
+     * @param rows  每个分段的哈希值个数，越大对相似度要求越严格、候选越少。
+     */
+    public MinHashLsh(int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        SplittableRandom random = new SplittableRandom(SEED);
+        this.hashSeeds = new long[bands * rows];
+        for (int i = 0; i < hashSeeds.length; i++) {
+            hashSeeds[i] = random.nextLong();
+        }
+        this.buckets = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 写入或更新用户的标签集合，空集合视为删除。
+     *
+     * @param userId 用户id。
+     * @param tagIds 标签id数组。
+     */
+    public void put(int userId, int[] tagIds) {
+        remove(userId);
+        if (tagIds == null || tagIds.length == 0) {
+            return;
+        }
+        long[] bandKeys = bandKeys(tagIds);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandKeys[band], k -> new RoaringBitmap()).add(userId);
+        }
+        userBandKeys.put(userId, bandKeys);
+    }
+
+    /**
+     * 从索引中移除用户。
+     *
+     * @param userId 用户id。
+     */
+    public void remove(int userId) {
+        long[] bandKeys = userBandKeys.remove(userId);
+        if (bandKeys == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            Map<Long, RoaringBitmap> bandBuckets = buckets.get(band);
+            RoaringBitmap bitmap = bandBuckets.get(bandKeys[band]);
+            if (bitmap != null) {
+                bitmap.remove(userId);
+                if (bitmap.isEmpty()) {
+                    bandBuckets.remove(bandKeys[band]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查询与给定标签集合至少在一个分段中碰撞的用户。
+     *
+     * @param tagIds 标签id数组。
+     * @return 候选用户id位图（新对象），可能包含查询用户自己。
+     */
+    public RoaringBitmap candidates(int[] tagIds) {
+        if (tagIds == null || tagIds.length == 0) {
+            return new RoaringBitmap();
+        }
+        long[] bandKeys = bandKeys(tagIds);
+        List<RoaringBitmap> hitList = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            RoaringBitmap bitmap = buckets.get(band).get(bandKeys[band]);
+            if (bitmap != null) {
+                hitList.add(bitmap);
+            }
+        }
+        if (hitList.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        return FastAggregation.or(hitList.iterator());
+    }
+
+    /**
+     * @return 索引中的用户数。
+     */
+    public int size() {
+        return userBandKeys.size();
+    }
+
+    /**
+     * 计算标签集合每个分段的哈希值。
+     */
+    private long[] bandKeys(int[] tagIds) {
+        long[] bandKeys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                long seed = hashSeeds[band * rows + row];
+                long min = Long.MAX_VALUE;
+                for (int tagId : tagIds) {
+                    long h = mix(tagId ^ seed);
+                    if (h < min) {
+                        min = h;
+                    }
+                }
+                key = mix(key * 31 + min);
+            }
+            bandKeys[band] = key;
+        }
+        return bandKeys;
+    }
+
+    /**
+     * 64 位哈希混淆函数（SplitMix64 的终结步骤）。
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
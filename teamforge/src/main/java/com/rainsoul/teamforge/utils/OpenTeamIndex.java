@@ -0,0 +1,246 @@
+package com.rainsoul.teamforge.utils;
+
+import com.rainsoul.teamforge.model.domain.Team;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 开放队伍（公开和加密）的内存有序索引，用于队伍列表查询
+ * <p>
+ * 主索引是按 创建时间倒序、id倒序 排列的跳表，另有按队长id和按状态的二级索引，同样有序，
+ * 按队长或单个状态查询时只遍历对应的二级索引。读取无锁，可以和更新并发执行。
+ * 同一个队伍的更新需要由调用方串行，不同队伍的更新可以并发。
+ * </p>
+ * <p>
+ * 同时维护所有队伍的校验和（每个队伍的 {@link #crc(Team)} 异或），用于和数据库比对发现偏差。
+ * </p>
+ */
+public class OpenTeamIndex {
+
+    /**
+     * 队伍 -> 排序 key
+     */
+    private final ConcurrentMap<Long, Key> keyMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Key, IndexedTeam> sortedMap = new ConcurrentSkipListMap<>();
+
+    /**
+     * 队长id -> 排序 key
+     */
+    private final ConcurrentMap<Long, ConcurrentSkipListSet<Key>> userIdMap = new ConcurrentHashMap<>();
+
+    /**
+     * 状态 -> 排序 key
+     */
+    private final ConcurrentMap<Integer, ConcurrentSkipListSet<Key>> statusMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong checksum = new AtomicLong();
+
+    /**
+     * 添加或替换队伍。
+     *
+     * @param team      队伍，放入后不能再修改
+     * @param memberIds 成员id
+     */
+    public void put(Team team, Collection<Long> memberIds) {
+        Key key = Key.of(team);
+        IndexedTeam indexedTeam = new IndexedTeam(team, Set.copyOf(memberIds), crc(team));
+        Key oldKey = keyMap.put(team.getId(), key);
+        IndexedTeam oldTeam = null;
+        if (oldKey != null && !oldKey.equals(key)) {
+            oldTeam = sortedMap.remove(oldKey);
+        }
+        // key 不变时原地替换，读取方不会看到队伍短暂消失
+        IndexedTeam replacedTeam = sortedMap.put(key, indexedTeam);
+        if (replacedTeam != null) {
+            oldTeam = replacedTeam;
+        }
+        addSecondary(key, team);
+        if (oldTeam != null) {
+            // 只删除变化了的二级索引项，未变化的项已在集合中，先删除会让查询短暂漏掉该队伍
+            Team old = oldTeam.team();
+            boolean keyChanged = !oldKey.equals(key);
+            if (old.getUserId() != null && (keyChanged || !old.getUserId().equals(team.getUserId()))) {
+                removeSecondary(userIdMap, old.getUserId(), oldKey);
+            }
+            if (keyChanged || !old.getStatus().equals(team.getStatus())) {
+                removeSecondary(statusMap, old.getStatus(), oldKey);
+            }
+            checksum.accumulateAndGet(oldTeam.crc(), (a, b) -> a ^ b);
+        }
+        checksum.accumulateAndGet(indexedTeam.crc(), (a, b) -> a ^ b);
+    }
+
+    /**
+     * 删除队伍，不存在时忽略。
+     *
+     * @param teamId 队伍id
+     */
+    public void remove(long teamId) {
+        Key key = keyMap.remove(teamId);
+        if (key == null) {
+            return;
+        }
+        IndexedTeam oldTeam = sortedMap.remove(key);
+        if (oldTeam != null) {
+            Team old = oldTeam.team();
+            if (old.getUserId() != null) {
+                removeSecondary(userIdMap, old.getUserId(), key);
+            }
+            removeSecondary(statusMap, old.getStatus(), key);
+            checksum.accumulateAndGet(oldTeam.crc(), (a, b) -> a ^ b);
+        }
+    }
+
+    /**
+     * 按排序顺序查询队伍。
+     *
+     * @param userId     队长id，为null时不限制
+     * @param statusList 允许的状态，不能为空
+     * @param filter     其他过滤条件
+     * @param after      从该位置之后开始（不含），为null时从头开始
+     * @param limit      最多返回的队伍数，小于等于 0 时不限制
+     * @return 按创建时间倒序、id倒序排列的队伍
+     */
+    public List<IndexedTeam> query(Long userId, Collection<Integer> statusList, Predicate<Team> filter,
+                                   Key after, int limit) {
+        NavigableSet<Key> keySet;
+        if (userId != null) {
+            keySet = userIdMap.get(userId);
+        } else if (statusList.size() == 1) {
+            keySet = statusMap.get(statusList.iterator().next());
+        } else {
+            keySet = sortedMap.keySet();
+        }
+        List<IndexedTeam> resultList = new ArrayList<>();
+        if (keySet == null) {
+            return resultList;
+        }
+        if (after != null) {
+            keySet = keySet.tailSet(after, false);
+        }
+        for (Key key : keySet) {
+            IndexedTeam indexedTeam = sortedMap.get(key);
+            // 二级索引和主索引不是原子更新的，取到主索引中的队伍后重新判断所有条件
+            if (indexedTeam == null) {
+                continue;
+            }
+            Team team = indexedTeam.team();
+            if (!statusList.contains(team.getStatus())
+                    || (userId != null && !userId.equals(team.getUserId()))
+                    || !filter.test(team)) {
+                continue;
+            }
+            resultList.add(indexedTeam);
+            if (limit > 0 && resultList.size() >= limit) {
+                break;
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 索引中的队伍数。
+     *
+     * @return 队伍数
+     */
+    public int size() {
+        return keyMap.size();
+    }
+
+    /**
+     * 所有队伍的校验和。
+     *
+     * @return 每个队伍的 {@link #crc(Team)} 的异或
+     */
+    public long checksum() {
+        return checksum.get();
+    }
+
+    /**
+     * 计算单个队伍的校验值，与数据库中
+     * crc32(concat_ws('|', id, ifnull(userId, ''), status, maxNum, memberCount, name, ifnull(description, '')))
+     * 的结果相同（字符集为 utf8mb4）。
+     *
+     * @param team 队伍
+     * @return 校验值
+     */
+    public static long crc(Team team) {
+        String text = String.join("|",
+                String.valueOf(team.getId()),
+                team.getUserId() == null ? "" : String.valueOf(team.getUserId()),
+                String.valueOf(team.getStatus()),
+                String.valueOf(team.getMaxNum()),
+                String.valueOf(team.getMemberCount()),
+                team.getName(),
+                team.getDescription() == null ? "" : team.getDescription());
+        CRC32 crc32 = new CRC32();
+        crc32.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc32.getValue();
+    }
+
+    private void addSecondary(Key key, Team team) {
+        if (team.getUserId() != null) {
+            addSecondary(userIdMap, team.getUserId(), key);
+        }
+        addSecondary(statusMap, team.getStatus(), key);
+    }
+
+    private static <T> void addSecondary(ConcurrentMap<T, ConcurrentSkipListSet<Key>> map, T value, Key key) {
+        map.compute(value, (k, keySet) -> {
+            if (keySet == null) {
+                keySet = new ConcurrentSkipListSet<>();
+            }
+            keySet.add(key);
+            return keySet;
+        });
+    }
+
+    /**
+     * 从二级索引中删除，集合为空时一并删除。
+     */
+    private static <T> void removeSecondary(ConcurrentMap<T, ConcurrentSkipListSet<Key>> map, T value, Key key) {
+        map.computeIfPresent(value, (k, keySet) -> {
+            keySet.remove(key);
+            return keySet.isEmpty() ? null : keySet;
+        });
+    }
+
+    /**
+     * 排序 key：创建时间倒序，相同时id倒序
+     *
+     * @param createTime 创建时间（毫秒）
+     * @param id         队伍id
+     */
+    public record Key(long createTime, long id) implements Comparable<Key> {
+
+        public static Key of(Team team) {
+            Date createTime = team.getCreateTime();
+            return new Key(createTime == null ? 0 : createTime.getTime(), team.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(other.createTime, createTime);
+            return result != 0 ? result : Long.compare(other.id, id);
+        }
+    }
+
+    /**
+     * 索引中的队伍
+     *
+     * @param team      队伍，不包含密码
+     * @param memberIds 成员id
+     * @param crc       校验值
+     */
+    public record IndexedTeam(Team team, Set<Long> memberIds, long crc) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.rainsoul.teamforge.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 提前刷新和过期返回旧值测试，使用手动时钟和手动执行的线程池
+ */
+class RefreshAheadCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final List<Runnable> refreshTaskList = new ArrayList<>();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Test
+    void serveStaleWhileRevalidate() {
+        RefreshAheadCache<String, Integer> cache = newCache(0, 0.5);
+        Assertions.assertEquals(1, cache.get("team", this::load));
+
+        // 过了新鲜期：多次读取都立即返回旧值，只提交一次后台刷新
+        now.addAndGet(Duration.ofSeconds(61).toMillis());
+        Assertions.assertEquals(1, cache.get("team", this::load));
+        Assertions.assertEquals(1, cache.get("team", this::load));
+        Assertions.assertEquals(1, refreshTaskList.size());
+
+        refreshTaskList.remove(0).run();
+        Assertions.assertEquals(2, cache.get("team", this::load));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    void refreshEarlyByProbability() {
+        // random 越接近 0，-ln(random) 越大，越早刷新
+        RefreshAheadCache<String, Integer> farCache = newCache(1, 0.5);
+        farCache.get("team", this::load);
+        now.addAndGet(Duration.ofSeconds(59).toMillis());
+        farCache.get("team", this::load);
+        Assertions.assertTrue(refreshTaskList.isEmpty());
+
+        RefreshAheadCache<String, Integer> nearCache = newCache(1, 1e-300);
+        nearCache.get("team", this::load);
+        nearCache.get("team", this::load);
+        Assertions.assertEquals(1, refreshTaskList.size());
+    }
+
+    private RefreshAheadCache<String, Integer> newCache(double beta, double random) {
+        return new RefreshAheadCache<>(100, Duration.ofSeconds(60), Duration.ofSeconds(300), beta,
+                refreshTaskList::add, now::get, () -> random);
+    }
+
+    private Integer load() {
+        // 每次加载耗时 1 秒
+        now.addAndGet(1000);
+        return loadCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rainsoul.teamforge.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求合并测试
+ */
+class SingleFlightTest {
+
+    private static final int THREAD_NUM = 64;
+
+    /**
+     * 缓存同时失效时 64 个并发请求只访问一次数据库
+     */
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch arrivedLatch = new CountDownLatch(THREAD_NUM);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_NUM);
+        try {
+            List<Future<String>> futureList = new ArrayList<>();
+            for (int i = 0; i < THREAD_NUM; i++) {
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    arrivedLatch.countDown();
+                    return singleFlight.execute("recommend", () -> {
+                        loadCount.incrementAndGet();
+                        // 模拟慢查询，所有请求都到达后再返回
+                        awaitQuietly(arrivedLatch);
+                        sleepQuietly(100);
+                        return "page";
+                    });
+                }));
+            }
+            startLatch.countDown();
+            for (Future<String> future : futureList) {
+                Assertions.assertEquals("page", future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertFalse(singleFlight.isInFlight("recommend"));
+    }
+
+    @Test
+    void failurePropagatesAndNextCallReloads() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute("team", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        Assertions.assertEquals("team", singleFlight.execute("team", () -> "team"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.rainsoul.teamforge.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 二级缓存测试，关闭 Redis 二级缓存，只验证一级缓存、统计和失效通知
+ */
+class TwoLevelCacheTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisSerializer<Object> serializer;
+
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        serializer = mock(RedisSerializer.class);
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+        cacheManager = new TwoLevelCacheManager(redisTemplate, false, 100,
+                Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void loadOnceAndCountHits() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("user");
+        AtomicInteger loadCount = new AtomicInteger();
+        Assertions.assertEquals("user1", cache.get(1L, () -> "user" + loadCount.incrementAndGet()));
+        Assertions.assertEquals("user1", cache.get(1L, () -> "user" + loadCount.incrementAndGet()));
+        // Long 和 Integer 类型的同一个id是同一个 key
+        Assertions.assertEquals("user1", cache.get(1).get());
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertEquals(2, cache.getStats().getL1Hits());
+        Assertions.assertEquals(1, cache.getStats().getMisses());
+
+        cache.evict(1L);
+        Assertions.assertNull(cache.get(1L));
+        verify(redisTemplate, times(1)).convertAndSend(anyString(), any(CacheInvalidationMessage.class));
+    }
+
+    @Test
+    void invalidateOnMessageFromOtherNode() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("team");
+        cache.put(1L, "team1");
+        Message message = mock(Message.class);
+
+        when(serializer.deserialize(any())).thenReturn(new CacheInvalidationMessage("other-node", "team", "1"));
+        cacheManager.onMessage(message, null);
+
+        Assertions.assertNull(cache.get(1L));
+        Assertions.assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void evictInTransactionRunsAfterCommit() {
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("team");
+        cache.put(1L, "team1");
+        cache.put(2L, "team2");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1L);
+            // 提交前不删除，其他请求不会在提交前把旧数据重新加载进缓存
+            Assertions.assertEquals("team1", cache.get(1L).get());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Assertions.assertNull(cache.get(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // 回滚时数据库没有变化，不删除缓存
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(2L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Assertions.assertEquals("team2", cache.get(2L).get());
+    }
+}
@@ -0,0 +1,50 @@
+package com.rainsoul.teamforge.expire;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+/**
+ * 分层时间轮测试：随机到期时间的元素都在所在格走完时到期，不早到也不漏掉
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MILLIS = 1000;
+
+    @Test
+    void expireAtDeadline() {
+        long start = 1_700_000_000_123L;
+        HierarchicalTimingWheel<Long> timingWheel = new HierarchicalTimingWheel<>(TICK_MILLIS, 10, 3, start);
+        Random random = new Random(42);
+        Map<Long, Long> deadlineMap = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            long deadline = start + random.nextLong(900_000);
+            Assertions.assertTrue(timingWheel.add(deadline, id));
+            deadlineMap.put(id, deadline);
+        }
+        // 超出范围的元素不添加
+        Assertions.assertFalse(timingWheel.add(timingWheel.horizon(), 0L));
+
+        Set<Long> expiredIdSet = new HashSet<>();
+        for (long now = start; now <= start + 1_000_000; now += 700) {
+            for (Long id : timingWheel.advance(now)) {
+                long deadline = deadlineMap.get(id);
+                Assertions.assertTrue(deadline <= now, "expired too early");
+                Assertions.assertTrue(now - deadline < TICK_MILLIS + 700, "expired too late");
+                Assertions.assertTrue(expiredIdSet.add(id));
+            }
+        }
+        Assertions.assertEquals(deadlineMap.keySet(), expiredIdSet);
+        Assertions.assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    void expireOverdueOnNextAdvance() {
+        HierarchicalTimingWheel<Long> timingWheel = new HierarchicalTimingWheel<>(TICK_MILLIS, 60, 3, 10_000);
+        timingWheel.add(5_000, 1L);
+        timingWheel.add(10_500, 2L);
+        Assertions.assertEquals(List.of(1L), timingWheel.advance(10_999));
+        Assertions.assertEquals(List.of(2L), timingWheel.advance(11_000));
+    }
+}
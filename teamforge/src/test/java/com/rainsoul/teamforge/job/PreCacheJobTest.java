@@ -0,0 +1,76 @@
+package com.rainsoul.teamforge.job;
+
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 推荐用户预热任务测试，Redis 和 Redisson 使用 Mockito 替身
+ */
+@ExtendWith(MockitoExtension.class)
+class PreCacheJobTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock lock;
+
+    @InjectMocks
+    private PreCacheJob preCacheJob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(preCacheJob, "recommendUserList", List.of(1L));
+        ReflectionTestUtils.setField(preCacheJob, "activeUserNum", 10);
+        ReflectionTestUtils.setField(preCacheJob, "pageNum", 2);
+        ReflectionTestUtils.setField(preCacheJob, "pageSize", 8);
+        ReflectionTestUtils.setField(preCacheJob, "lockLeaseSeconds", 600L);
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+    }
+
+    @Test
+    void warmPagesWhenLockAcquired() throws InterruptedException {
+        User activeUser = new User();
+        activeUser.setId(2L);
+        when(lock.tryLock(0, 600L, TimeUnit.SECONDS)).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        when(userService.list(any())).thenReturn(List.of(activeUser));
+
+        preCacheJob.doCacheRecommendUser();
+
+        // 未登录用户、配置用户、活跃用户各预热 2 页
+        for (long userId : new long[]{0L, 1L, 2L}) {
+            verify(userService).cacheRecommendUsers(userId, 1, 8);
+            verify(userService).cacheRecommendUsers(userId, 2, 8);
+        }
+        verify(lock).unlock();
+    }
+
+    @Test
+    void skipWhenLockHeldByOtherNode() throws InterruptedException {
+        when(lock.tryLock(0, 600L, TimeUnit.SECONDS)).thenReturn(false);
+
+        preCacheJob.doCacheRecommendUser();
+
+        verify(userService, never()).cacheRecommendUsers(anyLong(), anyLong(), anyLong());
+        verify(lock, never()).unlock();
+    }
+}
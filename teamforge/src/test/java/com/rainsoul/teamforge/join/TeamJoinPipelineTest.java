@@ -0,0 +1,293 @@
+package com.rainsoul.teamforge.join;
+
+import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.mapper.TeamMapper;
+import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.mapper.UserTeamMapper;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.dto.UserTeamCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.rainsoul.teamforge.constant.UserConstant.MAX_JOIN_TEAM_NUM;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量加入流水线测试，用内存中的计数模拟数据库
+ */
+class TeamJoinPipelineTest {
+
+    private static final long TEAM_ID = 1L;
+
+    private final AtomicInteger memberCount = new AtomicInteger(1);
+
+    /**
+     * 其他队伍的已加入人数，创建人占一个名额
+     */
+    private final ConcurrentMap<Long, AtomicInteger> otherMemberCountMap = new ConcurrentHashMap<>();
+
+    /**
+     * 用户id -> 已加入的队伍数
+     */
+    private final ConcurrentMap<Long, AtomicInteger> userTeamCountMap = new ConcurrentHashMap<>();
+
+    /**
+     * 模拟用户行锁，事务结束时释放
+     */
+    private final ConcurrentMap<Long, ReentrantLock> userRowLockMap = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<List<ReentrantLock>> heldRowLocks = ThreadLocal.withInitial(ArrayList::new);
+
+    private final AtomicInteger insertedNum = new AtomicInteger();
+
+    private final AtomicInteger batchNum = new AtomicInteger();
+
+    private final AtomicInteger transactionNum = new AtomicInteger();
+
+    /**
+     * 放行第一个事务，保证批次的划分不依赖提交线程和处理线程的调度
+     */
+    private final CountDownLatch submitted = new CountDownLatch(1);
+
+    /**
+     * 每次 SQL 调用模拟的往返耗时（毫秒），默认为 0，吞吐量测试和需要拉长并发窗口的测试中设置
+     */
+    private volatile long roundTripMillis;
+
+    private final List<TeamJoinPipeline> pipelineList = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pipelineList.forEach(TeamJoinPipeline::shutdown);
+    }
+
+    /**
+     * 1000 个请求同时加入最多 20 人的队伍，恰好 19 个成功（创建人占一个名额），且按批写入
+     */
+    @Test
+    void concurrentJoinsFillTeamExactly() {
+        TeamJoinPipeline pipeline = newPipeline(20, 64);
+        List<CompletableFuture<Boolean>> futureList = new ArrayList<>();
+        for (long userId = 1; userId <= 1000; userId++) {
+            futureList.add(pipeline.submit(TEAM_ID, userId, null));
+        }
+        submitted.countDown();
+        int successNum = 0;
+        int fullNum = 0;
+        for (CompletableFuture<Boolean> future : futureList) {
+            try {
+                if (future.join()) {
+                    successNum++;
+                }
+            } catch (CompletionException e) {
+                Assertions.assertInstanceOf(BusinessException.class, e.getCause());
+                fullNum++;
+            }
+        }
+        Assertions.assertEquals(19, successNum);
+        Assertions.assertEquals(981, fullNum);
+        Assertions.assertEquals(20, memberCount.get());
+        Assertions.assertEquals(19, insertedNum.get());
+        Assertions.assertTrue(batchNum.get() < 19, "joins should be written in batches");
+    }
+
+    /**
+     * 同一用户同时加入多个队伍，各队伍的批次并行处理，成功的个数不超过加入队伍数的上限
+     */
+    @Test
+    void oneUserJoinsManyTeamsWithinLimit() {
+        roundTripMillis = 1;
+        TeamJoinPipeline pipeline = newPipeline(20, 64);
+        long userId = 1;
+        List<CompletableFuture<Boolean>> futureList = new ArrayList<>();
+        for (long teamId = 100; teamId < 100 + MAX_JOIN_TEAM_NUM * 4; teamId++) {
+            futureList.add(pipeline.submit(teamId, userId, null));
+        }
+        submitted.countDown();
+        int successNum = 0;
+        for (CompletableFuture<Boolean> future : futureList) {
+            try {
+                if (future.join()) {
+                    successNum++;
+                }
+            } catch (CompletionException e) {
+                Assertions.assertInstanceOf(BusinessException.class, e.getCause());
+            }
+        }
+        Assertions.assertEquals(MAX_JOIN_TEAM_NUM, successNum);
+        Assertions.assertEquals(MAX_JOIN_TEAM_NUM, userTeamCountMap.get(userId).get());
+    }
+
+    /**
+     * 第一个事务等到全部请求入队后才执行，之后的请求按批处理，事务数与批数相关而不是与请求数相关
+     */
+    @Test
+    void joinsAreProcessedInBatches() {
+        int joinNum = 300;
+        joinAll(newPipeline(Integer.MAX_VALUE, 64), joinNum);
+        Assertions.assertEquals(joinNum + 1, memberCount.get());
+        Assertions.assertEquals(joinNum, insertedNum.get());
+        // 第一批在放行前取出，剩余请求每批 64 个
+        Assertions.assertTrue(transactionNum.get() <= 1 + (joinNum + 63) / 64,
+                "transactions: " + transactionNum.get());
+        Assertions.assertEquals(transactionNum.get(), batchNum.get());
+    }
+
+    /**
+     * 每批 1 个时逐个处理，每个请求一个事务
+     */
+    @Test
+    void batchSizeOneProcessesOneAtATime() {
+        int joinNum = 300;
+        joinAll(newPipeline(Integer.MAX_VALUE, 1), joinNum);
+        Assertions.assertEquals(joinNum, insertedNum.get());
+        Assertions.assertEquals(joinNum, transactionNum.get());
+        Assertions.assertEquals(joinNum, batchNum.get());
+    }
+
+    /**
+     * 与逐个处理（每批 1 个）比较吞吐量，每次 SQL 调用模拟 1 毫秒的往返耗时。
+     * 依赖机器负载，默认不运行，指定 -Dteamforge.benchmark=true 时运行
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "teamforge.benchmark", matches = "true")
+    void throughput(TestReporter testReporter) {
+        int joinNum = 300;
+        roundTripMillis = 1;
+        submitted.countDown();
+        long oneAtATimeMillis = measure(newPipeline(Integer.MAX_VALUE, 1), joinNum);
+        long batchedMillis = measure(newPipeline(Integer.MAX_VALUE, 64), joinNum);
+        testReporter.publishEntry("one at a time", String.format("%d joins, %d ms (%.0f joins/s)",
+                joinNum, oneAtATimeMillis, joinNum * 1000.0 / oneAtATimeMillis));
+        testReporter.publishEntry("batched", String.format("%d joins, %d ms (%.0f joins/s)",
+                joinNum, batchedMillis, joinNum * 1000.0 / batchedMillis));
+    }
+
+    /**
+     * 提交全部请求后放行第一个事务，等待全部加入成功
+     */
+    private void joinAll(TeamJoinPipeline pipeline, int joinNum) {
+        List<CompletableFuture<Boolean>> futureList = new ArrayList<>();
+        for (long userId = 1; userId <= joinNum; userId++) {
+            futureList.add(pipeline.submit(TEAM_ID, userId, null));
+        }
+        submitted.countDown();
+        futureList.forEach(future -> Assertions.assertTrue(future.join()));
+    }
+
+    private long measure(TeamJoinPipeline pipeline, int joinNum) {
+        memberCount.set(1);
+        long start = System.nanoTime();
+        joinAll(pipeline, joinNum);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private TeamJoinPipeline newPipeline(int maxNum, int batchSize) {
+        TeamMapper teamMapper = mock(TeamMapper.class);
+        UserTeamMapper userTeamMapper = mock(UserTeamMapper.class);
+        UserMapper userMapper = mock(UserMapper.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            transactionNum.incrementAndGet();
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                // 提交或回滚时释放行锁
+                heldRowLocks.get().forEach(ReentrantLock::unlock);
+                heldRowLocks.remove();
+            }
+        });
+        when(userMapper.selectIdsForUpdate(anyCollection())).thenAnswer(invocation -> {
+            roundTrip();
+            Collection<Long> userIds = invocation.getArgument(0);
+            for (Long userId : userIds) {
+                ReentrantLock rowLock = userRowLockMap.computeIfAbsent(userId, id -> new ReentrantLock());
+                rowLock.lock();
+                heldRowLocks.get().add(rowLock);
+            }
+            return new ArrayList<>(userIds);
+        });
+        when(teamMapper.selectByIdForUpdate(anyLong())).thenAnswer(invocation -> {
+            Assertions.assertTrue(submitted.await(10, TimeUnit.SECONDS));
+            roundTrip();
+            long teamId = invocation.getArgument(0);
+            Team team = new Team();
+            team.setId(teamId);
+            team.setMaxNum(maxNum);
+            team.setMemberCount(memberCountOf(teamId).get());
+            team.setStatus(0);
+            team.setExpireTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+            return team;
+        });
+        when(teamMapper.addMemberCount(anyLong(), anyInt())).thenAnswer(invocation -> {
+            roundTrip();
+            long teamId = invocation.getArgument(0);
+            int delta = invocation.getArgument(1);
+            return memberCountOf(teamId).addAndGet(delta) <= maxNum ? 1 : 0;
+        });
+        when(userTeamMapper.listMemberUserIds(anyLong(), anyCollection())).thenAnswer(invocation -> {
+            roundTrip();
+            return List.of();
+        });
+        when(userTeamMapper.countByUserIds(anyCollection())).thenAnswer(invocation -> {
+            roundTrip();
+            Collection<Long> userIds = invocation.getArgument(0);
+            List<UserTeamCount> userTeamCountList = new ArrayList<>();
+            for (Long userId : userIds) {
+                AtomicInteger teamCount = userTeamCountMap.get(userId);
+                if (teamCount != null) {
+                    UserTeamCount userTeamCount = new UserTeamCount();
+                    userTeamCount.setUserId(userId);
+                    userTeamCount.setTeamCount(teamCount.get());
+                    userTeamCountList.add(userTeamCount);
+                }
+            }
+            return userTeamCountList;
+        });
+        when(userTeamMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            roundTrip();
+            List<UserTeam> userTeamList = invocation.getArgument(0);
+            userTeamList.forEach(userTeam ->
+                    userTeamCountMap.computeIfAbsent(userTeam.getUserId(), id -> new AtomicInteger()).incrementAndGet());
+            insertedNum.addAndGet(userTeamList.size());
+            batchNum.incrementAndGet();
+            return userTeamList.size();
+        });
+        TeamJoinPipeline pipeline = new TeamJoinPipeline(teamMapper, userTeamMapper, userMapper, transactionTemplate,
+                batchSize, 5, 1024, 4);
+        pipelineList.add(pipeline);
+        return pipeline;
+    }
+
+    private AtomicInteger memberCountOf(long teamId) {
+        return teamId == TEAM_ID ? memberCount : otherMemberCountMap.computeIfAbsent(teamId, id -> new AtomicInteger(1));
+    }
+
+    private void roundTrip() throws InterruptedException {
+        if (roundTripMillis > 0) {
+            Thread.sleep(roundTripMillis);
+        }
+    }
+}
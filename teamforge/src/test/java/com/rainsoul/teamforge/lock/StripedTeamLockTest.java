@@ -0,0 +1,91 @@
+package com.rainsoul.teamforge.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * 分段锁测试，用“先查询人数再写入”的非原子操作模拟没有数据库条件更新时的加入流程
+ */
+class StripedTeamLockTest {
+
+    private static final int JOIN_NUM = 1000;
+
+    private static final int MAX_NUM = 20;
+
+    @Test
+    void sameTeamJoinsNeverExceedMaxNum() throws Exception {
+        StripedTeamLock teamLock = new StripedTeamLock(1024, 60_000);
+        AtomicInteger memberCount = new AtomicInteger();
+        AtomicInteger maxConcurrency = new AtomicInteger();
+        AtomicInteger concurrency = new AtomicInteger();
+        runConcurrently(userId -> teamLock.executeWithLock(userId, 1L, () -> {
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            int count = memberCount.get();
+            Thread.yield();
+            if (count < MAX_NUM) {
+                memberCount.set(count + 1);
+            }
+            concurrency.decrementAndGet();
+            return null;
+        }));
+        Assertions.assertEquals(MAX_NUM, memberCount.get());
+        Assertions.assertEquals(1, maxConcurrency.get());
+    }
+
+    @Test
+    void differentTeamsDoNotBlockEachOther() throws Exception {
+        StripedTeamLock teamLock = new StripedTeamLock(1024, 100);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            executorService.submit(() -> teamLock.executeWithLock(1L, 1L, () -> {
+                holding.countDown();
+                await(release);
+                return null;
+            }));
+            holding.await();
+            // 队伍 1 的锁被占用时，其他用户加入队伍 2 不需要等待
+            Assertions.assertEquals("ok", teamLock.executeWithLock(2L, 2L, () -> "ok"));
+            release.countDown();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void runConcurrently(LongConsumer join) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(64);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<>();
+            for (long userId = 1; userId <= JOIN_NUM; userId++) {
+                long currentUserId = userId;
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    join.accept(currentUserId);
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futureList) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
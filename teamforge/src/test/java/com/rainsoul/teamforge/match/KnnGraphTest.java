@@ -0,0 +1,82 @@
+package com.rainsoul.teamforge.match;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * k 近邻图文件读写测试
+ */
+class KnnGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndRead() throws IOException {
+        Path graphPath = tempDir.resolve("knn-graph.bin");
+        try (KnnGraph.Writer writer = new KnnGraph.Writer(graphPath, 2)) {
+            writer.add(1, List.of(new MatchResult(2, 0f), new MatchResult(3, 1f), new MatchResult(4, 2f)));
+            writer.add(2, List.of());
+            writer.add(5, List.of(new MatchResult(1, 0.5f)));
+            writer.commit();
+        }
+        KnnGraph graph = KnnGraph.open(graphPath);
+        Assertions.assertEquals(3, graph.getUserCount());
+        Assertions.assertEquals(List.of(new MatchResult(2, 0f), new MatchResult(3, 1f)), graph.getNeighbors(1, 20));
+        Assertions.assertEquals(List.of(new MatchResult(2, 0f)), graph.getNeighbors(1, 1));
+        Assertions.assertEquals(List.of(), graph.getNeighbors(2, 20));
+        Assertions.assertEquals(List.of(new MatchResult(1, 0.5f)), graph.getNeighbors(5, 20));
+        Assertions.assertNull(graph.getNeighbors(3, 20));
+
+        // 新图原子替换旧图，已打开的旧图不受影响
+        try (KnnGraph.Writer writer = new KnnGraph.Writer(graphPath, 2)) {
+            writer.add(7, List.of(new MatchResult(8, 0f)));
+            writer.commit();
+        }
+        Assertions.assertEquals(List.of(new MatchResult(8, 0f)), KnnGraph.open(graphPath).getNeighbors(7, 20));
+        Assertions.assertEquals(List.of(new MatchResult(1, 0.5f)), graph.getNeighbors(5, 20));
+    }
+
+    @Test
+    void skipUsersWithTagsUpdatedAfterBuild() throws Exception {
+        KnnGraphStore knnGraphStore = new KnnGraphStore();
+        ReflectionTestUtils.setField(knnGraphStore, "graphPath", tempDir.resolve("knn-graph.bin").toString());
+        writeGraph(knnGraphStore.getGraphPath());
+        knnGraphStore.reload();
+
+        // 邻居 2 修改了标签：跳过后由后面的邻居补齐
+        knnGraphStore.markTagsUpdated(2);
+        Assertions.assertEquals(List.of(new MatchResult(3, 1f)), knnGraphStore.getNeighbors(1, 1));
+        Assertions.assertEquals(List.of(new MatchResult(3, 1f), new MatchResult(4, 2f)), knnGraphStore.getNeighbors(1, 20));
+        // 用户自己修改了标签：图中的邻居都不再使用
+        knnGraphStore.markTagsUpdated(1);
+        Assertions.assertNull(knnGraphStore.getNeighbors(1, 20));
+
+        // 修改之后生成的新图已包含新的标签
+        Thread.sleep(5);
+        writeGraph(knnGraphStore.getGraphPath());
+        knnGraphStore.reload();
+        Assertions.assertEquals(List.of(new MatchResult(2, 0f)), knnGraphStore.getNeighbors(1, 1));
+    }
+
+    @Test
+    void rejectUnorderedUserIds() throws IOException {
+        try (KnnGraph.Writer writer = new KnnGraph.Writer(tempDir.resolve("knn-graph.bin"), 2)) {
+            writer.add(2, List.of());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> writer.add(1, List.of()));
+        }
+    }
+
+    private static void writeGraph(Path graphPath) throws IOException {
+        try (KnnGraph.Writer writer = new KnnGraph.Writer(graphPath, 3)) {
+            writer.add(1, List.of(new MatchResult(2, 0f), new MatchResult(3, 1f), new MatchResult(4, 2f)));
+            writer.commit();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.rainsoul.teamforge.match;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.*;
+
+/**
+ * 并行匹配引擎测试：并行和顺序匹配的结果都与暴力计算的 Top-N 一致。
+ * 大规模耗时测试标记为 benchmark，默认不运行，指定 -Dteamforge.benchmark=true 时运行。
+ */
+class MatchEngineTest {
+
+    private static final int TAG_NUM = 200;
+
+    private static final int TOP_N = 20;
+
+    @Test
+    void topNMatchesBruteForce() throws InterruptedException {
+        UserTagSnapshot snapshot = randomSnapshot(new Random(2024), 10000);
+        long excludeUserId = snapshot.userIds()[0];
+        MatchScorer.PreparedQuery query = new EditDistanceMatchScorer().prepare(snapshot.tagIds()[0]);
+        List<Float> expected = bruteForceTopN(snapshot, excludeUserId, query, TOP_N);
+        // 并行度为 1 时顺序匹配，其余按 1024 个用户以上的叶子任务切分
+        for (int parallelism : new int[]{1, 2, 4}) {
+            MatchEngine engine = new MatchEngine(parallelism, 0);
+            try {
+                assertTopN(snapshot, excludeUserId, query, expected,
+                        engine.match(snapshot, excludeUserId, query, TOP_N));
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void fewerCandidatesThanN() throws InterruptedException {
+        UserTagSnapshot snapshot = randomSnapshot(new Random(7), 5);
+        long excludeUserId = snapshot.userIds()[2];
+        MatchScorer.PreparedQuery query = new EditDistanceMatchScorer().prepare(snapshot.tagIds()[2]);
+        MatchEngine engine = new MatchEngine(2, 0);
+        try {
+            List<MatchResult> actual = engine.match(snapshot, excludeUserId, query, TOP_N);
+            Assertions.assertEquals(4, actual.size());
+            assertTopN(snapshot, excludeUserId, query, bruteForceTopN(snapshot, excludeUserId, query, TOP_N), actual);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "teamforge.benchmark", matches = "true")
+    void scaling(TestReporter testReporter) throws InterruptedException {
+        int userNum = 500000;
+        int rounds = 5;
+        UserTagSnapshot snapshot = randomSnapshot(new Random(2024), userNum);
+        long excludeUserId = snapshot.userIds()[0];
+        MatchScorer.PreparedQuery query = new EditDistanceMatchScorer().prepare(snapshot.tagIds()[0]);
+        Set<Integer> parallelismSet = new LinkedHashSet<>(List.of(1, 2, 4, Runtime.getRuntime().availableProcessors()));
+        for (int parallelism : parallelismSet) {
+            MatchEngine engine = new MatchEngine(parallelism, 0);
+            try {
+                // 预热
+                engine.match(snapshot, excludeUserId, query, TOP_N);
+                long start = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    engine.match(snapshot, excludeUserId, query, TOP_N);
+                }
+                long costNanos = (System.nanoTime() - start) / rounds;
+                testReporter.publishEntry("parallelism " + parallelism, String.format("%.2f ms", costNanos / 1e6));
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 分数相同的用户可以互换，比较分数序列，并校验每个入选用户的分数。
+     */
+    private static void assertTopN(UserTagSnapshot snapshot, long excludeUserId, MatchScorer.PreparedQuery query,
+                                   List<Float> expected, List<MatchResult> actual) {
+        Assertions.assertEquals(expected, actual.stream().map(MatchResult::score).toList());
+        for (MatchResult matchResult : actual) {
+            Assertions.assertNotEquals(excludeUserId, matchResult.userId());
+            int index = (int) matchResult.userId() - 1;
+            Assertions.assertEquals(query.score(snapshot.tagIds()[index], Float.POSITIVE_INFINITY), matchResult.score());
+        }
+    }
+
+    /**
+     * 对所有用户计算精确分数后排序，返回最小的 num 个分数。
+     */
+    private static List<Float> bruteForceTopN(UserTagSnapshot snapshot, long excludeUserId,
+                                              MatchScorer.PreparedQuery query, int num) {
+        List<Float> scoreList = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.userIds()[i] != excludeUserId) {
+                scoreList.add(query.score(snapshot.tagIds()[i], Float.POSITIVE_INFINITY));
+            }
+        }
+        Collections.sort(scoreList);
+        return scoreList.subList(0, Math.min(num, scoreList.size()));
+    }
+
+    /**
+     * 用户id从 1 开始连续编号，与快照下标对应。
+     */
+    private static UserTagSnapshot randomSnapshot(Random random, int userNum) {
+        long[] userIds = new long[userNum];
+        int[][] tagIds = new int[userNum][];
+        for (int i = 0; i < userNum; i++) {
+            userIds[i] = i + 1;
+            tagIds[i] = random.ints(2 + random.nextInt(6), 0, TAG_NUM).distinct().sorted().toArray();
+        }
+        return new UserTagSnapshot(userIds, tagIds);
+    }
+}
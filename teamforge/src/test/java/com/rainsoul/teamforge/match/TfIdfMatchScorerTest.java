@@ -0,0 +1,90 @@
+package com.rainsoul.teamforge.match;
+
+import com.rainsoul.teamforge.service.UserTagIndexService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * TF-IDF 打分器测试，标签索引使用 Mockito 替身
+ * <p>
+ * 4 个用户的标签为 {1,2}、{1,3}、{1}、{1,2,3}，文档频率 df1 = 4、df2 = df3 = 2，
+ * 因此 idf1 = ln(5/5) + 1 = 1，idf2 = idf3 = ln(5/3) + 1。
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class TfIdfMatchScorerTest {
+
+    private static final int[][] USER_TAG_IDS = {{1, 2}, {1, 3}, {1}, {1, 2, 3}};
+
+    private static final double IDF1 = 1;
+
+    private static final double IDF23 = Math.log(5.0 / 3) + 1;
+
+    @Mock
+    private UserTagIndexService userTagIndexService;
+
+    @InjectMocks
+    private TfIdfMatchScorer tfIdfMatchScorer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tfIdfMatchScorer, "refreshSeconds", 600L);
+        when(userTagIndexService.isReady()).thenReturn(true);
+        when(userTagIndexService.countUsersByTag()).thenReturn(new int[]{0, 4, 2, 2});
+        when(userTagIndexService.getUserCount()).thenReturn(USER_TAG_IDS.length);
+        doAnswer(invocation -> {
+            UserTagIndexService.UserTagIdsConsumer consumer = invocation.getArgument(0);
+            for (int i = 0; i < USER_TAG_IDS.length; i++) {
+                consumer.accept(i + 1, USER_TAG_IDS[i]);
+            }
+            return null;
+        }).when(userTagIndexService).forEachUser(any());
+    }
+
+    @Test
+    void scoreIsOneMinusWeightedCosine() {
+        MatchScorer.PreparedQuery query = tfIdfMatchScorer.prepare(new int[]{1, 2});
+        double queryNorm = Math.sqrt(IDF1 * IDF1 + IDF23 * IDF23);
+
+        // 标签集合相同：余弦为 1
+        Assertions.assertEquals(0f, query.score(USER_TAG_IDS[0], Float.POSITIVE_INFINITY), 1e-6);
+        Assertions.assertEquals(0f, query.score(new int[]{1, 2}, Float.POSITIVE_INFINITY), 1e-6);
+        // 没有共同标签：余弦为 0，包括统计之后新出现的标签
+        Assertions.assertEquals(1f, query.score(new int[]{3}, Float.POSITIVE_INFINITY));
+        Assertions.assertEquals(1f, query.score(new int[]{9}, Float.POSITIVE_INFINITY));
+
+        float score1 = query.score(USER_TAG_IDS[2], Float.POSITIVE_INFINITY);
+        Assertions.assertEquals(1 - IDF1 / queryNorm, score1, 1e-6);
+        float score13 = query.score(USER_TAG_IDS[1], Float.POSITIVE_INFINITY);
+        Assertions.assertEquals(1 - IDF1 * IDF1 / (queryNorm * queryNorm), score13, 1e-6);
+        float score123 = query.score(USER_TAG_IDS[3], Float.POSITIVE_INFINITY);
+        double norm123 = Math.sqrt(IDF1 * IDF1 + 2 * IDF23 * IDF23);
+        Assertions.assertEquals(1 - (IDF1 * IDF1 + IDF23 * IDF23) / (queryNorm * norm123), score123, 1e-6);
+
+        // 共同拥有冷门标签 2 比只共同拥有热门标签 1 更相似
+        Assertions.assertTrue(score123 < score1);
+        Assertions.assertTrue(score1 < score13);
+        Assertions.assertTrue(score13 < 1f);
+    }
+
+    @Test
+    void scoreDoesNotDependOnTagOrderOrCache() {
+        MatchScorer.PreparedQuery query = tfIdfMatchScorer.prepare(new int[]{1, 3});
+        // 缓存中的数组与新数组（如修改标签后的用户）分数相同
+        Assertions.assertEquals(query.score(USER_TAG_IDS[3], Float.POSITIVE_INFINITY),
+                query.score(new int[]{1, 2, 3}, Float.POSITIVE_INFINITY), 1e-6);
+        Assertions.assertEquals(0f, query.score(USER_TAG_IDS[1], Float.POSITIVE_INFINITY), 1e-6);
+        // IDF 表和向量长度只统计一次
+        tfIdfMatchScorer.prepare(new int[]{2});
+        verify(userTagIndexService, times(1)).forEachUser(any());
+    }
+}
@@ -0,0 +1,296 @@
+package com.rainsoul.teamforge.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rainsoul.teamforge.exception.BusinessException;
+import com.rainsoul.teamforge.model.domain.Team;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.model.domain.UserTeam;
+import com.rainsoul.teamforge.model.request.TeamJoinRequest;
+import com.rainsoul.teamforge.model.request.TeamQuitRequest;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rainsoul.teamforge.constant.UserConstant.DEFAULT_MAX_CREATE_TEAM_NUM;
+
+/**
+ * 队伍服务测试，需要连接数据库，使用远大于真实用户id的虚拟用户，测试结束后删除队伍和关系
+ */
+@SpringBootTest
+class TeamServiceTest {
+
+    private static final long TEST_USER_ID_BASE = 900_000_000L;
+
+    private static final int JOIN_NUM = 1000;
+
+    private static final int MAX_NUM = 20;
+
+    private static final int CREATE_NUM = 16;
+
+    /**
+     * 退出、解散和加入竞争的测试中参与的成员数
+     */
+    private static final int RACE_NUM = 9;
+
+    @Resource
+    private TeamService teamService;
+
+    @Resource
+    private UserTeamService userTeamService;
+
+    /**
+     * 1000 个用户同时加入同一个队伍，成功人数和已加入人数都不超过最大人数
+     */
+    @Test
+    void concurrentJoinNeverExceedsMaxNum() throws Exception {
+        Team team = new Team();
+        team.setName("concurrent-join-test");
+        team.setMaxNum(MAX_NUM);
+        team.setStatus(0);
+        team.setExpireTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        long teamId = teamService.addTeam(team, newUser(TEST_USER_ID_BASE));
+        ExecutorService executorService = Executors.newFixedThreadPool(64);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            AtomicInteger successNum = new AtomicInteger();
+            AtomicInteger fullNum = new AtomicInteger();
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 1; i <= JOIN_NUM; i++) {
+                User user = newUser(TEST_USER_ID_BASE + i);
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    TeamJoinRequest teamJoinRequest = new TeamJoinRequest();
+                    teamJoinRequest.setTeamId(teamId);
+                    try {
+                        if (teamService.joinTeam(teamJoinRequest, user)) {
+                            successNum.incrementAndGet();
+                        }
+                    } catch (BusinessException e) {
+                        fullNum.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futureList) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("teamId", teamId);
+            // 创建人占一个名额
+            Assertions.assertEquals(MAX_NUM - 1, successNum.get());
+            Assertions.assertEquals(JOIN_NUM - MAX_NUM + 1, fullNum.get());
+            Assertions.assertEquals(MAX_NUM, userTeamService.count(queryWrapper));
+            Assertions.assertEquals(MAX_NUM, teamService.getById(teamId).getMemberCount());
+        } finally {
+            executorService.shutdownNow();
+            QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("teamId", teamId);
+            userTeamService.remove(queryWrapper);
+            teamService.removeById(teamId);
+        }
+    }
+
+    /**
+     * 同一个用户同时创建多个队伍，成功创建的数量不超过上限
+     */
+    @Test
+    void concurrentCreateNeverExceedsLimit() throws Exception {
+        long userId = TEST_USER_ID_BASE + JOIN_NUM + 1;
+        User user = newUser(userId);
+        ExecutorService executorService = Executors.newFixedThreadPool(CREATE_NUM);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            AtomicInteger successNum = new AtomicInteger();
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 0; i < CREATE_NUM; i++) {
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    Team team = new Team();
+                    team.setName("concurrent-create-test");
+                    team.setMaxNum(MAX_NUM);
+                    team.setStatus(0);
+                    team.setExpireTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+                    try {
+                        teamService.addTeam(team, user);
+                        successNum.incrementAndGet();
+                    } catch (BusinessException ignored) {
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futureList) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("userId", userId);
+            Assertions.assertEquals(DEFAULT_MAX_CREATE_TEAM_NUM, successNum.get());
+            Assertions.assertEquals(DEFAULT_MAX_CREATE_TEAM_NUM, teamService.count(queryWrapper));
+        } finally {
+            executorService.shutdownNow();
+            QueryWrapper<UserTeam> userTeamQueryWrapper = new QueryWrapper<>();
+            userTeamQueryWrapper.eq("userId", userId);
+            userTeamService.remove(userTeamQueryWrapper);
+            QueryWrapper<Team> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("userId", userId);
+            teamService.remove(queryWrapper);
+        }
+    }
+
+    /**
+     * 解散队伍的同时有用户加入，解散后不会留下成员关系
+     */
+    @Test
+    void concurrentDeleteAndJoinLeaveNoMembers() throws Exception {
+        User captain = newUser(TEST_USER_ID_BASE + JOIN_NUM + 2);
+        long teamId = teamService.addTeam(newTeam("concurrent-delete-test"), captain);
+        ExecutorService executorService = Executors.newFixedThreadPool(RACE_NUM + 1);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 1; i <= RACE_NUM; i++) {
+                User user = newUser(TEST_USER_ID_BASE + i);
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return tryJoin(teamId, user);
+                }));
+            }
+            futureList.add(executorService.submit(() -> {
+                startLatch.await();
+                return teamService.deleteTeam(teamId, captain);
+            }));
+            startLatch.countDown();
+            for (Future<?> future : futureList) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            QueryWrapper<Team> teamQueryWrapper = new QueryWrapper<>();
+            teamQueryWrapper.eq("id", teamId);
+            QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("teamId", teamId);
+            Assertions.assertEquals(0, teamService.count(teamQueryWrapper));
+            Assertions.assertEquals(0, userTeamService.count(queryWrapper));
+        } finally {
+            executorService.shutdownNow();
+            removeTeam(teamId);
+        }
+    }
+
+    /**
+     * 成员（包括队长）退出的同时有用户加入，人数始终等于成员关系数，队长仍是成员，解散时不留下成员关系
+     */
+    @Test
+    void concurrentQuitAndJoinKeepMemberCount() throws Exception {
+        long captainId = TEST_USER_ID_BASE + JOIN_NUM + 3;
+        long teamId = teamService.addTeam(newTeam("concurrent-quit-test"), newUser(captainId));
+        for (int i = 1; i <= RACE_NUM; i++) {
+            Assertions.assertTrue(tryJoin(teamId, newUser(TEST_USER_ID_BASE + i)));
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(RACE_NUM * 2 + 1);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<>();
+            // 已加入的成员和队长退出
+            for (int i = 0; i <= RACE_NUM; i++) {
+                User user = newUser(i == 0 ? captainId : TEST_USER_ID_BASE + i);
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    TeamQuitRequest teamQuitRequest = new TeamQuitRequest();
+                    teamQuitRequest.setTeamId(teamId);
+                    return teamService.quitTeam(teamQuitRequest, user);
+                }));
+            }
+            // 新用户同时加入
+            for (int i = RACE_NUM + 1; i <= RACE_NUM * 2; i++) {
+                User user = newUser(TEST_USER_ID_BASE + i);
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return tryJoin(teamId, user);
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futureList) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            QueryWrapper<Team> teamQueryWrapper = new QueryWrapper<>();
+            teamQueryWrapper.eq("id", teamId);
+            Team team = teamService.getOne(teamQueryWrapper);
+            QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("teamId", teamId);
+            long memberNum = userTeamService.count(queryWrapper);
+            if (team == null) {
+                Assertions.assertEquals(0, memberNum);
+            } else {
+                Assertions.assertEquals(memberNum, team.getMemberCount().longValue());
+                queryWrapper.eq("userId", team.getUserId());
+                Assertions.assertEquals(1, userTeamService.count(queryWrapper));
+            }
+        } finally {
+            executorService.shutdownNow();
+            removeTeam(teamId);
+        }
+    }
+
+    /**
+     * 缓存的队伍会写入 Redis，不包含密码；加入加密队伍时仍按数据库中的密码校验
+     */
+    @Test
+    void cachedTeamHasNoPassword() {
+        Team team = newTeam("cached-secret-test");
+        team.setStatus(2);
+        team.setPassword("123456");
+        long teamId = teamService.addTeam(team, newUser(TEST_USER_ID_BASE + JOIN_NUM + 4));
+        try {
+            Assertions.assertNull(teamService.getById(teamId).getPassword());
+            Assertions.assertNull(teamService.getById(teamId).getPassword());
+            TeamJoinRequest teamJoinRequest = new TeamJoinRequest();
+            teamJoinRequest.setTeamId(teamId);
+            teamJoinRequest.setPassword("654321");
+            Assertions.assertThrows(BusinessException.class, () -> teamService.joinTeam(teamJoinRequest, newUser(TEST_USER_ID_BASE + 1)));
+            teamJoinRequest.setPassword("123456");
+            Assertions.assertTrue(teamService.joinTeam(teamJoinRequest, newUser(TEST_USER_ID_BASE + 1)));
+        } finally {
+            removeTeam(teamId);
+        }
+    }
+
+    private boolean tryJoin(long teamId, User user) {
+        TeamJoinRequest teamJoinRequest = new TeamJoinRequest();
+        teamJoinRequest.setTeamId(teamId);
+        try {
+            return teamService.joinTeam(teamJoinRequest, user);
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private void removeTeam(long teamId) {
+        QueryWrapper<UserTeam> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("teamId", teamId);
+        userTeamService.remove(queryWrapper);
+        teamService.removeById(teamId);
+    }
+
+    private static Team newTeam(String name) {
+        Team team = new Team();
+        team.setName(name);
+        team.setMaxNum(MAX_NUM);
+        team.setStatus(0);
+        team.setExpireTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        return team;
+    }
+
+    private static User newUser(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUserRole(0);
+        return user;
+    }
+}
@@ -0,0 +1,143 @@
+package com.rainsoul.teamforge.service.impl;
+
+import com.rainsoul.teamforge.mapper.UserMapper;
+import com.rainsoul.teamforge.model.domain.User;
+import com.rainsoul.teamforge.service.TagService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户标签倒排索引测试，用户表和标签服务使用 Mockito 替身，标签以逗号分隔的标签id表示
+ */
+@ExtendWith(MockitoExtension.class)
+class UserTagIndexServiceImplTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private TagService tagService;
+
+    @InjectMocks
+    private UserTagIndexServiceImpl userTagIndexService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userTagIndexService, "lshBands", 16);
+        ReflectionTestUtils.setField(userTagIndexService, "lshRows", 2);
+        ReflectionTestUtils.setField(userTagIndexService, "syncOverlapSeconds", 60L);
+        lenient().when(tagService.parseTagIds(any(), anyBoolean())).thenAnswer(invocation -> {
+            String tags = invocation.getArgument(0);
+            return tags == null || tags.isEmpty() ? new int[0]
+                    : Arrays.stream(tags.split(",")).mapToInt(Integer::parseInt).sorted().distinct().toArray();
+        });
+    }
+
+    @Test
+    void searchReturnsUsersHavingAllTags() {
+        when(userMapper.selectList(any())).thenReturn(List.of(newUser(1, "1,2,3"), newUser(2, "1,2"),
+                newUser(3, "2,3"), newUser(4, "")), List.of());
+        userTagIndexService.rebuild();
+
+        Assertions.assertTrue(userTagIndexService.isReady());
+        Assertions.assertArrayEquals(new int[]{1, 2}, userTagIndexService.searchUserIds(new int[]{1, 2}).toArray());
+        Assertions.assertArrayEquals(new int[]{1, 3}, userTagIndexService.searchUserIds(new int[]{2, 3}).toArray());
+        Assertions.assertArrayEquals(new int[]{1}, userTagIndexService.searchUserIds(new int[]{1, 2, 3}).toArray());
+        Assertions.assertTrue(userTagIndexService.searchUserIds(new int[]{1, 9}).isEmpty());
+        Assertions.assertTrue(userTagIndexService.searchUserIds(new int[0]).isEmpty());
+        Assertions.assertEquals(3, userTagIndexService.getUserCount());
+    }
+
+    @Test
+    void updateMovesUserBetweenTags() {
+        when(userMapper.selectList(any())).thenReturn(List.of(newUser(1, "1,2"), newUser(2, "1")), List.of());
+        userTagIndexService.rebuild();
+
+        userTagIndexService.updateUserTags(1, new int[]{2, 3});
+        Assertions.assertArrayEquals(new int[]{2}, userTagIndexService.searchUserIds(new int[]{1}).toArray());
+        Assertions.assertArrayEquals(new int[]{1}, userTagIndexService.searchUserIds(new int[]{3}).toArray());
+        Assertions.assertArrayEquals(new int[]{2, 3}, userTagIndexService.getUserTagIds(1));
+        Assertions.assertArrayEquals(new int[]{0, 1, 1, 1}, userTagIndexService.countUsersByTag());
+
+        // 标签清空后用户移出索引
+        userTagIndexService.updateUserTags(1, new int[0]);
+        Assertions.assertEquals(1, userTagIndexService.getUserCount());
+        Assertions.assertTrue(userTagIndexService.searchUserIds(new int[]{2}).isEmpty());
+        Assertions.assertEquals(1, userTagIndexService.snapshot().size());
+    }
+
+    @Test
+    void updateDuringRebuildIsNotLost() {
+        // 扫描读到用户 1 的旧标签之前，该用户的标签已被更新
+        when(userMapper.selectList(any())).thenAnswer(invocation -> {
+            userTagIndexService.updateUserTags(1, new int[]{3});
+            return List.of(newUser(1, "1,2"), newUser(2, "1"));
+        }).thenReturn(List.of());
+        userTagIndexService.rebuild();
+
+        Assertions.assertArrayEquals(new int[]{3}, userTagIndexService.getUserTagIds(1));
+        Assertions.assertArrayEquals(new int[]{2}, userTagIndexService.searchUserIds(new int[]{1}).toArray());
+        Assertions.assertTrue(userTagIndexService.searchUserIds(new int[]{2}).isEmpty());
+        Assertions.assertArrayEquals(new int[]{1}, userTagIndexService.searchUserIds(new int[]{3}).toArray());
+
+        // 重建结束后的更新只写入当前索引
+        when(userMapper.selectList(any())).thenReturn(List.of(newUser(1, "3"), newUser(2, "1")), List.of());
+        userTagIndexService.rebuild();
+        userTagIndexService.updateUserTags(2, new int[]{4});
+        Assertions.assertArrayEquals(new int[]{2}, userTagIndexService.searchUserIds(new int[]{4}).toArray());
+    }
+
+    @Test
+    void syncAppliesChangesFromOtherNodes() {
+        when(userMapper.selectMaxUpdateTime()).thenReturn(new Date(100_000));
+        when(userMapper.selectList(any())).thenReturn(List.of(newUser(1, "1,2"), newUser(2, "1"), newUser(3, "2")),
+                List.of());
+        userTagIndexService.rebuild();
+
+        // 用户 1 在重叠时间内但标签没变，用户 2 在其他节点修改了标签，用户 3 已删除
+        User deletedUser = newUser(3, "2", 130_000);
+        deletedUser.setIsDelete(1);
+        when(userMapper.selectUpdatedAfter(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(newUser(1, "1,2", 100_000), newUser(2, "3", 120_000), deletedUser), List.of());
+        Assertions.assertEquals(List.of(2L, 3L), userTagIndexService.syncUpdatedUsers());
+
+        Assertions.assertArrayEquals(new int[]{1}, userTagIndexService.searchUserIds(new int[]{1}).toArray());
+        Assertions.assertArrayEquals(new int[]{2}, userTagIndexService.searchUserIds(new int[]{3}).toArray());
+        Assertions.assertArrayEquals(new int[]{1}, userTagIndexService.searchUserIds(new int[]{2}).toArray());
+        Assertions.assertEquals(2, userTagIndexService.getUserCount());
+        // 从重建前的最大修改时间回退重叠时间开始读取，按 (updateTime, id) 翻页
+        verify(userMapper).selectUpdatedAfter(new Date(40_000), 0, 500);
+        verify(userMapper).selectUpdatedAfter(new Date(130_000), 3, 500);
+
+        // 下次同步从本次读到的最大修改时间开始
+        when(userMapper.selectUpdatedAfter(any(), anyLong(), anyInt())).thenReturn(List.of());
+        Assertions.assertTrue(userTagIndexService.syncUpdatedUsers().isEmpty());
+        verify(userMapper).selectUpdatedAfter(new Date(70_000), 0, 500);
+    }
+
+    private static User newUser(long id, String tags, long updateTime) {
+        User user = newUser(id, tags);
+        user.setUpdateTime(new Date(updateTime));
+        return user;
+    }
+
+    private static User newUser(long id, String tags) {
+        User user = new User();
+        user.setId(id);
+        user.setTags(tags);
+        return user;
+    }
+}
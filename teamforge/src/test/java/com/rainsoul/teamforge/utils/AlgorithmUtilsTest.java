@@ -0,0 +1,128 @@
+package com.rainsoul.teamforge.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 编辑距离算法测试
+ */
+class AlgorithmUtilsTest {
+
+    private static final String[] ALPHABETS = {
+            "ab",
+            "abcdefghijklmnopqrstuvwxyz",
+            "ab中文字符测试",
+            "中文标签数据分析"
+    };
+
+    /**
+     * 位并行实现与动态规划实现在随机字符串上的结果必须完全一致，
+     * 覆盖单块（不超过 64 个字符）、多块以及非 ASCII 字符。
+     */
+    @Test
+    void bitParallelMatchesDp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+            int maxLength = random.nextInt(10) == 0 ? 300 : 70;
+            String word1 = randomString(random, alphabet, random.nextInt(maxLength));
+            String word2 = randomString(random, alphabet, random.nextInt(maxLength));
+            Assertions.assertEquals(AlgorithmUtils.minDistanceByDp(word1, word2),
+                    AlgorithmUtils.minDistance(word1, word2), word1 + " | " + word2);
+        }
+    }
+
+    @Test
+    void boundaryLengths() {
+        Random random = new Random(7);
+        for (int length : new int[]{1, 63, 64, 65, 127, 128, 129}) {
+            String word1 = randomString(random, ALPHABETS[1], length);
+            String word2 = randomString(random, ALPHABETS[1], length + random.nextInt(3));
+            Assertions.assertEquals(AlgorithmUtils.minDistanceByDp(word1, word2),
+                    AlgorithmUtils.minDistance(word1, word2));
+        }
+        Assertions.assertEquals(3, AlgorithmUtils.minDistance("", "abc"));
+        Assertions.assertEquals(0, AlgorithmUtils.minDistance("abc", "abc"));
+        Assertions.assertEquals(3, AlgorithmUtils.minDistance("kitten", "sitting"));
+    }
+
+    /**
+     * 带状实现与完整动态规划在随机标签数组上一致：距离不超过 maxDistance 时返回精确值，否则返回 maxDistance + 1。
+     * 覆盖 maxDistance 恰好等于距离和比距离小 1 的边界、空数组以及长度相差很大的数组。
+     */
+    @Test
+    void bandedMatchesFullDp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int alphabetSize = 1 + random.nextInt(8);
+            int[] tagIds1 = randomTagIds(random, alphabetSize, random.nextInt(random.nextInt(5) == 0 ? 40 : 12));
+            int[] tagIds2 = randomTagIds(random, alphabetSize, random.nextInt(random.nextInt(5) == 0 ? 40 : 12));
+            int expected = minDistanceByDp(tagIds1, tagIds2);
+            String message = Arrays.toString(tagIds1) + " | " + Arrays.toString(tagIds2);
+            Assertions.assertEquals(expected, AlgorithmUtils.minDistance(tagIds1, tagIds2), message);
+            // 恰好等于距离时返回精确值，小 1 时返回 maxDistance + 1
+            Assertions.assertEquals(expected, AlgorithmUtils.minDistance(tagIds1, tagIds2, expected), message);
+            if (expected > 0) {
+                Assertions.assertEquals(expected, AlgorithmUtils.minDistance(tagIds1, tagIds2, expected - 1), message);
+            }
+            int maxDistance = random.nextInt(expected + 3);
+            Assertions.assertEquals(Math.min(expected, maxDistance + 1),
+                    AlgorithmUtils.minDistance(tagIds1, tagIds2, maxDistance), message + " | " + maxDistance);
+        }
+    }
+
+    @Test
+    void bandedBoundaryCases() {
+        int[] empty = new int[0];
+        int[] tagIds = {1, 2, 3, 4, 5};
+        Assertions.assertEquals(0, AlgorithmUtils.minDistance(empty, empty, 0));
+        Assertions.assertEquals(5, AlgorithmUtils.minDistance(empty, tagIds, 5));
+        Assertions.assertEquals(3, AlgorithmUtils.minDistance(tagIds, empty, 2));
+        Assertions.assertEquals(1, AlgorithmUtils.minDistance(tagIds, new int[]{9}, 0));
+        // 长度相差超过 maxDistance 时距离必然超出
+        int[] longTagIds = new int[100];
+        Arrays.fill(longTagIds, 1);
+        Assertions.assertEquals(99, AlgorithmUtils.minDistance(new int[]{1}, longTagIds, 99));
+        Assertions.assertEquals(99, AlgorithmUtils.minDistance(longTagIds, new int[]{1}, 98));
+        Assertions.assertEquals(4, AlgorithmUtils.minDistance(longTagIds, new int[]{1}, 3));
+    }
+
+    /**
+     * 完整的动态规划，作为带状实现的对照。
+     */
+    private static int minDistanceByDp(int[] tagIds1, int[] tagIds2) {
+        int[][] dp = new int[tagIds1.length + 1][tagIds2.length + 1];
+        for (int i = 0; i <= tagIds1.length; i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= tagIds2.length; j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= tagIds1.length; i++) {
+            for (int j = 1; j <= tagIds2.length; j++) {
+                int replace = dp[i - 1][j - 1] + (tagIds1[i - 1] == tagIds2[j - 1] ? 0 : 1);
+                dp[i][j] = Math.min(replace, Math.min(dp[i - 1][j], dp[i][j - 1]) + 1);
+            }
+        }
+        return dp[tagIds1.length][tagIds2.length];
+    }
+
+    private static int[] randomTagIds(Random random, int alphabetSize, int length) {
+        int[] tagIds = new int[length];
+        for (int i = 0; i < length; i++) {
+            tagIds[i] = random.nextInt(alphabetSize);
+        }
+        return tagIds;
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.rainsoul.teamforge.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * 队伍搜索索引测试：中文二元组分词、名称加权排序和文档更新
+ */
+class Bm25IndexTest {
+
+    @Test
+    void tokenize() {
+        Assertions.assertEquals(List.of("篮球", "球比", "比赛", "nba", "2024"), Bm25Index.tokenize("篮球比赛 NBA,2024"));
+        Assertions.assertEquals(List.of("球"), Bm25Index.tokenize("球"));
+        Assertions.assertTrue(Bm25Index.isSearchable("篮球"));
+        Assertions.assertTrue(Bm25Index.isSearchable("java"));
+        Assertions.assertFalse(Bm25Index.isSearchable("球"));
+        Assertions.assertFalse(Bm25Index.isSearchable("  ,"));
+    }
+
+    @Test
+    void searchRanksNameMatchFirst() {
+        Bm25Index index = new Bm25Index(3);
+        index.put(1L, "周末篮球", "每周六下午打球");
+        index.put(2L, "羽毛球小队", "偶尔也打篮球");
+        index.put(3L, "Java 学习", "一起刷算法题");
+
+        Assertions.assertEquals(List.of(1L, 2L), index.search("篮球", 10));
+        Assertions.assertEquals(List.of(3L), index.search("JAVA", 10));
+        Assertions.assertEquals(List.of(1L), index.search("篮球", 1));
+        Assertions.assertTrue(index.search("足球", 10).isEmpty());
+    }
+
+    @Test
+    void updateAndRemove() {
+        Bm25Index index = new Bm25Index(3);
+        index.put(1L, "周末篮球", null);
+        index.put(1L, "周末足球", null);
+        Assertions.assertTrue(index.search("篮球", 10).isEmpty());
+        Assertions.assertEquals(List.of(1L), index.search("足球", 10));
+
+        index.remove(1L);
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.search("足球", 10).isEmpty());
+    }
+}
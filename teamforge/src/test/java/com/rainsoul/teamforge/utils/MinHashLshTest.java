@@ -0,0 +1,149 @@
+package com.rainsoul.teamforge.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.*;
+
+/**
+ * MinHash LSH 召回率测试
+ * <p>
+ * 在固定随机种子生成的合成数据上对比 LSH 候选匹配与全量编辑距离匹配：用户按兴趣分组，
+ * 每个用户从所在分组取 2-5 个标签，再随机混入 0-2 个任意标签。
+ * 召回率定义为 LSH 返回的 Top-N 中编辑距离不超过全量 Top-N 第 N 名距离的比例（距离相同的用户可以互换）。
+ * LSH 的哈希种子也是固定的，结果是确定的。
+ * 单元测试使用 5000 个用户、50 次查询；10 万用户、200 次查询的召回率和耗时对比标记为 benchmark，
+ * 默认不运行，指定 -Dteamforge.benchmark=true 时运行。
+ * </p>
+ */
+class MinHashLshTest {
+
+    private static final int GROUP_TAG_NUM = 12;
+
+    private static final int TOP_N = 20;
+
+    @Test
+    void recall() {
+        int userNum = 5000;
+        RecallResult result = measureRecall(userNum, 20, 400, 50);
+        // 候选集应明显小于全量
+        Assertions.assertTrue(result.maxCandidateNum() < userNum / 10, "too many candidates: " + result.maxCandidateNum());
+        Assertions.assertTrue(result.recall() >= 0.95, "recall too low: " + result.recall());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "teamforge.benchmark", matches = "true")
+    void recallAndLatency(TestReporter testReporter) {
+        int queryNum = 200;
+        RecallResult result = measureRecall(100000, 100, 2000, queryNum);
+        testReporter.publishEntry("recall@" + TOP_N, String.format("%.4f", result.recall()));
+        testReporter.publishEntry("avg candidates", String.valueOf(result.candidateSum() / queryNum));
+        testReporter.publishEntry("exhaustive", String.format("%.3f ms/query", result.exhaustiveNanos() / 1e6 / queryNum));
+        testReporter.publishEntry("lsh", String.format("%.3f ms/query", result.lshNanos() / 1e6 / queryNum));
+    }
+
+    @Test
+    void updateMovesUserBetweenBuckets() {
+        MinHashLsh lsh = new MinHashLsh(16, 2);
+        lsh.put(1, new int[]{1, 2, 3});
+        lsh.put(2, new int[]{1, 2, 3});
+        Assertions.assertTrue(lsh.candidates(new int[]{1, 2, 3}).contains(2));
+        lsh.put(2, new int[]{100, 200, 300});
+        Assertions.assertFalse(lsh.candidates(new int[]{1, 2, 3}).contains(2));
+        Assertions.assertTrue(lsh.candidates(new int[]{100, 200, 300}).contains(2));
+        lsh.put(2, new int[0]);
+        Assertions.assertEquals(1, lsh.size());
+    }
+
+    /**
+     * 生成 userNum 个用户，随机选取 queryNum 个用户分别用全量匹配和 LSH 候选匹配，统计召回率、候选数和耗时。
+     */
+    private static RecallResult measureRecall(int userNum, int groupNum, int tagNum, int queryNum) {
+        Random random = new Random(2024);
+        int[][] userTagIds = new int[userNum + 1][];
+        for (int userId = 1; userId <= userNum; userId++) {
+            userTagIds[userId] = randomTagIds(random, groupNum, tagNum);
+        }
+        MinHashLsh lsh = new MinHashLsh(16, 2);
+        for (int userId = 1; userId <= userNum; userId++) {
+            lsh.put(userId, userTagIds[userId]);
+        }
+
+        double recallSum = 0;
+        int maxCandidateNum = 0;
+        long candidateSum = 0;
+        long exhaustiveNanos = 0;
+        long lshNanos = 0;
+        for (int q = 0; q < queryNum; q++) {
+            int queryUserId = 1 + random.nextInt(userNum);
+            int[] queryTagIds = userTagIds[queryUserId];
+
+            long start = System.nanoTime();
+            List<int[]> exactList = new ArrayList<>();
+            for (int userId = 1; userId <= userNum; userId++) {
+                if (userId != queryUserId) {
+                    exactList.add(new int[]{userId, AlgorithmUtils.minDistance(queryTagIds, userTagIds[userId])});
+                }
+            }
+            List<int[]> exactTop = topN(exactList);
+            exhaustiveNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            RoaringBitmap candidates = lsh.candidates(queryTagIds);
+            List<int[]> lshList = new ArrayList<>();
+            IntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int userId = iterator.next();
+                if (userId != queryUserId) {
+                    lshList.add(new int[]{userId, AlgorithmUtils.minDistance(queryTagIds, userTagIds[userId])});
+                }
+            }
+            List<int[]> lshTop = topN(lshList);
+            lshNanos += System.nanoTime() - start;
+
+            maxCandidateNum = Math.max(maxCandidateNum, candidates.getCardinality());
+            candidateSum += candidates.getCardinality();
+            int threshold = exactTop.get(exactTop.size() - 1)[1];
+            long hit = lshTop.stream().filter(candidate -> candidate[1] <= threshold).count();
+            recallSum += (double) hit / exactTop.size();
+        }
+        return new RecallResult(recallSum / queryNum, maxCandidateNum, candidateSum, exhaustiveNanos, lshNanos);
+    }
+
+    private static int[] randomTagIds(Random random, int groupNum, int tagNum) {
+        int group = random.nextInt(groupNum);
+        Set<Integer> tagIdSet = new HashSet<>();
+        int groupTagNum = 2 + random.nextInt(4);
+        while (tagIdSet.size() < groupTagNum) {
+            tagIdSet.add(group * GROUP_TAG_NUM + random.nextInt(GROUP_TAG_NUM));
+        }
+        int noiseNum = random.nextInt(3);
+        for (int i = 0; i < noiseNum; i++) {
+            tagIdSet.add(random.nextInt(tagNum));
+        }
+        return tagIdSet.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static List<int[]> topN(List<int[]> candidateList) {
+        candidateList.sort(Comparator.<int[]>comparingInt(candidate -> candidate[1])
+                .thenComparingInt(candidate -> candidate[0]));
+        return candidateList.subList(0, Math.min(TOP_N, candidateList.size()));
+    }
+
+    /**
+     * @param recall          平均召回率
+     * @param maxCandidateNum 单次查询最多的候选数
+     * @param candidateSum    所有查询的候选数之和
+     * @param exhaustiveNanos 全量匹配总耗时
+     * @param lshNanos        LSH 候选匹配总耗时
+     */
+    private record RecallResult(double recall, int maxCandidateNum, long candidateSum,
+                                long exhaustiveNanos, long lshNanos) {
+    }
+}
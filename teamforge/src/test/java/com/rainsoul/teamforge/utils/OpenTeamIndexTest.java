@@ -0,0 +1,87 @@
+package com.rainsoul.teamforge.utils;
+
+import com.rainsoul.teamforge.model.domain.Team;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 开放队伍索引测试：排序、二级索引、更新和校验和
+ */
+class OpenTeamIndexTest {
+
+    private static final List<Integer> OPEN_STATUS_LIST = List.of(0, 2);
+
+    @Test
+    void queryInCreateTimeOrder() {
+        OpenTeamIndex index = new OpenTeamIndex();
+        index.put(newTeam(1L, 10L, 0, 1000), List.of(10L));
+        index.put(newTeam(2L, 20L, 2, 3000), List.of(20L, 10L));
+        index.put(newTeam(3L, 10L, 0, 2000), List.of(10L));
+        index.put(newTeam(4L, 30L, 0, 2000), List.of(30L));
+
+        Assertions.assertEquals(List.of(2L, 4L, 3L, 1L), ids(index.query(null, OPEN_STATUS_LIST, team -> true, null, 0)));
+        Assertions.assertEquals(List.of(4L, 3L, 1L), ids(index.query(null, List.of(0), team -> true, null, 0)));
+        Assertions.assertEquals(List.of(3L, 1L), ids(index.query(10L, OPEN_STATUS_LIST, team -> true, null, 0)));
+        Assertions.assertEquals(List.of(3L), ids(index.query(null, OPEN_STATUS_LIST, team -> true,
+                new OpenTeamIndex.Key(2000, 4L), 1)));
+        Assertions.assertEquals(Set.of(20L, 10L),
+                index.query(20L, OPEN_STATUS_LIST, team -> true, null, 0).get(0).memberIds());
+    }
+
+    @Test
+    void updateMovesSecondaryIndex() {
+        OpenTeamIndex index = new OpenTeamIndex();
+        index.put(newTeam(1L, 10L, 0, 1000), List.of(10L));
+        // 队长转让且改为加密
+        index.put(newTeam(1L, 20L, 2, 1000), List.of(20L));
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.query(10L, OPEN_STATUS_LIST, team -> true, null, 0).isEmpty());
+        Assertions.assertTrue(index.query(null, List.of(0), team -> true, null, 0).isEmpty());
+        Assertions.assertEquals(List.of(1L), ids(index.query(20L, List.of(2), team -> true, null, 0)));
+
+        index.remove(1L);
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.query(null, OPEN_STATUS_LIST, team -> true, null, 0).isEmpty());
+    }
+
+    @Test
+    void checksumFollowsContent() {
+        OpenTeamIndex index = new OpenTeamIndex();
+        Team team1 = newTeam(1L, 10L, 0, 1000);
+        Team team2 = newTeam(2L, 20L, 0, 2000);
+        index.put(team1, List.of());
+        index.put(team2, List.of());
+        Assertions.assertEquals(OpenTeamIndex.crc(team1) ^ OpenTeamIndex.crc(team2), index.checksum());
+
+        Team newTeam1 = newTeam(1L, 10L, 0, 1000);
+        newTeam1.setMemberCount(2);
+        index.put(newTeam1, List.of());
+        Assertions.assertNotEquals(OpenTeamIndex.crc(team1), OpenTeamIndex.crc(newTeam1));
+        Assertions.assertEquals(OpenTeamIndex.crc(newTeam1) ^ OpenTeamIndex.crc(team2), index.checksum());
+
+        index.remove(1L);
+        index.remove(2L);
+        Assertions.assertEquals(0L, index.checksum());
+    }
+
+    private static Team newTeam(long id, long userId, int status, long createTime) {
+        Team team = new Team();
+        team.setId(id);
+        team.setName("队伍" + id);
+        team.setUserId(userId);
+        team.setStatus(status);
+        team.setMaxNum(5);
+        team.setMemberCount(1);
+        team.setCreateTime(new Date(createTime));
+        return team;
+    }
+
+    private static List<Long> ids(List<OpenTeamIndex.IndexedTeam> indexedTeamList) {
+        return indexedTeamList.stream().map(indexedTeam -> indexedTeam.team().getId()).toList();
+    }
+}